@@ -0,0 +1,55 @@
+package com.sidhdharth.calculator.benchmark;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.api.ZeroDivisorPolicy;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+
+    @Param({"ADD", "DIVIDE"})
+    private OperationType op;
+
+    @Param({"1024", "1048576"})
+    private int size;
+
+    private Calculator calc;
+    private double[] num1;
+    private double[] num2;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        calc = CalculatorConfig.createCalculator();
+        num1 = new double[size];
+        num2 = new double[size];
+        out = new double[size];
+        for (int i = 0; i < size; i++) {
+            num1[i] = i * 0.5;
+            num2[i] = 1 + (i % 13);
+        }
+    }
+
+    @Benchmark
+    public double[] scalarLoop() {
+        for (int i = 0; i < size; i++) {
+            out[i] = calc.calculateAsDouble(op, num1[i], num2[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] calculateBatch() {
+        calc.calculateBatch(op, num1, num2, out, ZeroDivisorPolicy.IEEE);
+        return out;
+    }
+}
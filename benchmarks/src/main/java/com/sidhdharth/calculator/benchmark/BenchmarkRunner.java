@@ -0,0 +1,133 @@
+package com.sidhdharth.calculator.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/*
+ * Runs the JMH suites with the gc profiler, writes the JSON report and compares the primary
+ * scores against the committed baseline. Exits with status 1 when any benchmark regressed past
+ * the threshold or has no baseline score.
+ *
+ *   -Dbench.include=<regex>      benchmarks to run (default: all JMH suites in this package, which
+ *                                leaves out the StartupBenchmark and ShardScalingBenchmark drivers)
+ *   -Dbench.result=<file>        JSON report (default: target/jmh-result.json)
+ *   -Dbench.baseline=<file>      baseline scores (default: baseline.tsv)
+ *   -Dbench.threshold=<ratio>    allowed regression, 0.20 means 20% (default: 0.20)
+ *   -Dbench.updateBaseline=true  record this run's scores in the baseline instead of comparing;
+ *                                benchmarks that did not run keep their recorded scores
+ *   -Dbench.quick=true           short warmup/measurement for smoke runs
+ */
+public class BenchmarkRunner {
+
+    // StartupBenchmark and ShardScalingBenchmark launch JVMs from main() and are run by hand
+    private static final String DEFAULT_INCLUDE =
+            BenchmarkRunner.class.getPackageName().replace(".", "\\.") + "\\.(?!Startup|ShardScaling)\\w+Benchmark\\.";
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = System.getProperty("bench.include", DEFAULT_INCLUDE);
+        Path result = Path.of(System.getProperty("bench.result", "target/jmh-result.json"));
+        Path baseline = Path.of(System.getProperty("bench.baseline", "baseline.tsv"));
+        double threshold = Double.parseDouble(System.getProperty("bench.threshold", "0.20"));
+
+        Files.createDirectories(result.toAbsolutePath().getParent());
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString());
+        if (Boolean.getBoolean("bench.quick")) {
+            options.warmupIterations(1).warmupTime(TimeValue.milliseconds(200))
+                    .measurementIterations(2).measurementTime(TimeValue.milliseconds(200));
+        }
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        Map<String, Double> scores = new TreeMap<>();
+        for (RunResult r : results) {
+            scores.put(key(r.getParams()), r.getPrimaryResult().getScore());
+        }
+
+        if (Boolean.getBoolean("bench.updateBaseline")) {
+            Map<String, Double> merged = Files.exists(baseline) ? readBaseline(baseline) : new TreeMap<>();
+            merged.putAll(scores);
+            writeBaseline(baseline, merged);
+            System.out.println("Baseline written to " + baseline);
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            System.out.println("No baseline at " + baseline + ", skipping regression check");
+            return;
+        }
+
+        List<String> regressions = compare(readBaseline(baseline), scores, threshold);
+        if (!regressions.isEmpty()) {
+            System.err.println("Benchmarks regressed by more than " + (threshold * 100) + "% or are missing from "
+                    + baseline + " (record them with -Dbench.updateBaseline=true):");
+            regressions.forEach(System.err::println);
+            System.exit(1);
+        }
+        System.out.println("No regressions against " + baseline);
+    }
+
+    static List<String> compare(Map<String, Double> baseline, Map<String, Double> scores, double threshold) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            Double before = baseline.get(entry.getKey());
+            if (before == null) {
+                // An unrecorded benchmark would otherwise pass the gate forever
+                regressions.add("  " + entry.getKey().replace('\t', ' ') + ": no baseline score");
+                continue;
+            }
+            if (before == 0) {
+                continue;
+            }
+            double after = entry.getValue();
+            // Throughput is better when higher, every other mode reports time and is better when lower
+            double change = entry.getKey().endsWith("\tthrpt") ? (before - after) / before : (after - before) / before;
+            if (change > threshold) {
+                regressions.add(String.format("  %s: %.3f -> %.3f (%.1f%%)",
+                        entry.getKey().replace('\t', ' '), before, after, change * 100));
+            }
+        }
+        return regressions;
+    }
+
+    private static String key(BenchmarkParams params) {
+        StringBuilder sb = new StringBuilder(params.getBenchmark());
+        for (String name : params.getParamsKeys()) {
+            sb.append(':').append(name).append('=').append(params.getParam(name));
+        }
+        return sb.append('\t').append(params.getMode().shortLabel()).toString();
+    }
+
+    private static Map<String, Double> readBaseline(Path file) throws IOException {
+        Map<String, Double> scores = new TreeMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            int tab = line.lastIndexOf('\t');
+            scores.put(line.substring(0, tab), Double.parseDouble(line.substring(tab + 1)));
+        }
+        return scores;
+    }
+
+    private static void writeBaseline(Path file, Map<String, Double> scores) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# benchmark[:param=value]\tmode\tscore");
+        scores.forEach((key, score) -> lines.add(key + "\t" + score));
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+}
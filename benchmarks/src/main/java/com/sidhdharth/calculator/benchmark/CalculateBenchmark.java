@@ -0,0 +1,45 @@
+package com.sidhdharth.calculator.benchmark;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculateBenchmark {
+
+    @Param
+    private OperationType op;
+
+    private Calculator calc;
+    private double num1;
+    private double num2;
+    private Number boxed1;
+    private Number boxed2;
+
+    @Setup
+    public void setUp() {
+        calc = CalculatorConfig.createCalculator();
+        num1 = 1234.5;
+        num2 = 6.75;
+        boxed1 = num1;
+        boxed2 = num2;
+    }
+
+    @Benchmark
+    public Number calculate() {
+        return calc.calculate(op, boxed1, boxed2);
+    }
+
+    @Benchmark
+    public double calculateAsDouble() {
+        return calc.calculateAsDouble(op, num1, num2);
+    }
+}
@@ -0,0 +1,57 @@
+package com.sidhdharth.calculator.benchmark;
+
+import com.sidhdharth.calculator.chain.ChainTemplate;
+import com.sidhdharth.calculator.chain.FoldingMode;
+import com.sidhdharth.calculator.chain.LazyOperationChain;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+// One ChainTemplate replayed on a changing seed: the interpreted tier against its hidden-class compilation
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChainTierBenchmark {
+
+    private static final OperationType[] STEPS = {
+            OperationType.ADD, OperationType.MULTIPLY, OperationType.SUBTRACT, OperationType.DIVIDE
+    };
+
+    @Param({"4", "32", "256"})
+    private int length;
+
+    private ChainTemplate template;
+    private DoubleUnaryOperator compiled;
+    private double seed;
+
+    @Setup
+    public void setUp() {
+        LazyOperationChain lazy = CalculatorConfig.createCalculator().startLazy(0, FoldingMode.STRICT);
+        for (int i = 0; i < length; i++) {
+            lazy.chain(STEPS[i % STEPS.length], 2.0 + (i % 7));
+        }
+        template = lazy.toTemplate();
+        compiled = template.compile();
+    }
+
+    @Benchmark
+    public double interpreted() {
+        return template.interpret(seed += 1.0);
+    }
+
+    @Benchmark
+    public double compiled() {
+        return compiled.applyAsDouble(seed += 1.0);
+    }
+
+    @Benchmark
+    public double tiered() {
+        return template.apply(seed += 1.0);
+    }
+}
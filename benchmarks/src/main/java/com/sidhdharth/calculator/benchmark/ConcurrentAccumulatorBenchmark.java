@@ -0,0 +1,115 @@
+package com.sidhdharth.calculator.benchmark;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.chain.AtomicOperationChain;
+import com.sidhdharth.calculator.chain.OperationChainBuilder;
+import com.sidhdharth.calculator.chain.StripedOperationChain;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Many threads adding into one running total: an OperationChain behind a lock, the CAS chain and the
+ * striped chain, at 1, 2, 4 and 8 threads. Scores are per call, so flat scores as threads grow mean the
+ * total scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentAccumulatorBenchmark {
+
+    private OperationChainBuilder locked;
+    private AtomicOperationChain atomic;
+    private StripedOperationChain striped;
+
+    @Setup
+    public void setUp() {
+        Calculator calc = CalculatorConfig.createCalculator();
+        locked = calc.start(0.0);
+        atomic = new AtomicOperationChain(0.0, calc);
+        striped = new StripedOperationChain(OperationType.ADD, 0.0);
+    }
+
+    private double lockedAdd() {
+        synchronized (locked) {
+            return locked.chain(OperationType.ADD, 1.0).getResultAsDouble();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public double locked1() {
+        return lockedAdd();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public double locked2() {
+        return lockedAdd();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public double locked4() {
+        return lockedAdd();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public double locked8() {
+        return lockedAdd();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object atomic1() {
+        return atomic.chain(OperationType.ADD, 1.0);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public Object atomic2() {
+        return atomic.chain(OperationType.ADD, 1.0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object atomic4() {
+        return atomic.chain(OperationType.ADD, 1.0);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object atomic8() {
+        return atomic.chain(OperationType.ADD, 1.0);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object striped1() {
+        return striped.chain(OperationType.ADD, 1.0);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public Object striped2() {
+        return striped.chain(OperationType.ADD, 1.0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object striped4() {
+        return striped.chain(OperationType.ADD, 1.0);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object striped8() {
+        return striped.chain(OperationType.ADD, 1.0);
+    }
+}
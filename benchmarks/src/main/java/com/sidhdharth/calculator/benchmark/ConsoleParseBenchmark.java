@@ -0,0 +1,32 @@
+package com.sidhdharth.calculator.benchmark;
+
+import com.sidhdharth.calculator.codec.NumberFormatter;
+import com.sidhdharth.calculator.codec.NumberParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Mirrors ConsoleCalculatorApp: every operand is parsed from a line and every result printed.
+// roundTrip is the JDK path the console used to take; codecRoundTrip is NumberParser/NumberFormatter.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsoleParseBenchmark {
+
+    @Param({"5", "3.141592653589793", "-1.25E-7"})
+    private String input;
+
+    @Benchmark
+    public String roundTrip() {
+        Number value = Double.parseDouble(input);
+        return value.toString();
+    }
+
+    @Benchmark
+    public String codecRoundTrip() {
+        return NumberFormatter.toString(NumberParser.parseDouble(input));
+    }
+}
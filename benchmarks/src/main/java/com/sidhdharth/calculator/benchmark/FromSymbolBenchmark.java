@@ -0,0 +1,40 @@
+package com.sidhdharth.calculator.benchmark;
+
+import com.sidhdharth.calculator.exception.InvalidOperationException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationRegistry;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FromSymbolBenchmark {
+
+    // "+" was the first constant scanned before lookups became a map probe, "/" the last; "^" and "add" are misses
+    @Param({"+", "/", "X", "^", "add"})
+    private String symbol;
+
+    @Benchmark
+    public OperationType fromSymbol() {
+        try {
+            return OperationType.fromSymbol(symbol);
+        } catch (InvalidOperationException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public Operation registry() {
+        try {
+            return OperationRegistry.getDefault().fromSymbol(symbol);
+        } catch (InvalidOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.sidhdharth.calculator.benchmark;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Overhead of the metrics decorator over the plain calculator, single-threaded and contended
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+    private Calculator plain;
+    private Calculator instrumented;
+
+    @Setup
+    public void setUp() {
+        plain = CalculatorConfig.createCalculator();
+        instrumented = CalculatorConfig.createInstrumentedCalculator(ErrorPolicy.THROW);
+    }
+
+    @State(Scope.Thread)
+    public static class Operands {
+        double num1 = 1234.5;
+        double num2 = 6.75;
+    }
+
+    @Benchmark
+    public double plain(Operands o) {
+        return plain.calculateAsDouble(OperationType.MULTIPLY, o.num1, o.num2);
+    }
+
+    @Benchmark
+    public double instrumented(Operands o) {
+        return instrumented.calculateAsDouble(OperationType.MULTIPLY, o.num1, o.num2);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public double instrumentedContended(Operands o) {
+        return instrumented.calculateAsDouble(OperationType.MULTIPLY, o.num1, o.num2);
+    }
+}
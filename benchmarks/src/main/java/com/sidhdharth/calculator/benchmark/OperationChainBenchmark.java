@@ -0,0 +1,58 @@
+package com.sidhdharth.calculator.benchmark;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.chain.OperationChainBuilder;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationChainBenchmark {
+
+    private static final OperationType[] STEPS = {
+            OperationType.ADD, OperationType.MULTIPLY, OperationType.SUBTRACT, OperationType.DIVIDE
+    };
+
+    @Param({"10", "1000"})
+    private int length;
+
+    private Calculator calc;
+    private OperationType[] ops;
+    private double[] operands;
+
+    @Setup
+    public void setUp() {
+        calc = CalculatorConfig.createCalculator();
+        ops = new OperationType[length];
+        operands = new double[length];
+        for (int i = 0; i < length; i++) {
+            ops[i] = STEPS[i % STEPS.length];
+            operands[i] = 1.0 + (i % 7);
+        }
+    }
+
+    @Benchmark
+    public Number chainBoxed() {
+        OperationChainBuilder chain = calc.start((Number) 1.0);
+        for (int i = 0; i < length; i++) {
+            chain.chain(ops[i], (Number) operands[i]);
+        }
+        return chain.getResult();
+    }
+
+    @Benchmark
+    public double chainPrimitive() {
+        OperationChainBuilder chain = calc.start(1.0);
+        for (int i = 0; i < length; i++) {
+            chain.chain(ops[i], operands[i]);
+        }
+        return chain.getResultAsDouble();
+    }
+}
@@ -0,0 +1,54 @@
+package com.sidhdharth.calculator.benchmark;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.chain.OperationChainBuilder;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.core.ChainReducer;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// A chain over one million operands: step by step through OperationChain against ChainReducer
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReduceBenchmark {
+
+    @Param({"ADD", "SUBTRACT", "MULTIPLY"})
+    private OperationType op;
+
+    private Calculator calc;
+    private ChainReducer reducer;
+    private double[] operands;
+
+    @Setup
+    public void setUp() {
+        calc = CalculatorConfig.createCalculator();
+        reducer = new ChainReducer(calc);
+        operands = new Random(1).doubles(1 << 20, 0.999, 1.001).toArray();
+    }
+
+    @Benchmark
+    public double chain() {
+        OperationChainBuilder chain = calc.start(1.0);
+        for (double operand : operands) {
+            chain.chain(op, operand);
+        }
+        return chain.getResultAsDouble();
+    }
+
+    @Benchmark
+    public double reduce() {
+        return reducer.reduce(op, 1.0, operands);
+    }
+
+    @Benchmark
+    public double[] scan() {
+        return reducer.scan(op, 1.0, operands);
+    }
+}
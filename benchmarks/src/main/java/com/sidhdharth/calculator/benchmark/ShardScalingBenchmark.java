@@ -0,0 +1,71 @@
+package com.sidhdharth.calculator.benchmark;
+
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.batch.BatchFileEvaluator;
+import com.sidhdharth.calculator.batch.BatchSummary;
+import com.sidhdharth.calculator.batch.ShardCoordinator;
+import com.sidhdharth.calculator.batch.WorkerLauncher;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/*
+ * Lines per second for one batch file evaluated in this JVM and by ShardCoordinator with 1, 2, 4 and 8
+ * worker JVMs. Not a JMH benchmark: each sample includes starting the workers, which is what a nightly
+ * run pays. The best of three runs is reported.
+ *
+ *   java -cp target/benchmarks.jar com.sidhdharth.calculator.benchmark.ShardScalingBenchmark [lines, default 10000000]
+ */
+public class ShardScalingBenchmark {
+
+    private static final String[] SYMBOLS = {"+", "-", "*", "/", "%"};
+
+    public static void main(String[] args) throws IOException {
+        long lines = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000;
+        Path dir = Files.createTempDirectory("shard-bench");
+        Path input = dir.resolve("input.txt");
+        Random random = new Random(42);
+        try (BufferedWriter out = Files.newBufferedWriter(input)) {
+            for (long i = 0; i < lines; i++) {
+                out.write((random.nextInt(2_000_000) - 1_000_000) / 1000.0 + " " + SYMBOLS[random.nextInt(SYMBOLS.length)]
+                        + " " + (random.nextInt(9999) / 100.0 + 0.01) + "\n");
+            }
+        }
+        System.out.printf("%,d lines, %,d MB, %d processors%n", lines, Files.size(input) >> 20,
+                Runtime.getRuntime().availableProcessors());
+
+        measure("in-process", lines, () -> new BatchFileEvaluator(CalculatorConfig.createCalculator())
+                .evaluate(input, dir.resolve("out.txt"), dir.resolve("errors.txt")));
+        for (int workers : new int[] {1, 2, 4, 8}) {
+            ShardCoordinator coordinator = new ShardCoordinator(workers, ErrorPolicy.THROW,
+                    ShardCoordinator.DEFAULT_SHARD_SIZE, WorkerLauncher.localJvm("-XX:+UseParallelGC"));
+            measure(workers + " workers", lines,
+                    () -> coordinator.evaluate(input, dir.resolve("out.txt"), dir.resolve("errors.txt")));
+        }
+        for (String name : new String[] {"input.txt", "out.txt", "errors.txt"}) {
+            Files.deleteIfExists(dir.resolve(name));
+        }
+        Files.delete(dir);
+    }
+
+    private static void measure(String name, long lines, Run run) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            BatchSummary summary = run.run();
+            best = Math.min(best, System.nanoTime() - start);
+            if (summary.lines() != lines) {
+                throw new IllegalStateException(name + " evaluated " + summary.lines() + " lines");
+            }
+        }
+        System.out.printf("%-12s %8.0f ms  %6.2f M lines/s%n", name, best / 1e6, lines / (best / 1e9) / 1e6);
+    }
+
+    private interface Run {
+        BatchSummary run() throws IOException;
+    }
+}
@@ -0,0 +1,68 @@
+package com.sidhdharth.calculator.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Time to first result of the headless console app, measured from process start to the first line it
+ * prints. Not a JMH benchmark: every sample is a fresh process, compared across the plain jar, the jar
+ * with the AppCDS archive from "mvn -Pcds package" and the image from "mvn -Pnative package".
+ * Variants whose files are missing are skipped.
+ *
+ *   java -cp target/benchmarks.jar com.sidhdharth.calculator.benchmark.StartupBenchmark \
+ *       [project target dir, default ../target] [runs, default 20]
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path target = Path.of(args.length > 0 ? args[0] : "../target").toAbsolutePath().normalize();
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        Path jar = target.resolve("Calculator-1.0-SNAPSHOT-jar-with-dependencies.jar");
+        Path archive = target.resolve("calculator.jsa");
+        Path image = target.resolve("calculator");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        if (Files.exists(jar)) {
+            measure("jar", runs, java, "-jar", jar.toString());
+        }
+        if (Files.exists(jar) && Files.exists(archive)) {
+            measure("jar+cds", runs, java, "-XX:SharedArchiveFile=" + archive, "-jar", jar.toString());
+        }
+        if (Files.isExecutable(image)) {
+            measure("native", runs, image.toString());
+        }
+    }
+
+    private static void measure(String name, int runs, String... command) throws IOException, InterruptedException {
+        List<String> full = new ArrayList<>(Arrays.asList(command));
+        full.addAll(List.of("1", "+", "2", "x", "3"));
+        ProcessBuilder builder = new ProcessBuilder(full).redirectError(ProcessBuilder.Redirect.DISCARD);
+        // One unmeasured run so that the files are in the page cache
+        builder.start().waitFor();
+
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            Process process = builder.start();
+            try (BufferedReader out = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String first = out.readLine();
+                nanos[i] = System.nanoTime() - start;
+                if (!"9.0".equals(first)) {
+                    throw new IllegalStateException(name + " printed " + first);
+                }
+            }
+            process.waitFor();
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-8s min %6.1f ms  median %6.1f ms  max %6.1f ms  (%d runs)%n", name,
+                nanos[0] / 1e6, nanos[runs / 2] / 1e6, nanos[runs - 1] / 1e6, runs);
+    }
+}
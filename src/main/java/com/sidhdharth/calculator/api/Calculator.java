@@ -1,9 +1,17 @@
 package com.sidhdharth.calculator.api;
 
+import com.sidhdharth.calculator.chain.FoldingMode;
+import com.sidhdharth.calculator.chain.LazyOperationChain;
 import com.sidhdharth.calculator.chain.OperationChainBuilder;
 import com.sidhdharth.calculator.operation.Operation;
 
 public interface Calculator {
     Number calculate(Operation op, Number num1, Number num2);
+    double calculateAsDouble(Operation op, double num1, double num2);
+    void calculateBatch(Operation op, double[] num1, double[] num2, double[] out, ZeroDivisorPolicy policy);
+    void calculateBatch(Operation op, double[] num1, double num2, double[] out, ZeroDivisorPolicy policy);
+    void calculateBatch(Operation op, double num1, double[] num2, double[] out, ZeroDivisorPolicy policy);
     OperationChainBuilder start(Number initialValue);
+    OperationChainBuilder start(double initialValue);
+    LazyOperationChain startLazy(double initialValue, FoldingMode mode);
 }
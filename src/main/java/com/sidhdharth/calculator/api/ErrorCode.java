@@ -0,0 +1,28 @@
+package com.sidhdharth.calculator.api;
+
+import com.sidhdharth.calculator.exception.CalculatorException;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.ModuloByZeroException;
+import com.sidhdharth.calculator.exception.NullOperandException;
+
+public enum ErrorCode {
+    DIVISION_BY_ZERO,
+    MODULO_BY_ZERO,
+    NULL_OPERAND;
+
+    public Class<? extends CalculatorException> exceptionType() {
+        return switch (this) {
+            case DIVISION_BY_ZERO -> DivisionByZeroException.class;
+            case MODULO_BY_ZERO -> ModuloByZeroException.class;
+            case NULL_OPERAND -> NullOperandException.class;
+        };
+    }
+
+    public CalculatorException toException() {
+        return switch (this) {
+            case DIVISION_BY_ZERO -> new DivisionByZeroException();
+            case MODULO_BY_ZERO -> new ModuloByZeroException();
+            case NULL_OPERAND -> new NullOperandException();
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.sidhdharth.calculator.api;
+
+public enum ErrorPolicy {
+    // Throw a new exception for every failure, as the calculator always has
+    THROW,
+
+    // Never throw for zero divisors: x / 0 is +-Infinity or NaN, x % 0 is NaN, a null operand is NaN
+    IEEE,
+
+    // Return a NaN carrying an ErrorCode, checked with ResultCode.isError; no allocation and no throw
+    RESULT_CODE,
+
+    // Throw shared preallocated exceptions without stack traces
+    STACKLESS
+}
@@ -0,0 +1,39 @@
+package com.sidhdharth.calculator.api;
+
+/*
+ * Results under ErrorPolicy.RESULT_CODE. A failure is returned as a quiet NaN whose payload holds
+ * a marker and the ErrorCode, so a plain double carries either the result or the error and nothing
+ * is allocated. NaNs produced by arithmetic have no marker and are not errors.
+ */
+public final class ResultCode {
+    private static final long MARKER = 0x7ff8_ca1c_0000_0000L;
+    private static final long MARKER_MASK = 0xffff_ffff_0000_0000L;
+    private static final ErrorCode[] CODES = ErrorCode.values();
+    private static final double[] ERRORS = new double[CODES.length];
+
+    static {
+        for (ErrorCode code : CODES) {
+            ERRORS[code.ordinal()] = Double.longBitsToDouble(MARKER | (code.ordinal() + 1));
+        }
+    }
+
+    private ResultCode() {
+    }
+
+    public static double error(ErrorCode code) {
+        return ERRORS[code.ordinal()];
+    }
+
+    public static boolean isError(double result) {
+        return (Double.doubleToRawLongBits(result) & MARKER_MASK) == MARKER;
+    }
+
+    // The error carried by result, or null when result is a value
+    public static ErrorCode errorCode(double result) {
+        if (!isError(result)) {
+            return null;
+        }
+        int index = (int) (Double.doubleToRawLongBits(result) & ~MARKER_MASK) - 1;
+        return index >= 0 && index < CODES.length ? CODES[index] : null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.sidhdharth.calculator.api;
+
+public enum ZeroDivisorPolicy {
+    // Reject the whole batch before any result is written, like the single operation API
+    THROW,
+
+    // Follow IEEE 754: x / 0 is +-Infinity or NaN, x % 0 is NaN
+    IEEE,
+
+    // Every element with a zero divisor becomes NaN
+    NAN
+}
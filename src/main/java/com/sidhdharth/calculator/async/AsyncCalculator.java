@@ -0,0 +1,59 @@
+package com.sidhdharth.calculator.async;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.operation.Operation;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Non-blocking companion to a Calculator. Single operations and chains run on the executor and complete
+ * their futures with the result, or exceptionally with the CalculatorException the calculator threw.
+ * processor(batchSize) gives a Flow.Processor for streams of calculations.
+ */
+public class AsyncCalculator {
+    private static final Executor DEFAULT_EXECUTOR = defaultExecutor();
+
+    private final Calculator calculator;
+    private final Executor executor;
+
+    public AsyncCalculator(Calculator calculator) {
+        this(calculator, DEFAULT_EXECUTOR);
+    }
+
+    public AsyncCalculator(Calculator calculator, Executor executor) {
+        this.calculator = calculator;
+        this.executor = executor;
+    }
+
+    // Virtual threads need Java 21; looked up reflectively so the project still targets 17
+    private static Executor defaultExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return ForkJoinPool.commonPool();
+        }
+    }
+
+    public Calculator calculator() {
+        return calculator;
+    }
+
+    public CompletableFuture<Number> calculate(Operation op, Number num1, Number num2) {
+        return CompletableFuture.supplyAsync(() -> calculator.calculate(op, num1, num2), executor);
+    }
+
+    public CompletableFuture<Double> calculateAsDouble(Operation op, double num1, double num2) {
+        return CompletableFuture.supplyAsync(() -> calculator.calculateAsDouble(op, num1, num2), executor);
+    }
+
+    public AsyncOperationChain start(double initialValue) {
+        return new AsyncOperationChain(initialValue, calculator, executor);
+    }
+
+    public CalculationProcessor processor(int batchSize) {
+        return new CalculationProcessor(calculator, batchSize);
+    }
+}
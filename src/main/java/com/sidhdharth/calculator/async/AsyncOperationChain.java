@@ -0,0 +1,51 @@
+package com.sidhdharth.calculator.async;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.chain.OperationChainBuilder;
+import com.sidhdharth.calculator.operation.Operation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/*
+ * Records steps on the caller's thread and runs the whole chain as one task on the executor, so a chain
+ * costs a single thread hop however long it is. Each getResult() runs the steps recorded so far; the
+ * returned future fails with the chain's CalculatorException, if any.
+ */
+public class AsyncOperationChain {
+    private final double initialValue;
+    private final Calculator calculator;
+    private final Executor executor;
+    private final List<Operation> ops = new ArrayList<>();
+    private final List<Number> operands = new ArrayList<>();
+
+    AsyncOperationChain(double initialValue, Calculator calculator, Executor executor) {
+        this.initialValue = initialValue;
+        this.calculator = calculator;
+        this.executor = executor;
+    }
+
+    public AsyncOperationChain chain(Operation op, Number operand) {
+        ops.add(op);
+        operands.add(operand);
+        return this;
+    }
+
+    public AsyncOperationChain chain(Operation op, double operand) {
+        return chain(op, (Number) operand);
+    }
+
+    public CompletableFuture<Number> getResult() {
+        Operation[] steps = ops.toArray(new Operation[0]);
+        Number[] values = operands.toArray(new Number[0]);
+        return CompletableFuture.supplyAsync(() -> {
+            OperationChainBuilder chain = calculator.start(initialValue);
+            for (int i = 0; i < steps.length; i++) {
+                chain.chain(steps[i], values[i]);
+            }
+            return chain.getResult();
+        }, executor);
+    }
+}
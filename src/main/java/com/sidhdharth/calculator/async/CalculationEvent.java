@@ -0,0 +1,6 @@
+package com.sidhdharth.calculator.async;
+
+import com.sidhdharth.calculator.operation.Operation;
+
+public record CalculationEvent(Operation op, Number num1, Number num2) {
+}
@@ -0,0 +1,215 @@
+package com.sidhdharth.calculator.async;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.exception.CalculatorException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Applies each CalculationEvent with the calculator and publishes a CalculationResult to a single
+ * subscriber. A CalculatorException becomes a failed result for that element, and the stream carries on.
+ *
+ * Upstream is only asked for what the subscriber has requested, in batches of up to batchSize. The next
+ * batch is requested once half of the current one has arrived, so at most batchSize events are ever
+ * outstanding and nothing is buffered beyond the subscriber's demand.
+ *
+ * Signals are delivered from a drain loop that only one thread runs at a time; the other threads leave
+ * their work for it through the wip counter. Only the drain loop takes from or clears the ready queue,
+ * including when the processor itself fails, so no result can be published after onError.
+ */
+public class CalculationProcessor implements Flow.Processor<CalculationEvent, CalculationResult> {
+    private final Calculator calculator;
+    private final int batchSize;
+    private final Queue<CalculationResult> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private volatile Flow.Subscriber<? super CalculationResult> downstream;
+    private volatile Flow.Subscription upstream;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private volatile Throwable failure;
+    // Set by fail(): unlike an upstream failure, results still queued are dropped rather than delivered first
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    // Only touched by the drain loop
+    private long requested;
+    private long emitted;
+    private boolean terminated;
+
+    public CalculationProcessor(Calculator calculator, int batchSize) {
+        if (batchSize < 1) {
+            throw new InvalidInputException("batch size " + batchSize);
+        }
+        this.calculator = calculator;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CalculationResult> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("CalculationProcessor supports a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    fail(new IllegalArgumentException("request must be positive: " + n));
+                    return;
+                }
+                demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                Flow.Subscription subscription = upstream;
+                if (subscription != null) {
+                    subscription.cancel();
+                }
+                drain();
+            }
+        });
+        downstream = subscriber;
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null || cancelled) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        drain();
+    }
+
+    @Override
+    public void onNext(CalculationEvent event) {
+        if (event == null) {
+            throw new NullPointerException("event");
+        }
+        if (done || cancelled) {
+            return;
+        }
+        CalculationResult result;
+        try {
+            result = CalculationResult.success(event, calculator.calculate(event.op(), event.num1(), event.num2()));
+        } catch (CalculatorException e) {
+            result = CalculationResult.failure(event, e);
+        } catch (RuntimeException e) {
+            fail(e);
+            return;
+        }
+        ready.offer(result);
+        received.incrementAndGet();
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        failure = throwable;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    private void fail(Throwable throwable) {
+        if (!error.compareAndSet(null, throwable)) {
+            return;
+        }
+        Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        done = true;
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super CalculationResult> subscriber = downstream;
+            if (subscriber != null && !terminated) {
+                Throwable fatal = error.get();
+                if (cancelled) {
+                    ready.clear();
+                    terminated = true;
+                } else if (fatal != null) {
+                    ready.clear();
+                    terminated = true;
+                    subscriber.onError(fatal);
+                } else {
+                    emit(subscriber);
+                    if (done && ready.isEmpty()) {
+                        terminated = true;
+                        if (failure != null) {
+                            subscriber.onError(failure);
+                        } else {
+                            subscriber.onComplete();
+                        }
+                    } else if (!done) {
+                        requestMore();
+                    }
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void emit(Flow.Subscriber<? super CalculationResult> subscriber) {
+        while (demand.get() > 0 && !cancelled && error.get() == null) {
+            CalculationResult result = ready.poll();
+            if (result == null) {
+                return;
+            }
+            emitted++;
+            demand.decrementAndGet();
+            subscriber.onNext(result);
+        }
+    }
+
+    private void requestMore() {
+        Flow.Subscription subscription = upstream;
+        if (subscription == null) {
+            return;
+        }
+        long outstanding = requested - received.get();
+        if (outstanding > batchSize / 2) {
+            return;
+        }
+        // Demand not already covered by events requested earlier, whether still in flight or queued
+        long uncovered = demand.get() - (requested - emitted);
+        long n = Math.min(batchSize - outstanding, uncovered);
+        if (n > 0) {
+            requested += n;
+            subscription.request(n);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.sidhdharth.calculator.async;
+
+import com.sidhdharth.calculator.exception.CalculatorException;
+
+// Exactly one of value and error is set
+public record CalculationResult(CalculationEvent event, Number value, CalculatorException error) {
+
+    public static CalculationResult success(CalculationEvent event, Number value) {
+        return new CalculationResult(event, value, null);
+    }
+
+    public static CalculationResult failure(CalculationEvent event, CalculatorException error) {
+        return new CalculationResult(event, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,234 @@
+package com.sidhdharth.calculator.batch;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.codec.NumberParser;
+import com.sidhdharth.calculator.exception.CalculatorException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Evaluates files of "number operator number" lines. The input is memory-mapped in line-aligned
+ * chunks that are parsed and evaluated in parallel without creating Strings. The operator is any
+ * OperationRegistry symbol; only symbols longer than one character, such as "max", are decoded to a
+ * String for the lookup. Results are written in input order, one line per input line. A line that
+ * fails, including one whose extension operation throws, is written as "error" and reported in the
+ * error file as "<line number>\t<message>\t<input line>".
+ */
+public class BatchFileEvaluator {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+    private static final String ERROR_RESULT = "error";
+
+    private final Calculator calculator;
+    private final int parallelism;
+    private final int chunkSize;
+
+    public BatchFileEvaluator(Calculator calculator) {
+        this(calculator, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public BatchFileEvaluator(Calculator calculator, int parallelism, int chunkSize) {
+        if (parallelism <= 0 || chunkSize <= 0) {
+            throw new InvalidInputException("parallelism " + parallelism + ", chunk size " + chunkSize);
+        }
+        this.calculator = calculator;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    public BatchSummary evaluate(Path input, Path output, Path errors) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING);
+             FileChannel err = FileChannel.open(errors, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            // Keep a bounded window of chunks in flight so memory stays flat however large the file is
+            Deque<Future<Chunk>> pending = new ArrayDeque<>();
+            long lines = 0;
+            long failed = 0;
+            long start = 0;
+            while (start < size || !pending.isEmpty()) {
+                if (start < size && pending.size() < parallelism * 2) {
+                    long end = alignedEnd(in, start, size, chunkSize);
+                    MappedByteBuffer region = in.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                    pending.add(executor.submit(() -> process(region)));
+                    start = end;
+                    continue;
+                }
+                Chunk chunk = await(pending.removeFirst());
+                chunk.results.writeTo(out);
+                for (LineError e : chunk.errors) {
+                    ByteSink sink = new ByteSink(64);
+                    sink.put(Long.toString(lines + e.line + 1)).put((byte) '\t').put(e.message).put((byte) '\t');
+                    sink.put(chunk.region, e.from, e.to).put((byte) '\n');
+                    sink.writeTo(err);
+                }
+                lines += chunk.lines;
+                failed += chunk.errors.size();
+            }
+            return new BatchSummary(lines, failed, size);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // End of the chunk starting at start: just past the first newline at or after start + chunkSize
+    static long alignedEnd(FileChannel in, long start, long size, int chunkSize) throws IOException {
+        long end = Math.min(start + chunkSize, size);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        while (end < size) {
+            probe.clear();
+            int read = in.read(probe, end - 1);
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return end + i;
+                }
+            }
+            end = Math.min(end + read, size);
+        }
+        return size;
+    }
+
+    Chunk process(ByteBuffer region) {
+        int limit = region.limit();
+        ByteSink results = new ByteSink(limit / 2);
+        List<LineError> errors = new ArrayList<>();
+        int line = 0;
+        int from = 0;
+        while (from < limit) {
+            int to = from;
+            while (to < limit && region.get(to) != '\n') {
+                to++;
+            }
+            int contentEnd = to > from && region.get(to - 1) == '\r' ? to - 1 : to;
+            try {
+                if (!isBlank(region, from, contentEnd)) {
+                    results.put(evaluateLine(region, from, contentEnd));
+                }
+            } catch (RuntimeException e) {
+                // Extension operations may throw anything; it fails the line, not the chunk
+                results.put(ERROR_RESULT);
+                errors.add(new LineError(line, from, contentEnd, message(e)));
+            }
+            results.put((byte) '\n');
+            line++;
+            from = to + 1;
+        }
+        return new Chunk(region, results, errors, line);
+    }
+
+    // Calculator errors keep their plain message; anything else is named, and kept to one error file field
+    private static String message(RuntimeException e) {
+        String message = e.getMessage();
+        if (message == null) {
+            message = e.getClass().getSimpleName();
+        } else if (!(e instanceof CalculatorException)) {
+            message = e.getClass().getSimpleName() + ": " + message;
+        }
+        return message.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+    }
+
+    private double evaluateLine(ByteBuffer buf, int from, int to) {
+        int i = skipWhitespace(buf, from, to);
+        int length = NumberParser.scan(buf, i, to);
+        if (length == 0) {
+            throw new InvalidInputException("expected a number at column " + (i - from + 1));
+        }
+        double num1 = NumberParser.parseDouble(buf, i, i + length);
+        i = skipWhitespace(buf, i + length, to);
+        if (i == to) {
+            throw new InvalidInputException("expected an operator at column " + (i - from + 1));
+        }
+        OperationRegistry registry = OperationRegistry.getDefault();
+        int end = operatorEnd(buf, i, to);
+        // A trailing sign belongs to the number unless the whole token is a symbol: 10/-4 is 10 / -4
+        byte last = buf.get(end - 1);
+        if (end - i > 1 && (last == '-' || last == '+') && registry.find(symbol(buf, i, end)) == null) {
+            end--;
+        }
+        Operation op = end - i == 1 && buf.get(i) >= 0
+                ? registry.fromSymbol((char) buf.get(i))
+                : registry.fromSymbol(symbol(buf, i, end));
+        i = skipWhitespace(buf, end, to);
+        length = NumberParser.scan(buf, i, to);
+        if (length == 0) {
+            throw new InvalidInputException("expected a number at column " + (i - from + 1));
+        }
+        double num2 = NumberParser.parseDouble(buf, i, i + length);
+        i = skipWhitespace(buf, i + length, to);
+        if (i != to) {
+            throw new InvalidInputException("unexpected trailing input at column " + (i - from + 1));
+        }
+        return calculator.calculateAsDouble(op, num1, num2);
+    }
+
+    // The operator token runs from its first byte up to whitespace or the digits of the next number
+    private static int operatorEnd(ByteBuffer buf, int from, int to) {
+        int end = from + 1;
+        while (end < to) {
+            byte b = buf.get(end);
+            if (b == ' ' || b == '\t' || b == '.' || (b >= '0' && b <= '9')) {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    private static String symbol(ByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buf.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int skipWhitespace(ByteBuffer buf, int from, int to) {
+        while (from < to && (buf.get(from) == ' ' || buf.get(from) == '\t')) {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean isBlank(ByteBuffer buf, int from, int to) {
+        return skipWhitespace(buf, from, to) == to;
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while evaluating batch", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IOException("Batch chunk failed", e.getCause());
+        }
+    }
+
+    record LineError(int line, int from, int to, String message) {
+    }
+
+    record Chunk(ByteBuffer region, ByteSink results, List<LineError> errors, int lines) {
+    }
+}
@@ -0,0 +1,4 @@
+package com.sidhdharth.calculator.batch;
+
+public record BatchSummary(long lines, long errors, long bytes) {
+}
@@ -0,0 +1,67 @@
+package com.sidhdharth.calculator.batch;
+
+import com.sidhdharth.calculator.codec.NumberFormatter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+// Growable byte buffer for one chunk's output, written to a channel in a single call
+final class ByteSink {
+    private byte[] bytes;
+    private int size;
+
+    ByteSink(int capacity) {
+        this.bytes = new byte[Math.max(capacity, 64)];
+    }
+
+    ByteSink put(byte b) {
+        ensure(1);
+        bytes[size++] = b;
+        return this;
+    }
+
+    ByteSink put(CharSequence text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            bytes[size++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+
+    ByteSink put(double value) {
+        ensure(NumberFormatter.MAX_LENGTH);
+        size = NumberFormatter.format(value, bytes, size);
+        return this;
+    }
+
+    ByteSink put(ByteBuffer source, int from, int to) {
+        ensure(to - from);
+        source.get(from, bytes, size, to - from);
+        size += to - from;
+        return this;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(bytes, 0, size);
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.sidhdharth.calculator.batch;
+
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Evaluates a batch file across several worker JVMs, producing the same output and error files as
+ * BatchFileEvaluator. The input is cut into line-aligned shards of about shardSize bytes. Workers connect
+ * to a socket the coordinator listens on, and each connection keeps PIPELINE shards in flight so a worker
+ * never waits for its next shard. Results are merged in input order, and at most a window of shards past
+ * the next one to be written is handed out, so memory stays flat however large the file is.
+ *
+ * When a connection fails or a worker dies, its unanswered shards go back to the front of the queue and a
+ * replacement worker is launched. A connection that leaves its oldest shard unanswered for the shard timeout
+ * counts as failed the same way, so a hung worker cannot stall the run. A shard that fails on MAX_ATTEMPTS
+ * workers fails the whole run, as does a run where no worker connects for CONNECT_TIMEOUT_MILLIS. The frames
+ * are described in ShardProtocol.
+ */
+public class ShardCoordinator {
+
+    public static final int DEFAULT_SHARD_SIZE = 4 << 20;
+    public static final int MAX_ATTEMPTS = 3;
+    static final int PIPELINE = 2;
+    public static final int DEFAULT_SHARD_TIMEOUT_MILLIS = 60_000;
+    static final long CONNECT_TIMEOUT_MILLIS = 30_000;
+
+    private final int workers;
+    private final ErrorPolicy errorPolicy;
+    private final int shardSize;
+    private final WorkerLauncher launcher;
+    private final InetAddress bindAddress;
+    private final int shardTimeoutMillis;
+
+    public ShardCoordinator(int workers, ErrorPolicy errorPolicy) {
+        this(workers, errorPolicy, DEFAULT_SHARD_SIZE, WorkerLauncher.localJvm());
+    }
+
+    public ShardCoordinator(int workers, ErrorPolicy errorPolicy, int shardSize, WorkerLauncher launcher) {
+        this(workers, errorPolicy, shardSize, launcher, InetAddress.getLoopbackAddress());
+    }
+
+    public ShardCoordinator(int workers, ErrorPolicy errorPolicy, int shardSize, WorkerLauncher launcher,
+                            InetAddress bindAddress) {
+        this(workers, errorPolicy, shardSize, launcher, bindAddress, DEFAULT_SHARD_TIMEOUT_MILLIS);
+    }
+
+    public ShardCoordinator(int workers, ErrorPolicy errorPolicy, int shardSize, WorkerLauncher launcher,
+                            InetAddress bindAddress, int shardTimeoutMillis) {
+        if (workers <= 0 || shardSize <= 0 || shardTimeoutMillis <= 0) {
+            throw new InvalidInputException("workers " + workers + ", shard size " + shardSize
+                    + ", shard timeout " + shardTimeoutMillis);
+        }
+        if (errorPolicy == null || launcher == null || bindAddress == null) {
+            throw new InvalidInputException("error policy, launcher and bind address are required");
+        }
+        this.workers = workers;
+        this.errorPolicy = errorPolicy;
+        this.shardSize = shardSize;
+        this.launcher = launcher;
+        this.bindAddress = bindAddress;
+        this.shardTimeoutMillis = shardTimeoutMillis;
+    }
+
+    public BatchSummary evaluate(Path input, Path output, Path errors) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), ShardWorker.BUFFER_SIZE);
+             OutputStream err = new BufferedOutputStream(Files.newOutputStream(errors))) {
+            long size = in.size();
+            List<long[]> shards = new ArrayList<>();
+            for (long start = 0; start < size; ) {
+                long end = BatchFileEvaluator.alignedEnd(in, start, size, shardSize);
+                if (end - start > Integer.MAX_VALUE - 8) {
+                    throw new InvalidInputException("line longer than 2 GB at byte " + start);
+                }
+                shards.add(new long[] {start, end});
+                start = end;
+            }
+            if (shards.isEmpty()) {
+                return new BatchSummary(0, 0, 0);
+            }
+            try (Run run = new Run(in, shards, new ServerSocket(0, workers * 2, bindAddress))) {
+                long lines = 0;
+                long failed = 0;
+                for (int i = 0; i < shards.size(); i++) {
+                    ShardProtocol.Result result = run.awaitResult(i);
+                    out.write(result.output());
+                    for (ShardProtocol.Failure failure : result.failures()) {
+                        ByteSink sink = new ByteSink(64);
+                        sink.put(Long.toString(lines + failure.line() + 1)).put((byte) '\t').put(failure.message())
+                                .put((byte) '\t').put(ByteBuffer.wrap(failure.text()), 0, failure.text().length)
+                                .put((byte) '\n');
+                        sink.writeTo(err);
+                    }
+                    lines += result.lines();
+                    failed += result.failures().size();
+                }
+                return new BatchSummary(lines, failed, size);
+            }
+        }
+    }
+
+    // The state of one evaluate() call, shared by the writer, the acceptor and one thread per connection
+    private final class Run implements AutoCloseable {
+        private final FileChannel in;
+        private final List<long[]> shards;
+        private final ServerSocket server;
+        private final int window = workers * PIPELINE * 2;
+        private final PriorityQueue<Integer> ready = new PriorityQueue<>();
+        private final int[] attempts;
+        private final Map<Integer, ShardProtocol.Result> results = new HashMap<>();
+        private final List<AutoCloseable> handles = new ArrayList<>();
+        private final List<Socket> sockets = new ArrayList<>();
+        private int nextToWrite;
+        private int received;
+        private int sessions;
+        private int launches;
+        private long lastProgress = System.nanoTime();
+        private IOException failure;
+        private boolean closed;
+
+        Run(FileChannel in, List<long[]> shards, ServerSocket server) throws IOException {
+            this.in = in;
+            this.shards = shards;
+            this.server = server;
+            this.attempts = new int[shards.size()];
+            for (int i = 0; i < shards.size(); i++) {
+                ready.add(i);
+            }
+            Thread acceptor = new Thread(this::acceptLoop, "shard-acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+            try {
+                for (int i = 0; i < workers; i++) {
+                    launch();
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        synchronized ShardProtocol.Result awaitResult(int index) throws IOException {
+            while (true) {
+                if (failure != null) {
+                    throw new IOException(failure.getMessage(), failure);
+                }
+                ShardProtocol.Result result = results.remove(index);
+                if (result != null) {
+                    nextToWrite = index + 1;
+                    notifyAll();
+                    return result;
+                }
+                long idle = System.nanoTime() - lastProgress;
+                if (sessions == 0 && idle > TimeUnit.MILLISECONDS.toNanos(CONNECT_TIMEOUT_MILLIS)) {
+                    fail(new IOException("no shard worker connected within " + CONNECT_TIMEOUT_MILLIS + " ms"));
+                    continue;
+                }
+                waitQuietly(1000);
+            }
+        }
+
+        private synchronized void launch() throws IOException {
+            launches++;
+            handles.add(launcher.launch(new InetSocketAddress(server.getInetAddress(), server.getLocalPort())));
+        }
+
+        private void acceptLoop() {
+            while (true) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (IOException e) {
+                    return; // closed
+                }
+                synchronized (this) {
+                    if (closed) {
+                        closeQuietly(socket);
+                        return;
+                    }
+                    sockets.add(socket);
+                    sessions++;
+                    lastProgress = System.nanoTime();
+                }
+                Thread session = new Thread(() -> serve(socket), "shard-session");
+                session.setDaemon(true);
+                session.start();
+            }
+        }
+
+        private void serve(Socket socket) {
+            Deque<Integer> inFlight = new ArrayDeque<>();
+            try {
+                socket.setTcpNoDelay(true);
+                // Reads only wait for the hello or the oldest shard's answer, so this bounds both
+                socket.setSoTimeout(shardTimeoutMillis);
+                DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream(),
+                        ShardWorker.BUFFER_SIZE));
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(),
+                        ShardWorker.BUFFER_SIZE));
+                ShardProtocol.readWorkerHello(input);
+                ShardProtocol.writeCoordinatorHello(output, errorPolicy.name());
+                byte[] buffer = new byte[0];
+                while (true) {
+                    while (inFlight.size() < PIPELINE) {
+                        Integer index = take(inFlight.isEmpty());
+                        if (index == null) {
+                            break;
+                        }
+                        inFlight.add(index);
+                        long[] range = shards.get(index);
+                        int length = (int) (range[1] - range[0]);
+                        if (buffer.length < length) {
+                            buffer = new byte[length];
+                        }
+                        read(range[0], buffer, length);
+                        ShardProtocol.writeShard(output, index, buffer, length);
+                    }
+                    if (inFlight.isEmpty()) {
+                        ShardProtocol.writeEnd(output);
+                        return;
+                    }
+                    ShardProtocol.Result result;
+                    try {
+                        result = ShardProtocol.readResult(input);
+                    } catch (SocketTimeoutException e) {
+                        throw new SocketTimeoutException("shard " + inFlight.peekFirst() + " not answered within "
+                                + shardTimeoutMillis + " ms");
+                    }
+                    if (result.index() != inFlight.peekFirst()) {
+                        throw new ProtocolException("expected shard " + inFlight.peekFirst()
+                                + ", got " + result.index());
+                    }
+                    inFlight.removeFirst();
+                    complete(result);
+                }
+            } catch (IOException | RuntimeException e) {
+                sessionFailed(inFlight, e);
+            } finally {
+                closeQuietly(socket);
+                synchronized (this) {
+                    sessions--;
+                    notifyAll();
+                }
+            }
+        }
+
+        // The lowest shard that may be handed out, or null when there is none and block is false or the run is over
+        private synchronized Integer take(boolean block) throws InterruptedIOException {
+            while (failure == null && !closed && received < shards.size()) {
+                Integer head = ready.peek();
+                if (head != null && head < nextToWrite + window) {
+                    return ready.poll();
+                }
+                if (!block) {
+                    return null;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            return null;
+        }
+
+        private synchronized void complete(ShardProtocol.Result result) {
+            results.put(result.index(), result);
+            received++;
+            lastProgress = System.nanoTime();
+            notifyAll();
+        }
+
+        private synchronized void sessionFailed(Deque<Integer> inFlight, Exception cause) {
+            if (closed || failure != null) {
+                return;
+            }
+            for (int index : inFlight) {
+                if (++attempts[index] >= MAX_ATTEMPTS) {
+                    fail(new IOException("shard " + index + " failed on " + MAX_ATTEMPTS + " workers", cause));
+                    return;
+                }
+                ready.add(index);
+            }
+            if (received < shards.size()) {
+                if (launches >= workers * MAX_ATTEMPTS) {
+                    fail(new IOException("too many shard workers failed", cause));
+                    return;
+                }
+                try {
+                    launch();
+                } catch (IOException | RuntimeException e) {
+                    e.addSuppressed(cause);
+                    fail(e instanceof IOException io ? io : new IOException(e));
+                }
+            }
+            notifyAll();
+        }
+
+        private synchronized void fail(IOException cause) {
+            if (failure == null) {
+                failure = cause;
+            }
+            notifyAll();
+        }
+
+        private void read(long position, byte[] buffer, int length) throws IOException {
+            ByteBuffer target = ByteBuffer.wrap(buffer, 0, length);
+            while (target.hasRemaining()) {
+                if (in.read(target, position + target.position()) < 0) {
+                    throw new EOFException("input file shrank while being evaluated");
+                }
+            }
+        }
+
+        private void waitQuietly(long millis) throws InterruptedIOException {
+            try {
+                wait(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            List<AutoCloseable> stopping;
+            synchronized (this) {
+                closed = true;
+                notifyAll();
+                // Give sessions a moment to send END, so workers exit on their own
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+                while (sessions > 0 && System.nanoTime() < deadline) {
+                    waitQuietly(50);
+                }
+                sockets.forEach(ShardCoordinator::closeQuietly);
+                stopping = new ArrayList<>(handles);
+            }
+            server.close();
+            for (AutoCloseable handle : stopping) {
+                try {
+                    handle.close();
+                } catch (Exception e) {
+                    // the worker is gone either way
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+    }
+}
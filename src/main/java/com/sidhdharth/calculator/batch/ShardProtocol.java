@@ -0,0 +1,139 @@
+package com.sidhdharth.calculator.batch;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Frames exchanged between ShardCoordinator and ShardWorker over one TCP connection, big-endian:
+ *
+ *   worker hello        int magic "CSH1", int version
+ *   coordinator hello   int magic, string error policy name
+ *   shard               byte 1, int index, int length, length bytes of whole input lines
+ *   end                 byte 2                      (the worker exits after this)
+ *   result              byte 3, int index, int lines, int length, length bytes of output lines,
+ *                       int failures, then per failure: int line within the shard, string message,
+ *                       int length, the failed line's bytes
+ *
+ * A string is an int byte count followed by UTF-8. Workers answer shards in the order they receive them.
+ * Nothing in the protocol assumes both ends are on the same machine.
+ */
+final class ShardProtocol {
+
+    static final int MAGIC = 0x43534831;
+    static final int VERSION = 1;
+    static final byte SHARD = 1;
+    static final byte END = 2;
+    static final byte RESULT = 3;
+
+    private ShardProtocol() {
+    }
+
+    record Result(int index, int lines, byte[] output, List<Failure> failures) {
+    }
+
+    record Failure(int line, String message, byte[] text) {
+    }
+
+    static void writeWorkerHello(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.flush();
+    }
+
+    static void readWorkerHello(DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        int version = in.readInt();
+        if (magic != MAGIC || version != VERSION) {
+            throw new ProtocolException("not a shard worker, or version " + version);
+        }
+    }
+
+    static void writeCoordinatorHello(DataOutputStream out, String policy) throws IOException {
+        out.writeInt(MAGIC);
+        writeString(out, policy);
+        out.flush();
+    }
+
+    static String readCoordinatorHello(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new ProtocolException("not a shard coordinator");
+        }
+        return readString(in);
+    }
+
+    static void writeShard(DataOutputStream out, int index, byte[] bytes, int length) throws IOException {
+        out.writeByte(SHARD);
+        out.writeInt(index);
+        out.writeInt(length);
+        out.write(bytes, 0, length);
+        out.flush();
+    }
+
+    static void writeEnd(DataOutputStream out) throws IOException {
+        out.writeByte(END);
+        out.flush();
+    }
+
+    static void writeResult(DataOutputStream out, int index, BatchFileEvaluator.Chunk chunk) throws IOException {
+        out.writeByte(RESULT);
+        out.writeInt(index);
+        out.writeInt(chunk.lines());
+        out.writeInt(chunk.results().size());
+        chunk.results().writeTo(out);
+        out.writeInt(chunk.errors().size());
+        for (BatchFileEvaluator.LineError error : chunk.errors()) {
+            out.writeInt(error.line());
+            writeString(out, error.message());
+            byte[] text = new byte[error.to() - error.from()];
+            chunk.region().get(error.from(), text);
+            out.writeInt(text.length);
+            out.write(text);
+        }
+        out.flush();
+    }
+
+    static Result readResult(DataInputStream in) throws IOException {
+        expect(in, RESULT);
+        int index = in.readInt();
+        int lines = in.readInt();
+        byte[] output = readBytes(in);
+        int count = in.readInt();
+        List<Failure> failures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            failures.add(new Failure(in.readInt(), readString(in), readBytes(in)));
+        }
+        return new Result(index, lines, output, failures);
+    }
+
+    static void expect(DataInputStream in, byte frame) throws IOException {
+        byte actual = in.readByte();
+        if (actual != frame) {
+            throw new ProtocolException("expected frame " + frame + ", got " + actual);
+        }
+    }
+
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new ProtocolException("negative length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = String.valueOf(text).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,73 @@
+package com.sidhdharth.calculator.batch;
+
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+/*
+ * One worker process for ShardCoordinator. Connects to the coordinator, evaluates each shard it is sent
+ * exactly as BatchFileEvaluator evaluates a chunk, and exits when told to or when the connection drops.
+ *
+ *   java -cp Calculator.jar com.sidhdharth.calculator.batch.ShardWorker <coordinator host> <port>
+ */
+public final class ShardWorker {
+
+    static final int BUFFER_SIZE = 64 << 10;
+
+    private ShardWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ShardWorker <coordinator host> <port>");
+            System.exit(2);
+        }
+        run(new InetSocketAddress(args[0], Integer.parseInt(args[1])));
+    }
+
+    static void run(InetSocketAddress coordinator) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.setTcpNoDelay(true);
+            socket.connect(coordinator);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(),
+                    BUFFER_SIZE));
+            ShardProtocol.writeWorkerHello(out);
+            String policy = ShardProtocol.readCoordinatorHello(in);
+            BatchFileEvaluator evaluator;
+            try {
+                evaluator = new BatchFileEvaluator(CalculatorConfig.createCalculator(ErrorPolicy.valueOf(policy)),
+                        1, BatchFileEvaluator.DEFAULT_CHUNK_SIZE);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidInputException("error policy " + policy);
+            }
+            while (true) {
+                byte frame;
+                try {
+                    frame = in.readByte();
+                } catch (EOFException e) {
+                    return; // the coordinator went away between shards
+                }
+                if (frame == ShardProtocol.END) {
+                    return;
+                }
+                if (frame != ShardProtocol.SHARD) {
+                    throw new IOException("unexpected frame " + frame);
+                }
+                int index = in.readInt();
+                byte[] shard = ShardProtocol.readBytes(in);
+                ShardProtocol.writeResult(out, index, evaluator.process(ByteBuffer.wrap(shard)));
+            }
+        }
+    }
+}
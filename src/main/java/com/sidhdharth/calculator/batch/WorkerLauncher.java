@@ -0,0 +1,40 @@
+package com.sidhdharth.calculator.batch;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Starts a ShardWorker that connects back to the coordinator's address. Closing the returned handle waits
+ * briefly for the worker to exit and then stops it. Launchers for other hosts only need to run ShardWorker
+ * there with the coordinator's address, for example over ssh, and bind the coordinator to a reachable address.
+ */
+@FunctionalInterface
+public interface WorkerLauncher {
+
+    AutoCloseable launch(InetSocketAddress coordinator) throws IOException;
+
+    // A new JVM on this machine, with this JVM's java and class path plus the given JVM options
+    static WorkerLauncher localJvm(String... jvmOptions) {
+        return coordinator -> {
+            List<String> command = new ArrayList<>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(Arrays.asList(jvmOptions));
+            command.addAll(List.of("-cp", System.getProperty("java.class.path"), ShardWorker.class.getName(),
+                    coordinator.getHostString(), Integer.toString(coordinator.getPort())));
+            Process process = new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            return () -> {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,253 @@
+package com.sidhdharth.calculator.cell;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.exception.CalculatorException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.operation.Operation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Spreadsheet-style cells. An input cell holds a number; a formula cell applies an Operation to two operands,
+ * each a constant or another cell. Edits (set, define, remove) only mark cells as changed; recompute() then
+ * runs one wave over everything downstream of all the changes since the previous wave, so a batch of edits
+ * costs one pass and every affected cell is computed exactly once.
+ *
+ * A wave is a Kahn topological sort restricted to the affected cells. Each frontier holds cells whose
+ * affected inputs are all done, so they do not depend on each other and large frontiers are evaluated in
+ * parallel. Cells outside the wave keep their values and are never visited.
+ *
+ * A formula that throws (DivisionByZeroException under ErrorPolicy.THROW, say) puts its cell in an error
+ * state, and cells reading an errored cell take on the same error; the rest of the wave carries on.
+ * Referencing a cell that was never set is allowed, and reads as an error until it is set.
+ * Definitions that would create a cycle are rejected. All methods are synchronized; evaluation threads
+ * only ever write the cell they are computing.
+ */
+public class CellGraph {
+
+    static final int PARALLEL_THRESHOLD = 1 << 10;
+
+    private final Calculator calculator;
+    private final Map<String, Cell> cells = new HashMap<>();
+    private final Set<Cell> changed = new LinkedHashSet<>();
+
+    public CellGraph(Calculator calculator) {
+        this.calculator = calculator;
+    }
+
+    public synchronized CellGraph set(String name, double value) {
+        Cell cell = cell(name);
+        unlink(cell);
+        cell.input = value;
+        changed.add(cell);
+        return this;
+    }
+
+    public synchronized CellGraph define(String name, Operation op, Operand left, Operand right) {
+        if (op == null || left == null || right == null) {
+            throw new InvalidInputException("formula for " + name + " needs an operation and two operands");
+        }
+        Cell cell = cell(name);
+        List<Cell> deps = new ArrayList<>(2);
+        for (Operand operand : new Operand[] {left, right}) {
+            if (operand instanceof Operand.Ref ref) {
+                deps.add(cell(ref.cell()));
+            }
+        }
+        if (reaches(cell, deps)) {
+            throw new InvalidInputException("formula for " + name + " creates a cycle");
+        }
+        unlink(cell);
+        cell.op = op;
+        cell.left = left instanceof Operand.Ref ? null : left;
+        cell.right = right instanceof Operand.Ref ? null : right;
+        cell.leftCell = left instanceof Operand.Ref ref ? cells.get(ref.cell()) : null;
+        cell.rightCell = right instanceof Operand.Ref ref ? cells.get(ref.cell()) : null;
+        for (Cell dep : deps) {
+            dep.dependents.add(cell);
+        }
+        changed.add(cell);
+        return this;
+    }
+
+    // Clears a cell's value or formula. Cells still referring to it read an error until it is set again.
+    public synchronized CellGraph clear(String name) {
+        Cell cell = cells.get(name);
+        if (cell != null) {
+            unlink(cell);
+            cell.input = Double.NaN;
+            cell.unset = true;
+            changed.add(cell);
+        }
+        return this;
+    }
+
+    // Runs one wave over the cells downstream of every edit since the last wave; returns how many it computed
+    public synchronized int recompute() {
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        List<Cell> affected = new ArrayList<>();
+        ArrayDeque<Cell> work = new ArrayDeque<>(changed);
+        changed.clear();
+        for (Cell cell : work) {
+            cell.affected = true;
+            affected.add(cell);
+        }
+        while (!work.isEmpty()) {
+            for (Cell dependent : work.poll().dependents) {
+                if (!dependent.affected) {
+                    dependent.affected = true;
+                    affected.add(dependent);
+                    work.add(dependent);
+                }
+            }
+        }
+        List<Cell> frontier = new ArrayList<>();
+        for (Cell cell : affected) {
+            cell.pending = (cell.leftCell != null && cell.leftCell.affected ? 1 : 0)
+                    + (cell.rightCell != null && cell.rightCell.affected ? 1 : 0);
+            if (cell.pending == 0) {
+                frontier.add(cell);
+            }
+        }
+        while (!frontier.isEmpty()) {
+            if (frontier.size() >= PARALLEL_THRESHOLD) {
+                frontier.parallelStream().forEach(this::evaluate);
+            } else {
+                frontier.forEach(this::evaluate);
+            }
+            List<Cell> next = new ArrayList<>();
+            for (Cell cell : frontier) {
+                cell.affected = false;
+                // dependents lists a formula once per reference, matching how pending was counted
+                for (Cell dependent : cell.dependents) {
+                    if (--dependent.pending == 0) {
+                        next.add(dependent);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return affected.size();
+    }
+
+    public synchronized CellState state(String name) {
+        Cell cell = cells.get(name);
+        if (cell == null) {
+            throw new InvalidInputException("no cell named " + name);
+        }
+        return cell.state;
+    }
+
+    public double value(String name) {
+        return state(name).value();
+    }
+
+    public synchronized boolean contains(String name) {
+        return cells.containsKey(name);
+    }
+
+    public synchronized Set<String> dependents(String name) {
+        Cell cell = cells.get(name);
+        Set<String> names = new HashSet<>();
+        if (cell != null) {
+            cell.dependents.forEach(d -> names.add(d.name));
+        }
+        return names;
+    }
+
+    private Cell cell(String name) {
+        if (name == null || name.isBlank()) {
+            throw new InvalidInputException("cell name '" + name + "'");
+        }
+        return cells.computeIfAbsent(name, Cell::new);
+    }
+
+    // Whether target is reachable downstream from itself through any of the new references
+    private static boolean reaches(Cell target, List<Cell> deps) {
+        Set<Cell> seen = new HashSet<>();
+        ArrayDeque<Cell> work = new ArrayDeque<>();
+        work.add(target);
+        while (!work.isEmpty()) {
+            Cell cell = work.poll();
+            if (deps.contains(cell)) {
+                return true;
+            }
+            for (Cell dependent : cell.dependents) {
+                if (seen.add(dependent)) {
+                    work.add(dependent);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void unlink(Cell cell) {
+        if (cell.leftCell != null) {
+            cell.leftCell.dependents.remove(cell);
+        }
+        if (cell.rightCell != null) {
+            cell.rightCell.dependents.remove(cell);
+        }
+        cell.op = null;
+        cell.leftCell = null;
+        cell.rightCell = null;
+        cell.unset = false;
+    }
+
+    private void evaluate(Cell cell) {
+        if (cell.op == null) {
+            cell.state = cell.unset
+                    ? new CellState(Double.NaN, new InvalidInputException("cell " + cell.name + " has no value"))
+                    : new CellState(cell.input, null);
+            return;
+        }
+        CellState left = cell.leftCell != null ? cell.leftCell.state : null;
+        CellState right = cell.rightCell != null ? cell.rightCell.state : null;
+        if (left != null && left.isError()) {
+            cell.state = left;
+        } else if (right != null && right.isError()) {
+            cell.state = right;
+        } else {
+            double a = left != null ? left.value() : ((Operand.Constant) cell.left).value();
+            double b = right != null ? right.value() : ((Operand.Constant) cell.right).value();
+            try {
+                cell.state = new CellState(calculator.calculateAsDouble(cell.op, a, b), null);
+            } catch (CalculatorException e) {
+                cell.state = new CellState(Double.NaN, e);
+            } catch (RuntimeException e) {
+                // An extension operation failing its own way; keep the wave going all the same
+                cell.state = new CellState(Double.NaN, new CalculatorException(String.valueOf(e.getMessage()), e));
+            }
+        }
+    }
+
+    private static final class Cell {
+        final String name;
+        // Formulas reading this cell, once per reference
+        final List<Cell> dependents = new ArrayList<>(2);
+        Operation op;
+        Operand left;
+        Operand right;
+        Cell leftCell;
+        Cell rightCell;
+        double input = Double.NaN;
+        boolean unset = true;
+        CellState state;
+        boolean affected;
+        int pending;
+
+        Cell(String name) {
+            this.name = name;
+            this.state = new CellState(Double.NaN, new InvalidInputException("cell " + name + " has no value"));
+        }
+    }
+}
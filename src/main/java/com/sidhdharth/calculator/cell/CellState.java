@@ -0,0 +1,11 @@
+package com.sidhdharth.calculator.cell;
+
+import com.sidhdharth.calculator.exception.CalculatorException;
+
+// A cell's value after the last recompute, or the error that produced no value (value is then NaN)
+public record CellState(double value, CalculatorException error) {
+
+    public boolean isError() {
+        return error != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.sidhdharth.calculator.cell;
+
+// One side of a formula: another cell, or a fixed number
+public sealed interface Operand {
+
+    static Operand ref(String cell) {
+        return new Ref(cell);
+    }
+
+    static Operand of(double value) {
+        return new Constant(value);
+    }
+
+    record Ref(String cell) implements Operand {
+    }
+
+    record Constant(double value) implements Operand {
+    }
+}
@@ -0,0 +1,89 @@
+package com.sidhdharth.calculator.chain;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.operation.Operation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/*
+ * Thread-safe running total for any Operation. Each step reads the current value, computes the next one
+ * through the calculator and publishes it with a CAS on the raw double bits, retrying if another thread
+ * got there first. Steps from different threads are applied one at a time in some order, so for
+ * non-commutative operations the result depends on how the threads interleave.
+ * If the calculator throws, the value is left unchanged.
+ */
+public class AtomicOperationChain implements OperationChainBuilder {
+    private static final VarHandle BITS;
+
+    static {
+        try {
+            BITS = MethodHandles.lookup().findVarHandle(AtomicOperationChain.class, "bits", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final double initialValue;
+    private final Calculator calculator;
+    private volatile long bits;
+
+    public AtomicOperationChain(double initialValue, Calculator calculator) {
+        this.initialValue = initialValue;
+        this.calculator = calculator;
+        this.bits = Double.doubleToRawLongBits(initialValue);
+    }
+
+    @Override
+    public OperationChainBuilder chain(Operation op, Number operand) {
+        if (operand != null) {
+            return chain(op, operand.doubleValue());
+        }
+        // Let the calculator's error policy decide what a null operand means
+        long current = bits;
+        while (true) {
+            double next = calculator.calculate(op, Double.longBitsToDouble(current), null).doubleValue();
+            long witness = (long) BITS.compareAndExchange(this, current, Double.doubleToRawLongBits(next));
+            if (witness == current) {
+                return this;
+            }
+            current = witness;
+        }
+    }
+
+    @Override
+    public OperationChainBuilder chain(Operation op, double operand) {
+        long current = bits;
+        while (true) {
+            double next = calculator.calculateAsDouble(op, Double.longBitsToDouble(current), operand);
+            long witness = (long) BITS.compareAndExchange(this, current, Double.doubleToRawLongBits(next));
+            if (witness == current) {
+                return this;
+            }
+            current = witness;
+        }
+    }
+
+    @Override
+    public Number getResult() {
+        return getResultAsDouble();
+    }
+
+    @Override
+    public double getResultAsDouble() {
+        return Double.longBitsToDouble(bits);
+    }
+
+    public void reset() {
+        reset(initialValue);
+    }
+
+    public void reset(double value) {
+        bits = Double.doubleToRawLongBits(value);
+    }
+
+    // Atomically returns the current value and starts again from the initial value
+    public double getThenReset() {
+        return Double.longBitsToDouble((long) BITS.getAndSet(this, Double.doubleToRawLongBits(initialValue)));
+    }
+}
@@ -0,0 +1,402 @@
+package com.sidhdharth.calculator.chain;
+
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+/*
+ * Second tier for ChainTemplate: turns a fused sequence of OperationType steps into one straight-line
+ * applyAsDouble(double) in a hidden class. The operands are final fields set by the constructor, so one
+ * class serves every template with the same operations whatever its constants, and templates that only
+ * differ in their numbers do not define classes of their own. Templates with a zero divisor are not
+ * compiled: that step goes through the calculator and its error policy on every call anyway. An
+ * error-coded seed is returned as is, since NaN payloads are not guaranteed to survive arithmetic.
+ * Shapes (the operations) are kept in a size-bounded LRU; the hidden classes are not strongly bound to
+ * this class's loader, so an evicted shape can be unloaded once no template uses it.
+ */
+public final class ChainCompiler {
+    // Keeps the generated method under HotSpot's 8000-byte limit for JIT compilation
+    public static final int MAX_STEPS = 512;
+
+    private static final ChainCompiler DEFAULT = new ChainCompiler(256);
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final int maxSize;
+    private final Map<Shape, MethodHandle> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ChainCompiler(int maxSize) {
+        if (maxSize <= 0) {
+            throw new InvalidInputException("cache size " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Shape, MethodHandle> eldest) {
+                if (size() > ChainCompiler.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static ChainCompiler getDefault() {
+        return DEFAULT;
+    }
+
+    // Only inlined chains of 1 to MAX_STEPS OperationType steps without a zero divisor compile
+    public static boolean isCompilable(Operation[] ops, double[] operands) {
+        if (ops.length == 0 || ops.length > MAX_STEPS) {
+            return false;
+        }
+        for (int i = 0; i < ops.length; i++) {
+            if (!(ops[i] instanceof OperationType)) {
+                return false;
+            }
+            if ((ops[i] == OperationType.DIVIDE || ops[i] == OperationType.MODULO) && operands[i] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    DoubleUnaryOperator compile(Operation[] ops, double[] operands) {
+        Shape shape = new Shape(ops);
+        MethodHandle factory;
+        synchronized (entries) {
+            factory = entries.get(shape);
+            if (factory != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        if (factory == null) {
+            // Generated outside the lock; two threads missing on the same shape both define a class, the last one wins
+            factory = define(ops);
+            synchronized (entries) {
+                entries.put(shape, factory);
+            }
+        }
+        try {
+            return (DoubleUnaryOperator) factory.invokeExact(operands);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public long hits() {
+        synchronized (entries) {
+            return hits;
+        }
+    }
+
+    public long misses() {
+        synchronized (entries) {
+            return misses;
+        }
+    }
+
+    public long evictions() {
+        synchronized (entries) {
+            return evictions;
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private static MethodHandle define(Operation[] ops) {
+        try {
+            MethodHandles.Lookup hidden = LOOKUP.defineHiddenClass(new ClassWriter(ops).toBytes(), true);
+            return hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class, double[].class))
+                    .asType(MethodType.methodType(DoubleUnaryOperator.class, double[].class));
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Shape {
+        private final Operation[] ops;
+        private final int hash;
+
+        Shape(Operation[] ops) {
+            this.ops = ops;
+            this.hash = Arrays.hashCode(ops);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Shape other && hash == other.hash && Arrays.equals(ops, other.ops);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /*
+     * Emits the class file by hand; the shape is simple enough not to need a bytecode library:
+     *
+     *   final class CompiledChain implements DoubleUnaryOperator {
+     *       private final double c0, c1, ...;
+     *
+     *       CompiledChain(double[] operands) {
+     *           c0 = operands[0];
+     *           c1 = operands[1];
+     *           ...
+     *       }
+     *
+     *       public double applyAsDouble(double value) {
+     *           if (ResultCode.isError(value)) return value;
+     *           return ((value + c0) + 0.0) * c1 ...;
+     *       }
+     *   }
+     *
+     * The single branch needs one same_frame entry in a StackMapTable.
+     */
+    private static final class ClassWriter {
+        private static final String NAME = "com/sidhdharth/calculator/chain/CompiledChain";
+        // dload_1, invokestatic, ifeq, dload_1, dreturn: the offset of the branch target
+        private static final int ERROR_CHECK_LENGTH = 9;
+
+        private static final int DCONST_0 = 0x0e;
+        private static final int SIPUSH = 0x11;
+        private static final int DLOAD_1 = 0x27;
+        private static final int ALOAD_0 = 0x2a;
+        private static final int ALOAD_1 = 0x2b;
+        private static final int DALOAD = 0x31;
+        private static final int DADD = 0x63;
+        private static final int DSUB = 0x67;
+        private static final int DMUL = 0x6b;
+        private static final int DDIV = 0x6f;
+        private static final int DREM = 0x73;
+        private static final int IFEQ = 0x99;
+        private static final int DRETURN = 0xaf;
+        private static final int RETURN = 0xb1;
+        private static final int GETFIELD = 0xb4;
+        private static final int PUTFIELD = 0xb5;
+        private static final int INVOKESPECIAL = 0xb7;
+        private static final int INVOKESTATIC = 0xb8;
+
+        private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        private final DataOutputStream pool = new DataOutputStream(poolBytes);
+        private final Map<Object, Integer> indexes = new HashMap<>();
+        private int poolSize = 1;
+        private final Operation[] ops;
+
+        ClassWriter(Operation[] ops) {
+            this.ops = ops;
+        }
+
+        byte[] toBytes() {
+            try {
+                byte[] init = constructor();
+                byte[] apply = applyAsDouble();
+                int thisClass = classRef(NAME);
+                int superClass = classRef("java/lang/Object");
+                int iface = classRef("java/util/function/DoubleUnaryOperator");
+                int code = utf8("Code");
+                int stackMapTable = utf8("StackMapTable");
+                int initName = utf8("<init>");
+                int initType = utf8("([D)V");
+                int applyName = utf8("applyAsDouble");
+                int applyType = utf8("(D)D");
+                int doubleType = utf8("D");
+                int[] fieldNames = new int[ops.length];
+                for (int i = 0; i < ops.length; i++) {
+                    fieldNames[i] = utf8(field(i));
+                }
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(61);
+                out.writeShort(poolSize);
+                pool.flush();
+                poolBytes.writeTo(out);
+                out.writeShort(0x0030); // ACC_FINAL | ACC_SUPER
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(1);
+                out.writeShort(iface);
+                out.writeShort(ops.length);
+                for (int i = 0; i < ops.length; i++) {
+                    out.writeShort(0x0012); // ACC_PRIVATE | ACC_FINAL
+                    out.writeShort(fieldNames[i]);
+                    out.writeShort(doubleType);
+                    out.writeShort(0);
+                }
+
+                out.writeShort(2);
+                method(out, 0x0000, initName, initType, code, 3, 2, init, -1, 0);
+                method(out, 0x0001, applyName, applyType, code, 4, 3, apply, stackMapTable, ERROR_CHECK_LENGTH);
+                out.writeShort(0);
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private byte[] constructor() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream code = new DataOutputStream(bytes);
+            code.writeByte(ALOAD_0);
+            code.writeByte(INVOKESPECIAL);
+            code.writeShort(memberRef(10, "java/lang/Object", "<init>", "()V"));
+            for (int i = 0; i < ops.length; i++) {
+                code.writeByte(ALOAD_0);
+                code.writeByte(ALOAD_1);
+                code.writeByte(SIPUSH);
+                code.writeShort(i);
+                code.writeByte(DALOAD);
+                code.writeByte(PUTFIELD);
+                code.writeShort(memberRef(9, NAME, field(i), "D"));
+            }
+            code.writeByte(RETURN);
+            return bytes.toByteArray();
+        }
+
+        // Mirrors the inlined branch of ChainTemplate.interpret, one step at a time, with the value on the stack
+        private byte[] applyAsDouble() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream code = new DataOutputStream(bytes);
+            code.writeByte(DLOAD_1);
+            code.writeByte(INVOKESTATIC);
+            code.writeShort(memberRef(10, "com/sidhdharth/calculator/api/ResultCode", "isError", "(D)Z"));
+            code.writeByte(IFEQ);
+            code.writeShort(ERROR_CHECK_LENGTH - 4);
+            code.writeByte(DLOAD_1);
+            code.writeByte(DRETURN);
+            code.writeByte(DLOAD_1);
+            for (int i = 0; i < ops.length; i++) {
+                OperationType op = (OperationType) ops[i];
+                code.writeByte(ALOAD_0);
+                code.writeByte(GETFIELD);
+                code.writeShort(memberRef(9, NAME, field(i), "D"));
+                switch (op) {
+                    case ADD -> code.writeByte(DADD);
+                    case SUBTRACT -> code.writeByte(DSUB);
+                    case MULTIPLY -> code.writeByte(DMUL);
+                    case DIVIDE -> code.writeByte(DDIV);
+                    case MODULO -> code.writeByte(DREM);
+                }
+                if (op == OperationType.ADD || op == OperationType.MODULO) {
+                    // + 0.0 turns -0.0 into 0.0, as the operations themselves do
+                    code.writeByte(DCONST_0);
+                    code.writeByte(DADD);
+                }
+            }
+            code.writeByte(DRETURN);
+            return bytes.toByteArray();
+        }
+
+        // frameOffset >= 0 adds a StackMapTable with a single same_frame at that offset
+        private void method(DataOutputStream out, int access, int name, int type, int codeName, int maxStack,
+                            int maxLocals, byte[] code, int stackMapTable, int frameOffset) throws IOException {
+            boolean frame = stackMapTable >= 0;
+            out.writeShort(access);
+            out.writeShort(name);
+            out.writeShort(type);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(12 + code.length + (frame ? 9 : 0));
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0); // exception table
+            if (frame) {
+                out.writeShort(1);
+                out.writeShort(stackMapTable);
+                out.writeInt(3);
+                out.writeShort(1);
+                out.writeByte(frameOffset); // same_frame, frame types 0-63 are the offset itself
+            } else {
+                out.writeShort(0);
+            }
+        }
+
+        private static String field(int step) {
+            return "c" + step;
+        }
+
+        // tag 9 = Fieldref, 10 = Methodref, 11 = InterfaceMethodref
+        private int memberRef(int tag, String owner, String name, String descriptor) throws IOException {
+            String key = tag + " " + owner + "." + name + descriptor;
+            Integer index = indexes.get(key);
+            if (index == null) {
+                int ownerIndex = classRef(owner);
+                int nameIndex = utf8(name);
+                int typeIndex = utf8(descriptor);
+                int nameAndType = entry("NameAndType " + name + descriptor, 12, nameIndex, typeIndex);
+                index = entry(key, tag, ownerIndex, nameAndType);
+            }
+            return index;
+        }
+
+        private int classRef(String name) throws IOException {
+            Integer index = indexes.get("Class " + name);
+            return index != null ? index : entry("Class " + name, 7, utf8(name), -1);
+        }
+
+        private int utf8(String text) throws IOException {
+            Integer index = indexes.get(text);
+            if (index == null) {
+                index = poolSize++;
+                pool.writeByte(1);
+                pool.writeUTF(text);
+                indexes.put(text, index);
+            }
+            return index;
+        }
+
+        private int entry(String key, int tag, int first, int second) throws IOException {
+            Integer index = indexes.get(key);
+            if (index == null) {
+                index = poolSize++;
+                pool.writeByte(tag);
+                pool.writeShort(first);
+                if (second >= 0) {
+                    pool.writeShort(second);
+                }
+                indexes.put(key, index);
+            }
+            return index;
+        }
+    }
+}
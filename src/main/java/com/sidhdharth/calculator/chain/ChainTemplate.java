@@ -0,0 +1,204 @@
+package com.sidhdharth.calculator.chain;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.api.ResultCode;
+import com.sidhdharth.calculator.api.ZeroDivisorPolicy;
+import com.sidhdharth.calculator.exception.NullOperandException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+/*
+ * A recorded, fused sequence of steps that can be replayed on any seed value. apply() is tiered: a template
+ * starts out interpreted and, once it has been applied COMPILE_THRESHOLD times, is compiled by ChainCompiler
+ * into straight-line bytecode with the same results. Templates ChainCompiler cannot handle stay interpreted.
+ */
+public final class ChainTemplate {
+    public static final int COMPILE_THRESHOLD = 10_000;
+
+    private final Operation[] ops;
+    private final double[] operands;
+    private final Calculator calculator;
+    private final boolean inline;
+    private final boolean compilable;
+    // Racy on purpose, like the JVM's own invocation counters: a lost increment only delays compilation
+    private int invocations;
+    private volatile DoubleUnaryOperator compiled;
+
+    private ChainTemplate(Operation[] ops, double[] operands, Calculator calculator, boolean inline) {
+        this.ops = ops;
+        this.operands = operands;
+        this.calculator = calculator;
+        this.inline = inline;
+        this.compilable = inline && ChainCompiler.isCompilable(ops, operands);
+    }
+
+    static ChainTemplate fuse(List<Operation> ops, double[] operands, int size, FoldingMode mode,
+                              Calculator calculator, boolean inline) {
+        // Error-coded operands are left to the calculator rather than carried through plain arithmetic
+        if (!inline || containsError(operands, size)) {
+            return new ChainTemplate(ops.toArray(new Operation[0]), Arrays.copyOf(operands, size), calculator, false);
+        }
+        List<Operation> fusedOps = new ArrayList<>(size);
+        double[] fusedOperands = new double[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            Operation op = ops.get(i);
+            double operand = operands[i];
+            if (isIdentity(op, operand)) {
+                continue;
+            }
+            if (mode == FoldingMode.REASSOCIATE && n > 0) {
+                Operation last = fusedOps.get(n - 1);
+                if (isAdditive(op) && isAdditive(last)) {
+                    fusedOperands[n - 1] = signed(last, fusedOperands[n - 1]) + signed(op, operand);
+                    fusedOps.set(n - 1, OperationType.ADD);
+                    continue;
+                }
+                if (op == OperationType.MULTIPLY && last == OperationType.MULTIPLY) {
+                    fusedOperands[n - 1] *= operand;
+                    continue;
+                }
+            }
+            fusedOps.add(op);
+            fusedOperands[n++] = operand;
+        }
+        double[] trimmed = new double[n];
+        System.arraycopy(fusedOperands, 0, trimmed, 0, n);
+        return new ChainTemplate(fusedOps.toArray(new Operation[0]), trimmed, calculator, true);
+    }
+
+    private static boolean containsError(double[] operands, int size) {
+        for (int i = 0; i < size; i++) {
+            if (ResultCode.isError(operands[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIdentity(Operation op, double operand) {
+        // x - 0.0 keeps -0.0 as -0.0, unlike x + 0.0 which ADD normalizes; -0.0 as operand is not an identity
+        return (op == OperationType.SUBTRACT && Double.doubleToRawLongBits(operand) == 0L)
+                || ((op == OperationType.MULTIPLY || op == OperationType.DIVIDE) && operand == 1.0);
+    }
+
+    private static boolean isAdditive(Operation op) {
+        return op == OperationType.ADD || op == OperationType.SUBTRACT;
+    }
+
+    private static double signed(Operation op, double operand) {
+        return op == OperationType.SUBTRACT ? -operand : operand;
+    }
+
+    public int steps() {
+        return ops.length;
+    }
+
+    public double apply(double seed) {
+        DoubleUnaryOperator code = compiled;
+        if (code != null) {
+            return code.applyAsDouble(seed);
+        }
+        if (compilable && ++invocations == COMPILE_THRESHOLD) {
+            return compile().applyAsDouble(seed);
+        }
+        return interpret(seed);
+    }
+
+    // Compiles now instead of waiting for the threshold; returns the interpreter when the template is not compilable
+    public DoubleUnaryOperator compile() {
+        DoubleUnaryOperator code = compiled;
+        if (code == null) {
+            if (!compilable) {
+                return this::interpret;
+            }
+            code = ChainCompiler.getDefault().compile(ops, operands);
+            compiled = code;
+        }
+        return code;
+    }
+
+    public boolean isCompiled() {
+        return compiled != null;
+    }
+
+    // The first tier: walks the steps, whatever apply() would currently use
+    public double interpret(double seed) {
+        if (!inline || ResultCode.isError(seed)) {
+            return replay(seed, 0);
+        }
+        double value = seed;
+        for (int i = 0; i < ops.length; i++) {
+            Operation op = ops[i];
+            double operand = operands[i];
+            if (op == OperationType.ADD) {
+                value = value + operand + 0.0;
+            } else if (op == OperationType.SUBTRACT) {
+                value = value - operand;
+            } else if (op == OperationType.MULTIPLY) {
+                value = value * operand;
+            } else if (op == OperationType.DIVIDE && operand != 0) {
+                value = value / operand;
+            } else if (op == OperationType.MODULO && operand != 0) {
+                value = value % operand + 0.0;
+            } else {
+                // Zero divisors, null steps and custom operations go through the calculator and its error policy.
+                // Once that returns an error code the remaining steps do too, as NaN payloads need not survive
+                // arithmetic
+                value = step(op, value, operand);
+                if (ResultCode.isError(value)) {
+                    return replay(value, i + 1);
+                }
+            }
+        }
+        return value;
+    }
+
+    private double replay(double value, int from) {
+        for (int i = from; i < ops.length; i++) {
+            value = step(ops[i], value, operands[i]);
+        }
+        return value;
+    }
+
+    private double step(Operation op, double value, double operand) {
+        if (op instanceof NullOperandStep step) {
+            return calculator.calculate(step.op(), value, null).doubleValue();
+        }
+        return calculator.calculateAsDouble(op, value, operand);
+    }
+
+    /*
+     * Runs the template over every seed one step at a time, each step being a single calculateBatch pass.
+     * Null steps have no batch form and run element by element, so the error policy still decides them.
+     */
+    public void applyAll(double[] seeds, double[] out, ZeroDivisorPolicy policy) {
+        if (ops.length == 0) {
+            calculator.calculateBatch(OperationType.MULTIPLY, seeds, 1.0, out, policy);
+            return;
+        }
+        for (int i = 0; i < ops.length; i++) {
+            double[] in = i == 0 ? seeds : out;
+            if (ops[i] == null || ops[i] instanceof NullOperandStep) {
+                for (int j = 0; j < out.length; j++) {
+                    out[j] = step(ops[i], in[j], operands[i]);
+                }
+            } else {
+                calculator.calculateBatch(ops[i], in, operands[i], out, policy);
+            }
+        }
+    }
+
+    // A step recorded with a null operand; replayed through Calculator.calculate(op, value, null)
+    record NullOperandStep(Operation op) implements Operation {
+        @Override
+        public double applyAsDouble(double num1, double num2) {
+            throw new NullOperandException();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.sidhdharth.calculator.chain;
+
+public enum FoldingMode {
+    // Only drop steps that are exact identities for every input: - 0, * 1 and / 1
+    STRICT,
+
+    // Also merge runs of constant +/- and runs of constant *, which reassociates and may change rounding
+    REASSOCIATE
+}
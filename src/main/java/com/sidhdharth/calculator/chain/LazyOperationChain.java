@@ -0,0 +1,75 @@
+package com.sidhdharth.calculator.chain;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.operation.Operation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Records steps instead of applying them. The recorded steps are fused into a ChainTemplate the first
+ * time a result is requested, so errors such as DivisionByZeroException surface from getResult()
+ * rather than from chain(). A null operation or operand is recorded too and, like in OperationChain,
+ * left to the calculator's error policy when the step is evaluated.
+ */
+public class LazyOperationChain implements OperationChainBuilder {
+    private final double initialValue;
+    private final Calculator calculator;
+    private final FoldingMode mode;
+    private final boolean inlineArithmetic;
+    private final List<Operation> ops = new ArrayList<>();
+    private double[] operands = new double[8];
+    private ChainTemplate template;
+
+    public LazyOperationChain(double initialValue, Calculator calculator, FoldingMode mode) {
+        this(initialValue, calculator, mode, true);
+    }
+
+    /*
+     * inlineArithmetic says whether the calculator computes OperationTypes in plain double arithmetic.
+     * When it does not (for example fixed-point), no step is folded and every step goes through the calculator.
+     */
+    public LazyOperationChain(double initialValue, Calculator calculator, FoldingMode mode, boolean inlineArithmetic) {
+        this.initialValue = initialValue;
+        this.calculator = calculator;
+        this.mode = mode;
+        this.inlineArithmetic = inlineArithmetic;
+    }
+
+    @Override
+    public OperationChainBuilder chain(Operation op, Number operand) {
+        if (operand == null) {
+            return chain(new ChainTemplate.NullOperandStep(op), 0.0);
+        }
+        return chain(op, operand.doubleValue());
+    }
+
+    @Override
+    public OperationChainBuilder chain(Operation op, double operand) {
+        if (ops.size() == operands.length) {
+            operands = Arrays.copyOf(operands, operands.length * 2);
+        }
+        operands[ops.size()] = operand;
+        ops.add(op);
+        template = null;
+        return this;
+    }
+
+    public ChainTemplate toTemplate() {
+        if (template == null) {
+            template = ChainTemplate.fuse(ops, operands, ops.size(), mode, calculator, inlineArithmetic);
+        }
+        return template;
+    }
+
+    @Override
+    public Number getResult() {
+        return getResultAsDouble();
+    }
+
+    @Override
+    public double getResultAsDouble() {
+        return toTemplate().apply(initialValue);
+    }
+}
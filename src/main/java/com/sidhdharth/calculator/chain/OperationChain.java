@@ -1,25 +1,84 @@
 package com.sidhdharth.calculator.chain;
 
 import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.jfr.ChainStepEvent;
 import com.sidhdharth.calculator.operation.Operation;
 
 public class OperationChain implements OperationChainBuilder {
-    private Number value;
+    private double value;
+    // Boxed view of value, created lazily so that chaining itself never allocates
+    private Number result;
     private final Calculator calculator;
+    private int depth;
 
     public OperationChain(Number initialValue,Calculator calculator) {
+        this.value = initialValue.doubleValue();
+        this.result = initialValue;
+        this.calculator = calculator;
+    }
+
+    public OperationChain(double initialValue, Calculator calculator) {
         this.value = initialValue;
         this.calculator = calculator;
     }
 
     @Override
     public OperationChainBuilder chain(Operation op, Number operand){
-        this.value = calculator.calculate(op, this.value, operand);
-        return this;
+        if (operand == null) {
+            return step(op, 0, true);
+        }
+        return step(op, operand.doubleValue(), false);
+    }
+
+    @Override
+    public OperationChainBuilder chain(Operation op, double operand) {
+        return step(op, operand, false);
+    }
+
+    private OperationChainBuilder step(Operation op, double operand, boolean nullOperand) {
+        depth++;
+        ChainStepEvent event = new ChainStepEvent();
+        if (!event.isEnabled()) {
+            this.value = apply(op, operand, nullOperand);
+            this.result = null;
+            return this;
+        }
+        event.begin();
+        RuntimeException failure = null;
+        try {
+            this.value = apply(op, operand, nullOperand);
+            this.result = null;
+            return this;
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.set(op, depth, failure);
+                event.commit();
+            }
+        }
+    }
+
+    private double apply(Operation op, double operand, boolean nullOperand) {
+        if (nullOperand) {
+            // Let the calculator's error policy decide what a null operand means
+            return calculator.calculate(op, this.value, null).doubleValue();
+        }
+        return calculator.calculateAsDouble(op, this.value, operand);
     }
 
     @Override
     public Number getResult() {
+        if (this.result == null) {
+            this.result = this.value;
+        }
+        return this.result;
+    }
+
+    @Override
+    public double getResultAsDouble() {
         return this.value;
     }
 
@@ -4,5 +4,7 @@ import com.sidhdharth.calculator.operation.Operation;
 
 public interface OperationChainBuilder {
     OperationChainBuilder chain(Operation op, Number operand);
+    OperationChainBuilder chain(Operation op, double operand);
     Number getResult();
+    double getResultAsDouble();
 }
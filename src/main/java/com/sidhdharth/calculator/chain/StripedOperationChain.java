@@ -0,0 +1,72 @@
+package com.sidhdharth.calculator.chain;
+
+import com.sidhdharth.calculator.exception.InvalidOperationException;
+import com.sidhdharth.calculator.exception.NullOperandException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationType;
+
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+/*
+ * Thread-safe running total for a single commutative and associative operation, ADD or MULTIPLY.
+ * Operands go into striped cells (a DoubleAccumulator), so threads under contention update different
+ * cells instead of retrying a CAS on one value. The cells are combined with the initial value on read.
+ * Because the combining order is not fixed, the last bits can differ from applying the steps in sequence,
+ * the same trade-off as FoldingMode.REASSOCIATE.
+ * Like DoubleAdder, getResult() during concurrent updates is not an atomic snapshot.
+ */
+public class StripedOperationChain implements OperationChainBuilder {
+    private final OperationType op;
+    private final DoubleAccumulator cells;
+    private volatile double initialValue;
+
+    public StripedOperationChain(OperationType op, double initialValue) {
+        if (op != OperationType.ADD && op != OperationType.MULTIPLY) {
+            throw new InvalidOperationException(String.valueOf(op));
+        }
+        this.op = op;
+        this.cells = new DoubleAccumulator(op::applyAsDouble, op == OperationType.ADD ? 0.0 : 1.0);
+        this.initialValue = initialValue;
+    }
+
+    @Override
+    public OperationChainBuilder chain(Operation op, Number operand) {
+        if (operand == null) {
+            throw new NullOperandException();
+        }
+        return chain(op, operand.doubleValue());
+    }
+
+    @Override
+    public OperationChainBuilder chain(Operation op, double operand) {
+        if (op != this.op) {
+            throw new InvalidOperationException(String.valueOf(op));
+        }
+        cells.accumulate(operand);
+        return this;
+    }
+
+    @Override
+    public Number getResult() {
+        return getResultAsDouble();
+    }
+
+    @Override
+    public double getResultAsDouble() {
+        return op.applyAsDouble(initialValue, cells.get());
+    }
+
+    public void reset() {
+        cells.reset();
+    }
+
+    public void reset(double value) {
+        cells.reset();
+        initialValue = value;
+    }
+
+    // Returns the combined value and clears the cells; updates racing with the call may land in either total
+    public double getThenReset() {
+        return op.applyAsDouble(initialValue, cells.getThenReset());
+    }
+}
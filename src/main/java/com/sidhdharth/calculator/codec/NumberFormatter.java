@@ -0,0 +1,339 @@
+package com.sidhdharth.calculator.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Writes doubles in the layout of Double.toString ("12.5", "1.0E-5", "-Infinity") using the shortest
+ * decimal that parses back to the same double, and among those the closest, as Java 19 and later
+ * specify. Digits come from Ryu (Adams, 2018): the value and the bounds of its rounding interval
+ * are scaled by a 125-bit power of five, and digits are dropped while the bounds still differ.
+ * Older JDKs sometimes print a digit or two more than needed; both forms parse to the same double.
+ *
+ * Output goes into a caller's array, at most MAX_LENGTH characters, so nothing is allocated per number.
+ */
+public final class NumberFormatter {
+
+    public static final int MAX_LENGTH = 24;
+
+    private static final int MANTISSA_BITS = 52;
+    private static final int EXPONENT_BIAS = 1023;
+    private static final int POW5_INV_BITCOUNT = 125;
+    private static final int POW5_BITCOUNT = 125;
+    private static final byte[] INFINITY = {'I', 'n', 'f', 'i', 'n', 'i', 't', 'y'};
+    private static final byte[] NAN = {'N', 'a', 'N'};
+
+    private NumberFormatter() {
+    }
+
+    public static String toString(double value) {
+        byte[] bytes = new byte[MAX_LENGTH];
+        int length = format(value, bytes, 0);
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    // Writes value at dst[pos], which needs MAX_LENGTH bytes free, and returns the position after it
+    public static int format(double value, byte[] dst, int pos) {
+        long bits = Double.doubleToRawLongBits(value);
+        if (bits < 0) {
+            dst[pos++] = '-';
+        }
+        int ieeeExponent = (int) (bits >>> MANTISSA_BITS) & 0x7FF;
+        long ieeeMantissa = bits & ((1L << MANTISSA_BITS) - 1);
+        if (ieeeExponent == 0x7FF) {
+            byte[] text = ieeeMantissa != 0 ? NAN : INFINITY;
+            if (ieeeMantissa != 0 && bits < 0) {
+                pos--; // NaN has no sign
+            }
+            System.arraycopy(text, 0, dst, pos, text.length);
+            return pos + text.length;
+        }
+        if (ieeeExponent == 0 && ieeeMantissa == 0) {
+            dst[pos] = '0';
+            dst[pos + 1] = '.';
+            dst[pos + 2] = '0';
+            return pos + 3;
+        }
+        return shortest(ieeeExponent, ieeeMantissa, dst, pos);
+    }
+
+    /*
+     * Places digits * 10^exponent the way Double.toString does: plain notation when the value is in
+     * [10^-3, 10^7), otherwise one digit, the fraction and "E" with the exponent; always at least one
+     * digit after the point.
+     */
+    private static int layout(long digits, int exponent, byte[] dst, int pos) {
+        int length = decimalLength(digits);
+        int scientific = exponent + length - 1;
+        if (scientific >= -3 && scientific < 7) {
+            int point = exponent + length; // digits before the point
+            if (point <= 0) {
+                dst[pos++] = '0';
+                dst[pos++] = '.';
+                for (int i = point; i < 0; i++) {
+                    dst[pos++] = '0';
+                }
+                writeDigits(digits, length, dst, pos);
+                return pos + length;
+            }
+            if (point >= length) {
+                writeDigits(digits, length, dst, pos);
+                pos += length;
+                for (int i = length; i < point; i++) {
+                    dst[pos++] = '0';
+                }
+                dst[pos++] = '.';
+                dst[pos++] = '0';
+                return pos;
+            }
+            // The point falls inside the digits: write them one place apart, then move the integer part left
+            writeDigits(digits, length, dst, pos + 1);
+            System.arraycopy(dst, pos + 1, dst, pos, point);
+            dst[pos + point] = '.';
+            return pos + length + 1;
+        }
+        writeDigits(digits, length, dst, pos + 1);
+        dst[pos] = dst[pos + 1];
+        dst[pos + 1] = '.';
+        pos += length + 1;
+        if (length == 1) {
+            dst[pos++] = '0';
+        }
+        dst[pos++] = 'E';
+        if (scientific < 0) {
+            dst[pos++] = '-';
+            scientific = -scientific;
+        }
+        if (scientific >= 100) {
+            dst[pos++] = (byte) ('0' + scientific / 100);
+            scientific %= 100;
+            dst[pos++] = (byte) ('0' + scientific / 10);
+        } else if (scientific >= 10) {
+            dst[pos++] = (byte) ('0' + scientific / 10);
+        }
+        dst[pos++] = (byte) ('0' + scientific % 10);
+        return pos;
+    }
+
+    private static void writeDigits(long digits, int length, byte[] dst, int pos) {
+        for (int i = pos + length - 1; i >= pos; i--) {
+            long quotient = digits / 10;
+            dst[i] = (byte) ('0' + (digits - quotient * 10));
+            digits = quotient;
+        }
+    }
+
+    // Finds the shortest decimal digits * 10^exponent for a finite non-zero double and lays it out at dst[pos]
+    private static int shortest(int ieeeExponent, long ieeeMantissa, byte[] dst, int pos) {
+        int e2;
+        long m2;
+        if (ieeeExponent == 0) {
+            e2 = 1 - EXPONENT_BIAS - MANTISSA_BITS - 2;
+            m2 = ieeeMantissa;
+        } else {
+            e2 = ieeeExponent - EXPONENT_BIAS - MANTISSA_BITS - 2;
+            m2 = (1L << MANTISSA_BITS) | ieeeMantissa;
+            // Integers below 2^53 are their own shortest form, minus trailing zeros
+            int shift = -(e2 + 2);
+            if (shift >= 0 && shift <= MANTISSA_BITS && (m2 & ((1L << shift) - 1)) == 0) {
+                long integer = m2 >>> shift;
+                int zeros = 0;
+                while (integer % 10 == 0) {
+                    integer /= 10;
+                    zeros++;
+                }
+                return layout(integer, zeros, dst, pos);
+            }
+        }
+        boolean acceptBounds = (m2 & 1) == 0;
+        long mv = 4 * m2;
+        int mmShift = ieeeMantissa != 0 || ieeeExponent <= 1 ? 1 : 0;
+
+        // Step 3: the value and its interval bounds in decimal, vm < vr < vp
+        long vr;
+        long vp;
+        long vm;
+        int e10;
+        boolean vmIsTrailingZeros = false;
+        boolean vrIsTrailingZeros = false;
+        if (e2 >= 0) {
+            int q = log10Pow2(e2) - (e2 > 3 ? 1 : 0);
+            e10 = q;
+            int k = POW5_INV_BITCOUNT + pow5Bits(q) - 1;
+            int i = -e2 + q + k;
+            long[] table = Tables.POW5_INV;
+            long high = table[2 * q];
+            long low = table[2 * q + 1];
+            vr = mulShift(4 * m2, high, low, i);
+            vp = mulShift(4 * m2 + 2, high, low, i);
+            vm = mulShift(4 * m2 - 1 - mmShift, high, low, i);
+            if (q <= 21) {
+                // At most one of mv, mp and mm is a multiple of 5
+                if (mv % 5 == 0) {
+                    vrIsTrailingZeros = multipleOfPowerOf5(mv, q);
+                } else if (acceptBounds) {
+                    vmIsTrailingZeros = multipleOfPowerOf5(mv - 1 - mmShift, q);
+                } else if (multipleOfPowerOf5(mv + 2, q)) {
+                    vp--;
+                }
+            }
+        } else {
+            int q = log10Pow5(-e2) - (-e2 > 1 ? 1 : 0);
+            e10 = q + e2;
+            int i = -e2 - q;
+            int k = pow5Bits(i) - POW5_BITCOUNT;
+            int j = q - k;
+            long[] table = Tables.POW5;
+            long high = table[2 * i];
+            long low = table[2 * i + 1];
+            vr = mulShift(4 * m2, high, low, j);
+            vp = mulShift(4 * m2 + 2, high, low, j);
+            vm = mulShift(4 * m2 - 1 - mmShift, high, low, j);
+            if (q <= 1) {
+                // mv = 4 * m2 has at least two trailing zero bits
+                vrIsTrailingZeros = true;
+                if (acceptBounds) {
+                    vmIsTrailingZeros = mmShift == 1;
+                } else {
+                    vp--;
+                }
+            } else if (q < 63) {
+                vrIsTrailingZeros = (mv & ((1L << q) - 1)) == 0;
+            }
+        }
+
+        // Step 4: drop digits while the bounds still differ, rounding the value correctly
+        int removed = 0;
+        int lastRemovedDigit = 0;
+        long output;
+        if (vmIsTrailingZeros || vrIsTrailingZeros) {
+            // Rare: the exact value or the lower bound has trailing zeros, so ties and bounds need care
+            while (vp / 10 > vm / 10) {
+                vmIsTrailingZeros &= vm % 10 == 0;
+                vrIsTrailingZeros &= lastRemovedDigit == 0;
+                lastRemovedDigit = (int) (vr % 10);
+                vr /= 10;
+                vp /= 10;
+                vm /= 10;
+                removed++;
+            }
+            if (vmIsTrailingZeros) {
+                while (vm % 10 == 0) {
+                    vrIsTrailingZeros &= lastRemovedDigit == 0;
+                    lastRemovedDigit = (int) (vr % 10);
+                    vr /= 10;
+                    vp /= 10;
+                    vm /= 10;
+                    removed++;
+                }
+            }
+            if (vrIsTrailingZeros && lastRemovedDigit == 5 && vr % 2 == 0) {
+                // Exactly halfway: round to even
+                lastRemovedDigit = 4;
+            }
+            output = vr + ((vr == vm && (!acceptBounds || !vmIsTrailingZeros)) || lastRemovedDigit >= 5 ? 1 : 0);
+        } else {
+            boolean roundUp = false;
+            if (vp / 100 > vm / 100) {
+                roundUp = vr % 100 >= 50;
+                vr /= 100;
+                vp /= 100;
+                vm /= 100;
+                removed += 2;
+            }
+            while (vp / 10 > vm / 10) {
+                roundUp = vr % 10 >= 5;
+                vr /= 10;
+                vp /= 10;
+                vm /= 10;
+                removed++;
+            }
+            output = vr + (vr == vm || roundUp ? 1 : 0);
+        }
+        int exponent = e10 + removed;
+        if (output < 10 && ieeeExponent == 0) {
+            // One digit is enough only for the smallest subnormals, where Java takes the closest decimal of
+            // up to two digits instead (4.9E-324 rather than 5E-324)
+            BigDecimal closest = new BigDecimal(Double.longBitsToDouble(ieeeMantissa))
+                    .round(new MathContext(2, RoundingMode.HALF_EVEN));
+            long unscaled = closest.unscaledValue().longValueExact();
+            int scale = closest.scale();
+            while (unscaled % 10 == 0) {
+                unscaled /= 10;
+                scale--;
+            }
+            return layout(unscaled, -scale, dst, pos);
+        }
+        return layout(output, exponent, dst, pos);
+    }
+
+    // (m * (high:low)) >> shift, where high:low is a 125-bit factor and shift > 64
+    private static long mulShift(long m, long high, long low, int shift) {
+        long productHigh = Math.multiplyHigh(m, high);
+        long productLow = m * high;
+        long carryIn = NumberParser.unsignedMultiplyHigh(m, low);
+        long sum = productLow + carryIn;
+        if (Long.compareUnsigned(sum, productLow) < 0) {
+            productHigh++;
+        }
+        int s = shift - 64;
+        return (sum >>> s) | (productHigh << (64 - s));
+    }
+
+    private static int decimalLength(long v) {
+        int length = 1;
+        for (long bound = 10; length < 19 && v >= bound; bound *= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    // ceil(log2(5^e)) for e > 0, 1 for e = 0
+    private static int pow5Bits(int e) {
+        return ((e * 1217359) >>> 19) + 1;
+    }
+
+    private static int log10Pow2(int e) {
+        return (e * 78913) >>> 18;
+    }
+
+    private static int log10Pow5(int e) {
+        return (e * 732923) >>> 20;
+    }
+
+    private static boolean multipleOfPowerOf5(long value, int q) {
+        int count = 0;
+        while (value > 0 && value % 5 == 0) {
+            value /= 5;
+            count++;
+        }
+        return count >= q;
+    }
+
+    // Ryu's 125-bit powers of five, high word first, built on first use
+    private static final class Tables {
+        static final long[] POW5 = new long[2 * 326];
+        static final long[] POW5_INV = new long[2 * 342];
+
+        static {
+            BigInteger five = BigInteger.valueOf(5);
+            BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+            BigInteger power = BigInteger.ONE;
+            for (int i = 0; i < 342; i++, power = power.multiply(five)) {
+                int bits = power.bitLength();
+                if (i < 326) {
+                    // A negative shift is a left shift
+                    BigInteger top = power.shiftRight(bits - POW5_BITCOUNT);
+                    POW5[2 * i] = top.shiftRight(64).longValue();
+                    POW5[2 * i + 1] = top.and(mask).longValue();
+                }
+                BigInteger inverse = BigInteger.ONE.shiftLeft(bits - 1 + POW5_INV_BITCOUNT).divide(power).add(BigInteger.ONE);
+                POW5_INV[2 * i] = inverse.shiftRight(64).longValue();
+                POW5_INV[2 * i + 1] = inverse.and(mask).longValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.sidhdharth.calculator.codec;
+
+import com.sidhdharth.calculator.exception.InvalidInputException;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Parses decimal numbers straight from ASCII bytes or characters, giving exactly the double that
+ * Double.parseDouble gives. Numbers whose significand fits in 53 bits and whose decimal exponent is
+ * within +-22 are converted with one exact multiply or divide (Clinger's fast path). Other numbers
+ * go through the Eisel-Lemire algorithm: the first 19 significant digits are multiplied by a 128-bit
+ * approximation of the power of five, which decides the correctly rounded result for all but a tiny
+ * share of inputs. Those, and significands longer than 19 digits whose dropped digits could change
+ * the rounding, fall back to Double.parseDouble on a copy of the text.
+ */
+public final class NumberParser {
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_SIGNIFICAND = 1L << 53;
+    // Significant digits kept; 10^19 - 1 still fits in a long read as unsigned
+    private static final int MAX_DIGITS = 19;
+    private static final int SMALLEST_POWER = -342;
+    private static final int LARGEST_POWER = 308;
+    private static final long INFINITY_BITS = 0x7FF0000000000000L;
+
+    private NumberParser() {
+    }
+
+    // Length of the number starting at from, following [+-]digits[.digits][(e|E)[+-]digits]; 0 if none
+    public static int scan(ByteBuffer buf, int from, int to) {
+        int i = from;
+        if (i < to && (buf.get(i) == '+' || buf.get(i) == '-')) {
+            i++;
+        }
+        int digits = 0;
+        while (i < to && isDigit(buf.get(i))) {
+            i++;
+            digits++;
+        }
+        if (i < to && buf.get(i) == '.') {
+            i++;
+            while (i < to && isDigit(buf.get(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return 0;
+        }
+        if (i < to && (buf.get(i) == 'e' || buf.get(i) == 'E')) {
+            int exp = i + 1;
+            if (exp < to && (buf.get(exp) == '+' || buf.get(exp) == '-')) {
+                exp++;
+            }
+            if (exp < to && isDigit(buf.get(exp))) {
+                i = exp;
+                while (i < to && isDigit(buf.get(i))) {
+                    i++;
+                }
+            }
+        }
+        return i - from;
+    }
+
+    // Parses exactly the bytes in [from, to), which must be a number as accepted by scan
+    public static double parseDouble(ByteBuffer buf, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf.get(i) == '+' || buf.get(i) == '-')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+        while (i < to && isDigit(buf.get(i))) {
+            seenDigit = true;
+            if (digits < MAX_DIGITS) {
+                significand = significand * 10 + (buf.get(i) - '0');
+                if (significand != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+                digits++;
+            }
+            i++;
+        }
+        if (i < to && buf.get(i) == '.') {
+            i++;
+            while (i < to && isDigit(buf.get(i))) {
+                seenDigit = true;
+                if (digits < MAX_DIGITS) {
+                    significand = significand * 10 + (buf.get(i) - '0');
+                    if (significand != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                } else {
+                    digits++;
+                }
+                i++;
+            }
+        }
+        if (!seenDigit) {
+            throw invalid(buf, from, to);
+        }
+        if (i < to && (buf.get(i) == 'e' || buf.get(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (buf.get(i) == '+' || buf.get(i) == '-')) {
+                negativeExponent = buf.get(i) == '-';
+                i++;
+            }
+            if (i == to) {
+                throw invalid(buf, from, to);
+            }
+            int e = 0;
+            while (i < to && isDigit(buf.get(i))) {
+                if (e < 100_000) {
+                    e = e * 10 + (buf.get(i) - '0');
+                }
+                i++;
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != to) {
+            throw invalid(buf, from, to);
+        }
+        double value = toDouble(negative, significand, exponent, digits > MAX_DIGITS);
+        return value == value ? value : Double.parseDouble(ascii(buf, from, to));
+    }
+
+    // Length of the number starting at from, following [+-]digits[.digits][(e|E)[+-]digits]; 0 if none
+    public static int scan(CharSequence text, int from, int to) {
+        int i = from;
+        if (i < to && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+            i++;
+        }
+        int digits = 0;
+        while (i < to && isDigit(text.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < to && text.charAt(i) == '.') {
+            i++;
+            while (i < to && isDigit(text.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return 0;
+        }
+        if (i < to && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            int exp = i + 1;
+            if (exp < to && (text.charAt(exp) == '+' || text.charAt(exp) == '-')) {
+                exp++;
+            }
+            if (exp < to && isDigit(text.charAt(exp))) {
+                i = exp;
+                while (i < to && isDigit(text.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+        return i - from;
+    }
+
+    // Parses exactly the characters in [from, to), which must be a number as accepted by scan
+    private static double parseDecimal(CharSequence text, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+        while (i < to && isDigit(text.charAt(i))) {
+            seenDigit = true;
+            if (digits < MAX_DIGITS) {
+                significand = significand * 10 + (text.charAt(i) - '0');
+                if (significand != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+                digits++;
+            }
+            i++;
+        }
+        if (i < to && text.charAt(i) == '.') {
+            i++;
+            while (i < to && isDigit(text.charAt(i))) {
+                seenDigit = true;
+                if (digits < MAX_DIGITS) {
+                    significand = significand * 10 + (text.charAt(i) - '0');
+                    if (significand != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                } else {
+                    digits++;
+                }
+                i++;
+            }
+        }
+        if (!seenDigit) {
+            throw invalid(text, from, to);
+        }
+        if (i < to && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                negativeExponent = text.charAt(i) == '-';
+                i++;
+            }
+            if (i == to) {
+                throw invalid(text, from, to);
+            }
+            int e = 0;
+            while (i < to && isDigit(text.charAt(i))) {
+                if (e < 100_000) {
+                    e = e * 10 + (text.charAt(i) - '0');
+                }
+                i++;
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != to) {
+            throw invalid(text, from, to);
+        }
+        double value = toDouble(negative, significand, exponent, digits > MAX_DIGITS);
+        return value == value ? value : Double.parseDouble(text.subSequence(from, to).toString());
+    }
+
+    // Same result and exceptions as Double.parseDouble(text.toString()), without the copy for plain decimals
+    public static double parseDouble(CharSequence text) {
+        return parseDouble(text, 0, text.length());
+    }
+
+    // Same as parseDouble(text.subSequence(from, to))
+    public static double parseDouble(CharSequence text, int from, int to) {
+        while (from < to && text.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && text.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        if (to > from && scan(text, from, to) == to - from) {
+            return parseDecimal(text, from, to);
+        }
+        return Double.parseDouble(text.subSequence(from, to).toString());
+    }
+
+    /*
+     * significand * 10^exponent, correctly rounded, or NaN when that cannot be decided here. truncated
+     * means significant digits after the first MAX_DIGITS were dropped, so the true significand lies
+     * between significand and significand + 1; the result stands only if both ends round the same way.
+     */
+    static double toDouble(boolean negative, long significand, int exponent, boolean truncated) {
+        if (!truncated && significand >= 0 && significand < MAX_EXACT_SIGNIFICAND && exponent >= -22 && exponent <= 22) {
+            double value = significand;
+            value = exponent < 0 ? value / POWERS_OF_TEN[-exponent] : value * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+        long bits = eiselLemire(significand, exponent);
+        if (truncated && bits != eiselLemire(significand + 1, exponent)) {
+            return Double.NaN;
+        }
+        if (bits < 0) {
+            return Double.NaN;
+        }
+        double value = Double.longBitsToDouble(bits);
+        return negative ? -value : value;
+    }
+
+    // Bits of the positive double nearest w * 10^q, or -1 when the 128-bit product cannot decide the rounding
+    static long eiselLemire(long w, int q) {
+        if (w == 0 || q < SMALLEST_POWER) {
+            return 0;
+        }
+        if (q > LARGEST_POWER) {
+            return INFINITY_BITS;
+        }
+        int lz = Long.numberOfLeadingZeros(w);
+        w <<= lz;
+        long[] powers = PowersOfFive.TABLE;
+        int index = 2 * (q - SMALLEST_POWER);
+        long high = unsignedMultiplyHigh(w, powers[index]);
+        long low = w * powers[index];
+        // The low 9 bits of high are below the 55 we keep; all ones means the truncated factor may matter
+        if ((high & 0x1FF) == 0x1FF) {
+            long secondHigh = unsignedMultiplyHigh(w, powers[index + 1]);
+            long sum = low + secondHigh;
+            if (Long.compareUnsigned(secondHigh, sum) > 0) {
+                high++;
+            }
+            low = sum;
+        }
+        if (low == -1L && (q < -27 || q > 55)) {
+            return -1;
+        }
+        int upperBit = (int) (high >>> 63);
+        long mantissa = high >>> (upperBit + 9);
+        // floor(log2(10^q)) + 63, plus the exponent bias
+        int power2 = ((217706 * q) >> 16) + 63 + upperBit - lz + 1023;
+        if (power2 <= 0) {
+            // Subnormal, or zero once shifted below the smallest subnormal
+            if (-power2 + 1 >= 64) {
+                return 0;
+            }
+            mantissa >>>= -power2 + 1;
+            mantissa += mantissa & 1;
+            mantissa >>>= 1;
+            // Rounding up can carry into the smallest normal exponent
+            return mantissa | (mantissa < (1L << 52) ? 0 : 1L << 52);
+        }
+        // Exactly halfway between two doubles: round to even rather than up
+        if (Long.compareUnsigned(low, 1) <= 0 && q >= -4 && q <= 23 && (mantissa & 3) == 1
+                && (mantissa << (upperBit + 9)) == high) {
+            mantissa &= ~1L;
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (2L << 52)) {
+            mantissa = 1L << 52;
+            power2++;
+        }
+        mantissa &= ~(1L << 52);
+        if (power2 >= 0x7FF) {
+            return INFINITY_BITS;
+        }
+        return mantissa | (long) power2 << 52;
+    }
+
+    static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static String ascii(ByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buf.get(from, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static InvalidInputException invalid(ByteBuffer buf, int from, int to) {
+        return new InvalidInputException(ascii(buf, from, to));
+    }
+
+    private static InvalidInputException invalid(CharSequence text, int from, int to) {
+        return new InvalidInputException(text.subSequence(from, to).toString());
+    }
+
+    /*
+     * 5^q for q in [SMALLEST_POWER, LARGEST_POWER] as 128-bit values, high word first, scaled so the top
+     * bit is set: truncated for q >= 0, rounded up for q < 0. Built on first use, so inputs that stay on
+     * the fast path never pay for it.
+     */
+    private static final class PowersOfFive {
+        static final long[] TABLE = build();
+
+        private static long[] build() {
+            long[] table = new long[2 * (LARGEST_POWER - SMALLEST_POWER + 1)];
+            BigInteger five = BigInteger.valueOf(5);
+            for (int q = SMALLEST_POWER; q <= LARGEST_POWER; q++) {
+                BigInteger power = five.pow(Math.abs(q));
+                BigInteger scaled;
+                if (q >= 0) {
+                    int shift = 128 - power.bitLength();
+                    scaled = shift >= 0 ? power.shiftLeft(shift) : power.shiftRight(-shift);
+                } else {
+                    int z = power.bitLength();
+                    int b = q >= -27 ? z + 127 : 2 * z + 128;
+                    scaled = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+                    scaled = scaled.shiftRight(Math.max(0, scaled.bitLength() - 128));
+                }
+                table[2 * (q - SMALLEST_POWER)] = scaled.shiftRight(64).longValue();
+                table[2 * (q - SMALLEST_POWER) + 1] = scaled.longValue();
+            }
+            return table;
+        }
+    }
+}
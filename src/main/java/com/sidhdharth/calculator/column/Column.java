@@ -0,0 +1,264 @@
+package com.sidhdharth.calculator.column;
+
+import com.sidhdharth.calculator.exception.InvalidInputException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * One column of 8-byte values in a memory-mapped file. The values never live on the heap: reads and
+ * writes go straight to the mapping. Files larger than a single ByteBuffer can address are mapped in
+ * chunks of chunkRows values.
+ *
+ * File format, all numbers little-endian:
+ *
+ *   offset 0   8 bytes  magic "CALCCOL1"
+ *   offset 8   int      format version, 1
+ *   offset 12  int      ColumnType id
+ *   offset 16  long     row count
+ *   offset 24  40 bytes reserved, zero
+ *   offset 64  null bitmap, one bit per row in 64-bit words (bit r % 64 of word r / 64), set means null
+ *   then       row count values, 8 bytes each, FLOAT64 as IEEE 754 doubles and INT64 as two's complement
+ *
+ * Null rows still have a value slot; the evaluator writes NaN there. Writers on different threads must
+ * work on different 64-row blocks, because a null bit is updated as part of its whole word.
+ * Mappings are released by the garbage collector, so close() only flushes.
+ */
+public final class Column implements Closeable {
+
+    public static final int HEADER_SIZE = 64;
+    public static final int VERSION = 1;
+    // 1 GiB of values per mapping
+    public static final int DEFAULT_CHUNK_ROWS = 1 << 27;
+    private static final byte[] MAGIC = "CALCCOL1".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path file;
+    private final ColumnType type;
+    private final long rows;
+    private final int chunkRows;
+    private final int chunkShift;
+    private final boolean writable;
+    private final ByteBuffer bitmap;
+    private final ByteBuffer[] chunks;
+
+    private Column(Path file, FileChannel channel, ColumnType type, long rows, int chunkRows, boolean writable)
+            throws IOException {
+        this.file = file;
+        this.type = type;
+        this.rows = rows;
+        this.chunkRows = chunkRows;
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkRows);
+        this.writable = writable;
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        long bitmapBytes = bitmapBytes(rows);
+        this.bitmap = channel.map(mode, HEADER_SIZE, bitmapBytes).order(ByteOrder.LITTLE_ENDIAN);
+        long dataOffset = HEADER_SIZE + bitmapBytes;
+        this.chunks = new ByteBuffer[(int) ((rows + chunkRows - 1) / chunkRows)];
+        for (int c = 0; c < chunks.length; c++) {
+            long first = (long) c * chunkRows;
+            long count = Math.min(chunkRows, rows - first);
+            chunks[c] = channel.map(mode, dataOffset + first * Long.BYTES, count * Long.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    public static Column create(Path file, ColumnType type, long rows) throws IOException {
+        return create(file, type, rows, DEFAULT_CHUNK_ROWS);
+    }
+
+    // chunkRows must be a power of two of at least 64, so that chunks never share a bitmap word
+    static Column create(Path file, ColumnType type, long rows, int chunkRows) throws IOException {
+        checkLayout(rows, chunkRows);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC).putInt(VERSION).putInt(type.id()).putLong(rows).position(HEADER_SIZE).flip();
+            channel.write(header, 0);
+            // Extending the file leaves the bitmap zeroed, so every row starts out non-null with value 0
+            long size = HEADER_SIZE + bitmapBytes(rows) + rows * Long.BYTES;
+            channel.write(ByteBuffer.allocate(1), size - 1);
+            return new Column(file, channel, type, rows, chunkRows, true);
+        }
+    }
+
+    public static Column open(Path file, boolean writable) throws IOException {
+        return open(file, writable, DEFAULT_CHUNK_ROWS);
+    }
+
+    static Column open(Path file, boolean writable, int chunkRows) throws IOException {
+        try (FileChannel channel = writable
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // read the whole header
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE) {
+                throw new InvalidInputException("not a column file: " + file);
+            }
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC) || header.getInt() != VERSION) {
+                throw new InvalidInputException("not a column file: " + file);
+            }
+            ColumnType type = ColumnType.fromId(header.getInt());
+            long rows = header.getLong();
+            checkLayout(rows, chunkRows);
+            if (channel.size() < HEADER_SIZE + bitmapBytes(rows) + rows * Long.BYTES) {
+                throw new InvalidInputException("truncated column file: " + file);
+            }
+            return new Column(file, channel, type, rows, chunkRows, writable);
+        }
+    }
+
+    private static void checkLayout(long rows, int chunkRows) {
+        if (rows < 0 || bitmapBytes(rows) > Integer.MAX_VALUE) {
+            throw new InvalidInputException("row count " + rows);
+        }
+        if (chunkRows < Long.SIZE || Integer.bitCount(chunkRows) != 1) {
+            throw new InvalidInputException("chunk rows " + chunkRows);
+        }
+    }
+
+    private static long bitmapBytes(long rows) {
+        return (rows + Long.SIZE - 1) / Long.SIZE * Long.BYTES;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public ColumnType type() {
+        return type;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public double get(long row) {
+        checkRow(row);
+        return valueAt(chunks[(int) (row >>> chunkShift)], (int) (row & (chunkRows - 1)));
+    }
+
+    public long getLong(long row) {
+        checkRow(row);
+        ByteBuffer chunk = chunks[(int) (row >>> chunkShift)];
+        int index = (int) (row & (chunkRows - 1)) << 3;
+        return type == ColumnType.INT64 ? chunk.getLong(index) : (long) chunk.getDouble(index);
+    }
+
+    public void set(long row, double value) {
+        checkRow(row);
+        putValue(chunks[(int) (row >>> chunkShift)], (int) (row & (chunkRows - 1)), value);
+        setNull(row, false);
+    }
+
+    public void setLong(long row, long value) {
+        checkRow(row);
+        ByteBuffer chunk = chunks[(int) (row >>> chunkShift)];
+        int index = (int) (row & (chunkRows - 1)) << 3;
+        if (type == ColumnType.INT64) {
+            chunk.putLong(index, value);
+        } else {
+            chunk.putDouble(index, value);
+        }
+        setNull(row, false);
+    }
+
+    public boolean isNull(long row) {
+        checkRow(row);
+        return (nullWord(row >>> 6) >>> (row & 63) & 1) != 0;
+    }
+
+    public void setNull(long row, boolean isNull) {
+        checkRow(row);
+        long word = nullWord(row >>> 6);
+        long bit = 1L << (row & 63);
+        setNullWord(row >>> 6, isNull ? word | bit : word & ~bit);
+    }
+
+    // Streams over the mapping one chunk at a time; nothing is copied to the heap
+    public ColumnSummary summarize() {
+        long count = 0;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (long word = 0; word < bitmapBytes(rows) / Long.BYTES; word++) {
+            long nulls = nullWord(word);
+            long end = Math.min(rows, (word + 1) << 6);
+            for (long row = word << 6; row < end; row++) {
+                if ((nulls >>> (row & 63) & 1) == 0) {
+                    double value = valueAt(chunks[(int) (row >>> chunkShift)], (int) (row & (chunkRows - 1)));
+                    count++;
+                    sum += value;
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+            }
+        }
+        return count == 0 ? new ColumnSummary(0, 0, Double.NaN, Double.NaN) : new ColumnSummary(count, sum, min, max);
+    }
+
+    public void force() {
+        if (!writable) {
+            return;
+        }
+        ((MappedByteBuffer) bitmap).force();
+        for (ByteBuffer chunk : chunks) {
+            ((MappedByteBuffer) chunk).force();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    int chunkRows() {
+        return chunkRows;
+    }
+
+    int chunkCount() {
+        return chunks.length;
+    }
+
+    ByteBuffer chunk(int index) {
+        return chunks[index];
+    }
+
+    double valueAt(ByteBuffer chunk, int index) {
+        return type == ColumnType.FLOAT64 ? chunk.getDouble(index << 3) : chunk.getLong(index << 3);
+    }
+
+    void putValue(ByteBuffer chunk, int index, double value) {
+        if (type == ColumnType.FLOAT64) {
+            chunk.putDouble(index << 3, value);
+        } else {
+            chunk.putLong(index << 3, (long) value);
+        }
+    }
+
+    long nullWord(long word) {
+        return bitmap.getLong((int) word << 3);
+    }
+
+    void setNullWord(long word, long nulls) {
+        bitmap.putLong((int) word << 3, nulls);
+    }
+
+    private void checkRow(long row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + rows);
+        }
+    }
+}
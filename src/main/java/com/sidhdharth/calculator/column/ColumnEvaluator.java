@@ -0,0 +1,108 @@
+package com.sidhdharth.calculator.column;
+
+import com.sidhdharth.calculator.api.ZeroDivisorPolicy;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.exception.ModuloByZeroException;
+import com.sidhdharth.calculator.operation.OperationType;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+/*
+ * Applies an OperationType column against column or column against scalar, writing into a FLOAT64 output
+ * column of the same length. Values are read from and written to the mappings directly, one chunk per
+ * parallel task. A row is null in the output when it is null in either input, and its value slot is NaN.
+ * Zero divisors follow the same ZeroDivisorPolicy as Calculator.calculateBatch; THROW scans the divisors
+ * first, so a rejected evaluation writes nothing. Only the built-in operations are accepted: they cannot fail
+ * once the divisors are checked, so an evaluation never stops with the output column half-written.
+ */
+public final class ColumnEvaluator {
+
+    private ColumnEvaluator() {
+    }
+
+    public static void evaluate(OperationType op, Column num1, Column num2, Column out, ZeroDivisorPolicy policy) {
+        run(op, num1, 0, num2, 0, out, policy);
+    }
+
+    public static void evaluate(OperationType op, Column num1, double num2, Column out, ZeroDivisorPolicy policy) {
+        run(op, num1, 0, null, num2, out, policy);
+    }
+
+    public static void evaluate(OperationType op, double num1, Column num2, Column out, ZeroDivisorPolicy policy) {
+        run(op, null, num1, num2, 0, out, policy);
+    }
+
+    private static void run(OperationType op, Column a, double as, Column b, double bs, Column out,
+                            ZeroDivisorPolicy policy) {
+        check(a, out);
+        check(b, out);
+        if (out.type() != ColumnType.FLOAT64) {
+            throw new InvalidInputException("output column must be " + ColumnType.FLOAT64 + ", was " + out.type());
+        }
+        if (policy == ZeroDivisorPolicy.THROW && isDivision(op)) {
+            checkDivisors(op, b, bs);
+        }
+        IntStream.range(0, out.chunkCount()).parallel()
+                .forEach(c -> evaluateChunk(op, a, as, b, bs, out, policy, c));
+    }
+
+    private static void check(Column column, Column out) {
+        if (column != null && (column.rows() != out.rows() || column.chunkRows() != out.chunkRows())) {
+            throw new InvalidInputException("column of " + column.rows() + " rows, output of " + out.rows());
+        }
+    }
+
+    private static boolean isDivision(OperationType op) {
+        return op == OperationType.DIVIDE || op == OperationType.MODULO;
+    }
+
+    private static void checkDivisors(OperationType op, Column b, double bs) {
+        boolean zero;
+        if (b == null) {
+            zero = bs == 0;
+        } else {
+            zero = false;
+            for (long row = 0; row < b.rows() && !zero; row++) {
+                zero = b.get(row) == 0 && !b.isNull(row);
+            }
+        }
+        if (zero) {
+            throw op == OperationType.DIVIDE ? new DivisionByZeroException() : new ModuloByZeroException();
+        }
+    }
+
+    private static void evaluateChunk(OperationType op, Column a, double as, Column b, double bs, Column out,
+                                      ZeroDivisorPolicy policy, int c) {
+        ByteBuffer ac = a == null ? null : a.chunk(c);
+        ByteBuffer bc = b == null ? null : b.chunk(c);
+        ByteBuffer oc = out.chunk(c);
+        boolean division = isDivision(op);
+        long first = (long) c * out.chunkRows();
+        long last = Math.min(out.rows(), first + out.chunkRows());
+        for (long word = first >>> 6; word << 6 < last; word++) {
+            long nulls = (a == null ? 0 : a.nullWord(word)) | (b == null ? 0 : b.nullWord(word));
+            out.setNullWord(word, nulls);
+            int from = (int) ((word << 6) - first);
+            int to = (int) (Math.min(last, (word + 1) << 6) - first);
+            for (int i = from; i < to; i++) {
+                double result;
+                if ((nulls >>> (i & 63) & 1) != 0) {
+                    result = Double.NaN;
+                } else {
+                    double x = ac == null ? as : a.valueAt(ac, i);
+                    double y = bc == null ? bs : b.valueAt(bc, i);
+                    result = division && y == 0 && policy != ZeroDivisorPolicy.THROW
+                            ? zeroDivisor(op, x, y, policy)
+                            : op.applyAsDouble(x, y);
+                }
+                out.putValue(oc, i, result);
+            }
+        }
+    }
+
+    private static double zeroDivisor(OperationType op, double x, double y, ZeroDivisorPolicy policy) {
+        return policy == ZeroDivisorPolicy.IEEE && op == OperationType.DIVIDE ? x / y : Double.NaN;
+    }
+}
@@ -0,0 +1,68 @@
+package com.sidhdharth.calculator.column;
+
+import com.sidhdharth.calculator.exception.InvalidInputException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+// A directory of named columns, one "<name>.col" file each, opened on first use and kept open
+public class ColumnStore implements Closeable {
+
+    public static final String EXTENSION = ".col";
+
+    private final Path directory;
+    private final Map<String, Column> open = new HashMap<>();
+
+    public ColumnStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    public synchronized Column create(String name, ColumnType type, long rows) throws IOException {
+        Column column = Column.create(file(name), type, rows);
+        open.put(name, column);
+        return column;
+    }
+
+    public synchronized Column column(String name) throws IOException {
+        Column column = open.get(name);
+        if (column == null) {
+            Path file = file(name);
+            if (!Files.exists(file)) {
+                throw new InvalidInputException("no column " + name);
+            }
+            column = Column.open(file, true);
+            open.put(name, column);
+        }
+        return column;
+    }
+
+    public Set<String> names() throws IOException {
+        Set<String> names = new TreeSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(EXTENSION))
+                    .forEach(name -> names.add(name.substring(0, name.length() - EXTENSION.length())));
+        }
+        return names;
+    }
+
+    private Path file(String name) {
+        if (name.isEmpty() || name.contains("/") || name.contains("\\") || name.startsWith(".")) {
+            throw new InvalidInputException("column name " + name);
+        }
+        return directory.resolve(name + EXTENSION);
+    }
+
+    @Override
+    public synchronized void close() {
+        open.values().forEach(Column::close);
+        open.clear();
+    }
+}
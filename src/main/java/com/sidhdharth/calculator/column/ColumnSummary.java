@@ -0,0 +1,9 @@
+package com.sidhdharth.calculator.column;
+
+// Aggregates over the non-null rows of a column; min and max are NaN when count is 0
+public record ColumnSummary(long count, double sum, double min, double max) {
+
+    public double mean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+}
@@ -0,0 +1,28 @@
+package com.sidhdharth.calculator.column;
+
+import com.sidhdharth.calculator.exception.InvalidInputException;
+
+// Value types a column file can hold; both are 8 bytes wide and read as double for arithmetic
+public enum ColumnType {
+    FLOAT64(1),
+    INT64(2);
+
+    private final int id;
+
+    ColumnType(int id) {
+        this.id = id;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public static ColumnType fromId(int id) {
+        for (ColumnType type : values()) {
+            if (type.id == id) {
+                return type;
+            }
+        }
+        throw new InvalidInputException("column type " + id);
+    }
+}
@@ -1,10 +1,32 @@
 package com.sidhdharth.calculator.config;
 
 import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.async.AsyncCalculator;
+import com.sidhdharth.calculator.api.ErrorPolicy;
 import com.sidhdharth.calculator.core.CalculatorImpl;
+import com.sidhdharth.calculator.fixed.FixedPointCalculator;
+import com.sidhdharth.calculator.metrics.InstrumentedCalculator;
+
+import java.math.RoundingMode;
 
 public class CalculatorConfig {
     public static Calculator createCalculator(){
         return new CalculatorImpl();
     }
+
+    public static Calculator createCalculator(ErrorPolicy errorPolicy) {
+        return new CalculatorImpl(errorPolicy);
+    }
+
+    public static AsyncCalculator createAsyncCalculator(ErrorPolicy errorPolicy) {
+        return new AsyncCalculator(new CalculatorImpl(errorPolicy));
+    }
+
+    public static FixedPointCalculator createFixedPointCalculator(int scale, RoundingMode rounding) {
+        return new FixedPointCalculator(scale, rounding);
+    }
+
+    public static InstrumentedCalculator createInstrumentedCalculator(ErrorPolicy errorPolicy) {
+        return new InstrumentedCalculator(new CalculatorImpl(errorPolicy));
+    }
 }
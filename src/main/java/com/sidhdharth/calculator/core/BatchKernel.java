@@ -0,0 +1,292 @@
+package com.sidhdharth.calculator.core;
+
+import com.sidhdharth.calculator.api.ResultCode;
+import com.sidhdharth.calculator.api.ZeroDivisorPolicy;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.ModuloByZeroException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationType;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Array kernels behind Calculator.calculateBatch. Each OperationType gets its own counted loop over
+ * primitive arrays so C2 can unroll and auto-vectorize it. Adding 0.0 turns -0.0 into 0.0 without a
+ * branch, which is the same normalization OperationType applies to ADD and MODULO. Under
+ * ErrorPolicy.RESULT_CODE a range holding an error code is evaluated element by element instead, so the
+ * first error code is copied to the result explicitly rather than trusted to survive the arithmetic as a
+ * NaN payload. Other policies have no error codes to keep, so they skip that scan and make one pass.
+ * Operations outside OperationType may throw part way through a range, so they write to a scratch array
+ * that is copied to out only once every element succeeded; a failed batch leaves out as it was.
+ */
+final class BatchKernel {
+
+    // Below this many elements splitting costs more than it saves
+    static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private BatchKernel() {
+    }
+
+    // errorCodes: operands may hold ErrorPolicy.RESULT_CODE errors that must reach out unchanged
+    static void run(Operation op, double[] a, double as, double[] b, double bs, double[] out,
+                    ZeroDivisorPolicy policy, boolean errorCodes) {
+        if (policy == ZeroDivisorPolicy.THROW) {
+            checkDivisors(op, b, bs);
+        }
+        if (!(op instanceof OperationType)) {
+            double[] scratch = new double[out.length];
+            split(op, a, as, b, bs, scratch, policy, errorCodes);
+            System.arraycopy(scratch, 0, out, 0, out.length);
+        } else {
+            split(op, a, as, b, bs, out, policy, errorCodes);
+        }
+    }
+
+    private static void split(Operation op, double[] a, double as, double[] b, double bs, double[] out,
+                              ZeroDivisorPolicy policy, boolean errorCodes) {
+        if (out.length > PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new Task(op, a, as, b, bs, out, policy, errorCodes, 0, out.length));
+        } else {
+            apply(op, a, as, b, bs, out, policy, errorCodes, 0, out.length);
+        }
+    }
+
+    private static void checkDivisors(Operation op, double[] b, double bs) {
+        if (op != OperationType.DIVIDE && op != OperationType.MODULO) {
+            return;
+        }
+        boolean zero = b == null ? bs == 0 : containsZero(b);
+        if (zero) {
+            throw op == OperationType.DIVIDE ? new DivisionByZeroException() : new ModuloByZeroException();
+        }
+    }
+
+    private static boolean containsZero(double[] values) {
+        for (double value : values) {
+            if (value == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void apply(Operation op, double[] a, double as, double[] b, double bs, double[] out,
+                              ZeroDivisorPolicy policy, boolean errorCodes, int from, int to) {
+        if (!(op instanceof OperationType type)
+                || errorCodes && (containsError(a, as, from, to) || containsError(b, bs, from, to))) {
+            elementwise(op, a, as, b, bs, out, policy, errorCodes, from, to);
+        } else if (a != null && b != null) {
+            arrayArray(type, a, b, out, policy, from, to);
+        } else if (a != null) {
+            arrayScalar(type, a, bs, out, policy, from, to);
+        } else {
+            scalarArray(type, as, b, out, policy, from, to);
+        }
+    }
+
+    private static void arrayArray(OperationType op, double[] a, double[] b, double[] out,
+                                   ZeroDivisorPolicy policy, int from, int to) {
+        switch (op) {
+            case ADD -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] + b[i] + 0.0;
+                }
+            }
+            case SUBTRACT -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] - b[i];
+                }
+            }
+            case MULTIPLY -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] * b[i];
+                }
+            }
+            case DIVIDE -> {
+                if (policy == ZeroDivisorPolicy.NAN) {
+                    for (int i = from; i < to; i++) {
+                        out[i] = b[i] == 0 ? Double.NaN : a[i] / b[i];
+                    }
+                } else {
+                    for (int i = from; i < to; i++) {
+                        out[i] = a[i] / b[i];
+                    }
+                }
+            }
+            case MODULO -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] % b[i] + 0.0;
+                }
+            }
+        }
+    }
+
+    private static void arrayScalar(OperationType op, double[] a, double b, double[] out,
+                                    ZeroDivisorPolicy policy, int from, int to) {
+        switch (op) {
+            case ADD -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] + b + 0.0;
+                }
+            }
+            case SUBTRACT -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] - b;
+                }
+            }
+            case MULTIPLY -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] * b;
+                }
+            }
+            case DIVIDE -> {
+                if (b == 0 && policy == ZeroDivisorPolicy.NAN) {
+                    fillNaN(out, from, to);
+                } else {
+                    for (int i = from; i < to; i++) {
+                        out[i] = a[i] / b;
+                    }
+                }
+            }
+            case MODULO -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a[i] % b + 0.0;
+                }
+            }
+        }
+    }
+
+    private static void scalarArray(OperationType op, double a, double[] b, double[] out,
+                                    ZeroDivisorPolicy policy, int from, int to) {
+        switch (op) {
+            case ADD -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a + b[i] + 0.0;
+                }
+            }
+            case SUBTRACT -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a - b[i];
+                }
+            }
+            case MULTIPLY -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a * b[i];
+                }
+            }
+            case DIVIDE -> {
+                if (policy == ZeroDivisorPolicy.NAN) {
+                    for (int i = from; i < to; i++) {
+                        out[i] = b[i] == 0 ? Double.NaN : a / b[i];
+                    }
+                } else {
+                    for (int i = from; i < to; i++) {
+                        out[i] = a / b[i];
+                    }
+                }
+            }
+            case MODULO -> {
+                for (int i = from; i < to; i++) {
+                    out[i] = a % b[i] + 0.0;
+                }
+            }
+        }
+    }
+
+    private static boolean containsError(double[] values, double scalar, int from, int to) {
+        if (values == null) {
+            return ResultCode.isError(scalar);
+        }
+        for (int i = from; i < to; i++) {
+            if (ResultCode.isError(values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Operations outside OperationType and ranges holding error codes: one element at a time
+    private static void elementwise(Operation op, double[] a, double as, double[] b, double bs, double[] out,
+                                    ZeroDivisorPolicy policy, boolean errorCodes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double x = a == null ? as : a[i];
+            double y = b == null ? bs : b[i];
+            if (errorCodes && ResultCode.isError(x)) {
+                out[i] = x;
+            } else if (errorCodes && ResultCode.isError(y)) {
+                out[i] = y;
+            } else if (op instanceof OperationType type) {
+                out[i] = apply(type, x, y, policy);
+            } else {
+                out[i] = generic(op, x, y, policy);
+            }
+        }
+    }
+
+    private static double apply(OperationType op, double x, double y, ZeroDivisorPolicy policy) {
+        return switch (op) {
+            case ADD -> x + y + 0.0;
+            case SUBTRACT -> x - y;
+            case MULTIPLY -> x * y;
+            case DIVIDE -> y == 0 && policy == ZeroDivisorPolicy.NAN ? Double.NaN : x / y;
+            case MODULO -> x % y + 0.0;
+        };
+    }
+
+    // A zero divisor becomes NaN unless THROW
+    private static double generic(Operation op, double x, double y, ZeroDivisorPolicy policy) {
+        try {
+            return op.applyAsDouble(x, y);
+        } catch (DivisionByZeroException | ModuloByZeroException e) {
+            if (policy == ZeroDivisorPolicy.THROW) {
+                throw e;
+            }
+            return Double.NaN;
+        }
+    }
+
+    private static void fillNaN(double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = Double.NaN;
+        }
+    }
+
+    private static final class Task extends RecursiveAction {
+        private final Operation op;
+        private final double[] a;
+        private final double as;
+        private final double[] b;
+        private final double bs;
+        private final double[] out;
+        private final ZeroDivisorPolicy policy;
+        private final boolean errorCodes;
+        private final int from;
+        private final int to;
+
+        Task(Operation op, double[] a, double as, double[] b, double bs, double[] out,
+             ZeroDivisorPolicy policy, boolean errorCodes, int from, int to) {
+            this.op = op;
+            this.a = a;
+            this.as = as;
+            this.b = b;
+            this.bs = bs;
+            this.out = out;
+            this.policy = policy;
+            this.errorCodes = errorCodes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                apply(op, a, as, b, bs, out, policy, errorCodes, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Task(op, a, as, b, bs, out, policy, errorCodes, from, mid),
+                    new Task(op, a, as, b, bs, out, policy, errorCodes, mid, to));
+        }
+    }
+}
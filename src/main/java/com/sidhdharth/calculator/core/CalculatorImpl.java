@@ -1,26 +1,223 @@
 package com.sidhdharth.calculator.core;
 
 import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.api.ErrorCode;
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.api.ResultCode;
+import com.sidhdharth.calculator.api.ZeroDivisorPolicy;
+import com.sidhdharth.calculator.chain.FoldingMode;
+import com.sidhdharth.calculator.chain.LazyOperationChain;
 import com.sidhdharth.calculator.chain.OperationChain;
 import com.sidhdharth.calculator.chain.OperationChainBuilder;
+import com.sidhdharth.calculator.exception.CalculatorException;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.exception.ModuloByZeroException;
 import com.sidhdharth.calculator.exception.NullOperandException;
+import com.sidhdharth.calculator.exception.PreallocatedExceptions;
+import com.sidhdharth.calculator.jfr.CalculateEvent;
 import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationType;
 
 public class CalculatorImpl implements Calculator {
+    private final ErrorPolicy errorPolicy;
+
+    public CalculatorImpl() {
+        this(ErrorPolicy.THROW);
+    }
+
+    public CalculatorImpl(ErrorPolicy errorPolicy) {
+        if (errorPolicy == null) {
+            throw new NullOperandException();
+        }
+        this.errorPolicy = errorPolicy;
+    }
+
+    public ErrorPolicy errorPolicy() {
+        return errorPolicy;
+    }
 
     @Override
     public Number calculate(Operation op, Number num1, Number num2) {
+        CalculateEvent event = new CalculateEvent();
+        if (!event.isEnabled()) {
+            return compute(op, num1, num2);
+        }
+        event.begin();
+        RuntimeException failure = null;
+        try {
+            return compute(op, num1, num2);
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.set(op, failure);
+                event.commit();
+            }
+        }
+    }
+
+    private Number compute(Operation op, Number num1, Number num2) {
         if (op == null || num1 == null || num2 == null) {
+            if (errorPolicy == ErrorPolicy.RESULT_CODE && num1 != null && ResultCode.isError(num1.doubleValue())) {
+                return num1;
+            }
+            return nullOperand();
+        }
+        if (errorPolicy == ErrorPolicy.THROW) {
+            return op.apply(num1, num2);
+        }
+        if (errorPolicy == ErrorPolicy.RESULT_CODE && (ResultCode.isError(num1.doubleValue())
+                || ResultCode.isError(num2.doubleValue()))) {
+            return ResultCode.isError(num1.doubleValue()) ? num1 : num2;
+        }
+        if (isZeroDivisor(op, num2.doubleValue())) {
+            return zeroDivisor(op, num1.doubleValue(), num2.doubleValue());
+        }
+        try {
+            return op.apply(num1, num2);
+        } catch (CalculatorException e) {
+            return failed(e);
+        }
+    }
+
+    @Override
+    public double calculateAsDouble(Operation op, double num1, double num2) {
+        CalculateEvent event = new CalculateEvent();
+        if (!event.isEnabled()) {
+            return computeAsDouble(op, num1, num2);
+        }
+        event.begin();
+        RuntimeException failure = null;
+        try {
+            return computeAsDouble(op, num1, num2);
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.set(op, failure);
+                event.commit();
+            }
+        }
+    }
+
+    private double computeAsDouble(Operation op, double num1, double num2) {
+        if (op == null) {
+            return nullOperand();
+        }
+        if (errorPolicy == ErrorPolicy.THROW) {
+            return op.applyAsDouble(num1, num2);
+        }
+        // An error code stays the result of every later step, even a zero divisor, so a chain reports its first failure
+        if (errorPolicy == ErrorPolicy.RESULT_CODE && (ResultCode.isError(num1) || ResultCode.isError(num2))) {
+            return ResultCode.isError(num1) ? num1 : num2;
+        }
+        if (isZeroDivisor(op, num2)) {
+            return zeroDivisor(op, num1, num2);
+        }
+        try {
+            return op.applyAsDouble(num1, num2);
+        } catch (CalculatorException e) {
+            return failed(e);
+        }
+    }
+
+    private static boolean isZeroDivisor(Operation op, double divisor) {
+        return divisor == 0 && (op == OperationType.DIVIDE || op == OperationType.MODULO);
+    }
+
+    private double zeroDivisor(Operation op, double num1, double num2) {
+        boolean divide = op == OperationType.DIVIDE;
+        return switch (errorPolicy) {
+            case IEEE -> divide ? num1 / num2 : Double.NaN;
+            case RESULT_CODE -> ResultCode.error(divide ? ErrorCode.DIVISION_BY_ZERO : ErrorCode.MODULO_BY_ZERO);
+            case STACKLESS -> throw divide
+                    ? PreallocatedExceptions.DIVISION_BY_ZERO
+                    : PreallocatedExceptions.MODULO_BY_ZERO;
+            case THROW -> op.applyAsDouble(num1, num2);
+        };
+    }
+
+    private double nullOperand() {
+        return switch (errorPolicy) {
+            case THROW -> throw new NullOperandException();
+            case STACKLESS -> throw PreallocatedExceptions.NULL_OPERAND;
+            case IEEE -> Double.NaN;
+            case RESULT_CODE -> ResultCode.error(ErrorCode.NULL_OPERAND);
+        };
+    }
+
+    // Failures raised by operations outside OperationType, translated to the policy where it has an equivalent
+    private double failed(CalculatorException e) {
+        ErrorCode code = e instanceof DivisionByZeroException ? ErrorCode.DIVISION_BY_ZERO
+                : e instanceof ModuloByZeroException ? ErrorCode.MODULO_BY_ZERO
+                : e instanceof NullOperandException ? ErrorCode.NULL_OPERAND
+                : null;
+        if (code == null || errorPolicy == ErrorPolicy.THROW || errorPolicy == ErrorPolicy.STACKLESS) {
+            throw e;
+        }
+        return errorPolicy == ErrorPolicy.IEEE ? Double.NaN : ResultCode.error(code);
+    }
+
+    @Override
+    public void calculateBatch(Operation op, double[] num1, double[] num2, double[] out, ZeroDivisorPolicy policy) {
+        if (num1 == null || num2 == null) {
             throw new NullOperandException();
         }
-        return op.apply(num1, num2);
+        checkBatch(op, out, policy, num1.length, num2.length);
+        BatchKernel.run(op, num1, 0, num2, 0, out, policy, errorPolicy == ErrorPolicy.RESULT_CODE);
+    }
+
+    @Override
+    public void calculateBatch(Operation op, double[] num1, double num2, double[] out, ZeroDivisorPolicy policy) {
+        if (num1 == null) {
+            throw new NullOperandException();
+        }
+        checkBatch(op, out, policy, num1.length, num1.length);
+        BatchKernel.run(op, num1, 0, null, num2, out, policy, errorPolicy == ErrorPolicy.RESULT_CODE);
+    }
+
+    @Override
+    public void calculateBatch(Operation op, double num1, double[] num2, double[] out, ZeroDivisorPolicy policy) {
+        if (num2 == null) {
+            throw new NullOperandException();
+        }
+        checkBatch(op, out, policy, num2.length, num2.length);
+        BatchKernel.run(op, null, num1, num2, 0, out, policy, errorPolicy == ErrorPolicy.RESULT_CODE);
+    }
+
+    private static void checkBatch(Operation op, double[] out, ZeroDivisorPolicy policy, int length1, int length2) {
+        if (op == null || out == null || policy == null) {
+            throw new NullOperandException();
+        }
+        if (length1 != out.length || length2 != out.length) {
+            throw new InvalidInputException("operand arrays of length " + length1 + " and " + length2
+                    + " do not match output length " + out.length);
+        }
     }
 
     @Override
     public OperationChainBuilder start(Number initialValue) {
         if (initialValue == null) {
-            throw new NullOperandException();
+            return new OperationChain(nullOperand(), this);
         }
         return new OperationChain(initialValue, this);
     }
+
+    @Override
+    public OperationChainBuilder start(double initialValue) {
+        return new OperationChain(initialValue, this);
+    }
+
+    @Override
+    public LazyOperationChain startLazy(double initialValue, FoldingMode mode) {
+        if (mode == null) {
+            throw new NullOperandException();
+        }
+        return new LazyOperationChain(initialValue, this, mode);
+    }
 }
@@ -0,0 +1,334 @@
+package com.sidhdharth.calculator.core;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationType;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/*
+ * Runs "seed op x1 op x2 op ..." over a whole operand sequence, as an OperationChain would, but in parallel
+ * where the grouping can be changed:
+ *
+ *   ADD        seed + (x1 + x2 + ...)   compensated sums, combined pairwise across fork-join tasks
+ *   SUBTRACT   seed - (x1 + x2 + ...)   rewritten onto the same sum; a zero result takes the chain's sign
+ *   MULTIPLY   seed * (x1 * x2 * ...)   running products, combined pairwise
+ *   DIVIDE     seed / (x1 * x2 * ...)   the same products
+ *   MODULO and operations outside OperationType run sequentially through the calculator.
+ *
+ * Rewritten results agree with the sequential chain to within rounding, and sums are usually more accurate.
+ * They are only used while the sequential chain provably stays in range: a sum falls back to sequential when
+ * |seed| + |x1| + |x2| + ... is not finite, so a chain that overflows part way still returns its infinity
+ * rather than a recovered total. A product falls back when any prefix product, or the seed times or over it,
+ * is zero, subnormal or not finite, because there the sequential chain has already lost or saturated a value
+ * the regrouped form still has. Falling back is always correct, only slower.
+ * A DoubleStream of a rewritable operation is buffered into an array first, so the same fallback applies.
+ * scan() returns every intermediate result using a two-pass blocked prefix scan, under the same checks.
+ */
+public class ChainReducer {
+
+    private final Calculator calculator;
+
+    public ChainReducer(Calculator calculator) {
+        this.calculator = calculator;
+    }
+
+    public double reduce(Operation op, double seed, double[] operands) {
+        if (operands.length == 0) {
+            return seed;
+        }
+        if (op == OperationType.ADD || op == OperationType.SUBTRACT || op == OperationType.MULTIPLY
+                || op == OperationType.DIVIDE) {
+            Partial total = operands.length > BatchKernel.PARALLEL_THRESHOLD
+                    ? ForkJoinPool.commonPool().invoke(new ReduceTask(op, operands, 0, operands.length))
+                    : Partial.of(op, operands, 0, operands.length);
+            if (total.safe(op, seed)) {
+                double result = combine(op, seed, total);
+                if (result == 0 && op == OperationType.SUBTRACT) {
+                    return negativeZeros(seed, operands) == operands.length ? -0.0 : 0.0;
+                }
+                return result;
+            }
+        }
+        return sequential(op, seed, operands);
+    }
+
+    public double reduce(Operation op, double seed, DoubleStream operands) {
+        if (op == OperationType.ADD || op == OperationType.SUBTRACT || op == OperationType.MULTIPLY
+                || op == OperationType.DIVIDE) {
+            return reduce(op, seed, operands.toArray());
+        }
+        double[] value = {seed};
+        operands.forEachOrdered(x -> value[0] = calculator.calculateAsDouble(op, value[0], x));
+        return value[0];
+    }
+
+    // out[i] is the chain's value after operand i
+    public double[] scan(Operation op, double seed, double[] operands) {
+        double[] out = new double[operands.length];
+        if (op != OperationType.ADD && op != OperationType.SUBTRACT && op != OperationType.MULTIPLY
+                && op != OperationType.DIVIDE) {
+            return sequentialScan(op, seed, operands, out);
+        }
+        int blocks = operands.length > BatchKernel.PARALLEL_THRESHOLD
+                ? Math.min(ForkJoinPool.getCommonPoolParallelism() * 4,
+                        operands.length / (BatchKernel.PARALLEL_THRESHOLD / 4))
+                : 1;
+        int size = (operands.length + blocks - 1) / Math.max(blocks, 1);
+        // Pass 1: the total of each block
+        Partial[] totals = new Partial[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b ->
+                totals[b] = Partial.of(op, operands, b * size, Math.min(operands.length, (b + 1) * size)));
+        // Exclusive prefix of the block totals, then pass 2: each block continues from its offset
+        Partial[] offsets = new Partial[blocks];
+        Partial running = new Partial(op == OperationType.ADD || op == OperationType.SUBTRACT);
+        for (int b = 0; b < blocks; b++) {
+            offsets[b] = running.copy();
+            running.merge(totals[b]);
+        }
+        // The merged total covers every prefix, so one check decides the whole scan
+        if (!running.safe(op, seed)) {
+            return sequentialScan(op, seed, operands, out);
+        }
+        int negativeZeros = op == OperationType.SUBTRACT ? negativeZeros(seed, operands) : 0;
+        IntStream.range(0, blocks).parallel().forEach(b -> scanBlock(op, seed, operands, out, offsets[b],
+                negativeZeros, b * size, Math.min(operands.length, (b + 1) * size)));
+        return out;
+    }
+
+    private static void scanBlock(Operation op, double seed, double[] operands, double[] out, Partial offset,
+                                  int negativeZeros, int from, int to) {
+        if (op == OperationType.ADD || op == OperationType.SUBTRACT) {
+            double sign = op == OperationType.ADD ? 1.0 : -1.0;
+            double value = offset.value;
+            double compensation = offset.compensation;
+            for (int i = from; i < to; i++) {
+                double x = operands[i];
+                double t = value + x;
+                double xPart = t - value;
+                compensation += (value - (t - xPart)) + (x - xPart);
+                value = t;
+                double result = add(seed, sign * value, sign * compensation);
+                if (sign > 0) {
+                    out[i] = result + 0.0;
+                } else if (result == 0) {
+                    out[i] = i < negativeZeros ? -0.0 : 0.0;
+                } else {
+                    out[i] = result;
+                }
+            }
+        } else {
+            double product = offset.product;
+            if (op == OperationType.MULTIPLY) {
+                for (int i = from; i < to; i++) {
+                    product *= operands[i];
+                    out[i] = seed * product;
+                }
+            } else {
+                for (int i = from; i < to; i++) {
+                    product *= operands[i];
+                    out[i] = seed / product;
+                }
+            }
+        }
+    }
+
+    /*
+     * How many leading results of seed - x1 - x2 - ... are -0.0 in the sequential chain: those from a -0.0 seed
+     * while every operand is 0.0. Every other zero result is 0.0, which the regrouped sum cannot tell apart.
+     */
+    private static int negativeZeros(double seed, double[] operands) {
+        if (Double.doubleToRawLongBits(seed) != Double.doubleToRawLongBits(-0.0)) {
+            return 0;
+        }
+        int count = 0;
+        while (count < operands.length && Double.doubleToRawLongBits(operands[count]) == 0) {
+            count++;
+        }
+        return count;
+    }
+
+    private double sequential(Operation op, double seed, double[] operands) {
+        double value = seed;
+        for (double operand : operands) {
+            value = calculator.calculateAsDouble(op, value, operand);
+        }
+        return value;
+    }
+
+    private double[] sequentialScan(Operation op, double seed, double[] operands, double[] out) {
+        double value = seed;
+        for (int i = 0; i < operands.length; i++) {
+            value = calculator.calculateAsDouble(op, value, operands[i]);
+            out[i] = value;
+        }
+        return out;
+    }
+
+    private static double combine(Operation op, double seed, Partial total) {
+        if (op == OperationType.ADD) {
+            return add(seed, total.value, total.compensation) + 0.0;
+        }
+        if (op == OperationType.SUBTRACT) {
+            return add(seed, -total.value, -total.compensation);
+        }
+        return op == OperationType.MULTIPLY ? seed * total.product : seed / total.product;
+    }
+
+    // seed plus a compensated total; the compensation is dropped once infinities have made it NaN
+    private static double add(double seed, double value, double compensation) {
+        double t = value + seed;
+        double seedPart = t - value;
+        double c = compensation + (value - (t - seedPart)) + (seed - seedPart);
+        double sum = t + c;
+        return Double.isNaN(sum) && !Double.isNaN(t) ? t : sum;
+    }
+
+    /*
+     * Running sum with its accumulated rounding error and the sum of magnitudes that bounds every prefix, or
+     * running product with the smallest and largest magnitude any prefix product reached. The empty prefix is 1.
+     */
+    private static final class Partial {
+        private final boolean sum;
+        private double value;
+        private double compensation;
+        private double magnitude;
+        private double product = 1.0;
+        private double lowest = 1.0;
+        private double highest = 1.0;
+
+        Partial(boolean sum) {
+            this.sum = sum;
+        }
+
+        // Sums run in four independent lanes, merged at the end, so consecutive steps do not wait on each other
+        static Partial of(Operation op, double[] operands, int from, int to) {
+            Partial partial = new Partial(op == OperationType.ADD || op == OperationType.SUBTRACT);
+            int i = from;
+            if (partial.sum) {
+                double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+                double c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+                double a0 = 0, a1 = 0, a2 = 0, a3 = 0;
+                for (; i + 3 < to; i += 4) {
+                    double x0 = operands[i], x1 = operands[i + 1], x2 = operands[i + 2], x3 = operands[i + 3];
+                    double t0 = s0 + x0, t1 = s1 + x1, t2 = s2 + x2, t3 = s3 + x3;
+                    double p0 = t0 - s0, p1 = t1 - s1, p2 = t2 - s2, p3 = t3 - s3;
+                    c0 += (s0 - (t0 - p0)) + (x0 - p0);
+                    c1 += (s1 - (t1 - p1)) + (x1 - p1);
+                    c2 += (s2 - (t2 - p2)) + (x2 - p2);
+                    c3 += (s3 - (t3 - p3)) + (x3 - p3);
+                    a0 += Math.abs(x0);
+                    a1 += Math.abs(x1);
+                    a2 += Math.abs(x2);
+                    a3 += Math.abs(x3);
+                    s0 = t0;
+                    s1 = t1;
+                    s2 = t2;
+                    s3 = t3;
+                }
+                partial.accept(s0);
+                partial.accept(s1);
+                partial.accept(s2);
+                partial.accept(s3);
+                partial.compensation += (c0 + c1) + (c2 + c3);
+                // Accepting the lane sums counted their magnitudes; the bound needs the operands'
+                partial.magnitude = (a0 + a1) + (a2 + a3);
+            }
+            for (; i < to; i++) {
+                partial.accept(operands[i]);
+            }
+            return partial;
+        }
+
+        // Products stay sequential: lanes would skip the prefixes the range checks need
+        void accept(double x) {
+            if (!sum) {
+                product *= x;
+                double abs = Math.abs(product);
+                lowest = Math.min(lowest, abs);
+                highest = Math.max(highest, abs);
+                return;
+            }
+            magnitude += Math.abs(x);
+            // Knuth's TwoSum: the exact rounding error of value + x, without Neumaier's data-dependent branch
+            double t = value + x;
+            double xPart = t - value;
+            compensation += (value - (t - xPart)) + (x - xPart);
+            value = t;
+        }
+
+        void merge(Partial other) {
+            if (!sum) {
+                double abs = Math.abs(product);
+                lowest = Math.min(lowest, abs * other.lowest);
+                highest = Math.max(highest, abs * other.highest);
+                product *= other.product;
+                return;
+            }
+            double magnitude = this.magnitude;
+            accept(other.value);
+            this.magnitude = magnitude + other.magnitude;
+            compensation += other.compensation;
+        }
+
+        Partial copy() {
+            Partial copy = new Partial(sum);
+            copy.value = value;
+            copy.compensation = compensation;
+            copy.magnitude = magnitude;
+            copy.product = product;
+            copy.lowest = lowest;
+            copy.highest = highest;
+            return copy;
+        }
+
+        // Whether the regrouped result can stand in for the sequential chain starting at seed
+        boolean safe(Operation op, double seed) {
+            double abs = Math.abs(seed);
+            if (sum) {
+                return Double.isFinite(abs + magnitude);
+            }
+            // NaN prefixes fail both comparisons
+            if (!(lowest >= Double.MIN_NORMAL && highest <= Double.MAX_VALUE)) {
+                return false;
+            }
+            if (seed == 0 || !Double.isFinite(seed)) {
+                return true;
+            }
+            return op == OperationType.MULTIPLY
+                    ? abs * lowest >= Double.MIN_NORMAL && abs * highest <= Double.MAX_VALUE
+                    : abs / highest >= Double.MIN_NORMAL && abs / lowest <= Double.MAX_VALUE;
+        }
+    }
+
+    private static final class ReduceTask extends RecursiveTask<Partial> {
+        private final Operation op;
+        private final double[] operands;
+        private final int from;
+        private final int to;
+
+        ReduceTask(Operation op, double[] operands, int from, int to) {
+            this.op = op;
+            this.operands = operands;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= BatchKernel.PARALLEL_THRESHOLD) {
+                return Partial.of(op, operands, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            ReduceTask left = new ReduceTask(op, operands, from, mid);
+            left.fork();
+            Partial right = new ReduceTask(op, operands, mid, to).compute();
+            Partial total = left.join();
+            total.merge(right);
+            return total;
+        }
+    }
+}
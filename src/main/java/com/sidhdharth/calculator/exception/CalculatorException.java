@@ -8,4 +8,9 @@ public class CalculatorException extends RuntimeException {
     public CalculatorException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    // For preallocated instances: no stack trace and no suppressed exceptions, so throwing costs nothing
+    protected CalculatorException(String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace, writableStackTrace);
+    }
 }
@@ -4,4 +4,8 @@ public class DivisionByZeroException extends CalculatorException {
     public DivisionByZeroException() {
         super("Cannot divide by zero");
     }
-}
\ No newline at end of file
+
+    DivisionByZeroException(boolean writableStackTrace) {
+        super("Cannot divide by zero", writableStackTrace);
+    }
+}
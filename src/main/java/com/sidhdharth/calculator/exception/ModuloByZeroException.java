@@ -4,4 +4,8 @@ public class ModuloByZeroException extends CalculatorException {
     public ModuloByZeroException() {
         super("Cannot perform modulo by zero");
     }
-}
\ No newline at end of file
+
+    ModuloByZeroException(boolean writableStackTrace) {
+        super("Cannot perform modulo by zero", writableStackTrace);
+    }
+}
@@ -4,4 +4,8 @@ public class NullOperandException extends CalculatorException {
     public NullOperandException() {
         super("Operand cannot be null");
     }
-}
\ No newline at end of file
+
+    NullOperandException(boolean writableStackTrace) {
+        super("Operand cannot be null", writableStackTrace);
+    }
+}
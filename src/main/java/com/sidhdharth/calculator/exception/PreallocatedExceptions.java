@@ -0,0 +1,11 @@
+package com.sidhdharth.calculator.exception;
+
+// Shared stackless instances for ErrorPolicy.STACKLESS; they carry no per-call state and are safe to rethrow
+public final class PreallocatedExceptions {
+    public static final DivisionByZeroException DIVISION_BY_ZERO = new DivisionByZeroException(false);
+    public static final ModuloByZeroException MODULO_BY_ZERO = new ModuloByZeroException(false);
+    public static final NullOperandException NULL_OPERAND = new NullOperandException(false);
+
+    private PreallocatedExceptions() {
+    }
+}
@@ -0,0 +1,6 @@
+package com.sidhdharth.calculator.expression;
+
+@FunctionalInterface
+interface Evaluator {
+    double evaluate(double[] vars);
+}
@@ -0,0 +1,65 @@
+package com.sidhdharth.calculator.expression;
+
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.exception.NullOperandException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class Expression {
+    private final String source;
+    private final List<String> variables;
+    private final Evaluator evaluator;
+
+    private Expression(String source, List<String> variables, Evaluator evaluator) {
+        this.source = source;
+        this.variables = variables;
+        this.evaluator = evaluator;
+    }
+
+    public static Expression compile(String source) {
+        if (source == null) {
+            throw new NullOperandException();
+        }
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        Evaluator evaluator = ExpressionParser.parse(source).compile(slots);
+        return new Expression(source, Collections.unmodifiableList(new ArrayList<>(slots.keySet())), evaluator);
+    }
+
+    public String source() {
+        return source;
+    }
+
+    // Variable names in order of first appearance, which is the order evaluate(double...) expects
+    public List<String> variables() {
+        return variables;
+    }
+
+    public double evaluate(double... values) {
+        if (values.length != variables.size()) {
+            throw new InvalidInputException("expected " + variables.size() + " values for " + variables
+                    + " but got " + values.length);
+        }
+        return evaluator.evaluate(values);
+    }
+
+    public double evaluate(Map<String, ? extends Number> bindings) {
+        double[] values = new double[variables.size()];
+        for (int i = 0; i < values.length; i++) {
+            Number value = bindings.get(variables.get(i));
+            if (value == null) {
+                throw new InvalidInputException("unbound variable " + variables.get(i));
+            }
+            values[i] = value.doubleValue();
+        }
+        return evaluator.evaluate(values);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
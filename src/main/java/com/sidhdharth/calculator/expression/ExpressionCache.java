@@ -0,0 +1,87 @@
+package com.sidhdharth.calculator.expression;
+
+import com.sidhdharth.calculator.exception.InvalidInputException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Size-bounded LRU of compiled expressions keyed by source text
+public class ExpressionCache {
+    private final int maxSize;
+    private final Map<String, Expression> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ExpressionCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new InvalidInputException("cache size " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Expression> eldest) {
+                if (size() > ExpressionCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Expression compile(String source) {
+        synchronized (entries) {
+            Expression expression = entries.get(source);
+            if (expression != null) {
+                hits++;
+                return expression;
+            }
+            misses++;
+        }
+        // Parse outside the lock; two threads missing on the same source both compile, the last one wins
+        Expression expression = Expression.compile(source);
+        synchronized (entries) {
+            entries.put(source, expression);
+        }
+        return expression;
+    }
+
+    public double evaluate(String source, Map<String, ? extends Number> bindings) {
+        return compile(source).evaluate(bindings);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public long hits() {
+        synchronized (entries) {
+            return hits;
+        }
+    }
+
+    public long misses() {
+        synchronized (entries) {
+            return misses;
+        }
+    }
+
+    public long evictions() {
+        synchronized (entries) {
+            return evictions;
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.sidhdharth.calculator.expression;
+
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.operation.OperationType;
+
+/*
+ * Recursive descent parser for infix expressions over the OperationType symbols:
+ *
+ *   expression := term (('+' | '-') term)*
+ *   term       := unary (('*' | 'x' | 'X' | '/' | '%') unary)*
+ *   unary      := '-' unary | primary
+ *   primary    := number | variable | '(' expression ')'
+ *
+ * 'x' and 'X' are multiplication when they follow an operand and variable names otherwise, so
+ * "x x 2" is x * 2. Constant subtrees are folded while parsing.
+ */
+final class ExpressionParser {
+
+    private final String source;
+    private int pos;
+
+    private ExpressionParser(String source) {
+        this.source = source;
+    }
+
+    static Node parse(String source) {
+        ExpressionParser parser = new ExpressionParser(source);
+        Node node = parser.expression();
+        parser.skipWhitespace();
+        if (parser.pos < source.length()) {
+            throw parser.error("unexpected '" + source.charAt(parser.pos) + "'");
+        }
+        return node;
+    }
+
+    private Node expression() {
+        Node node = term();
+        while (true) {
+            skipWhitespace();
+            if (accept('+')) {
+                node = binary(OperationType.ADD, node, term());
+            } else if (accept('-')) {
+                node = binary(OperationType.SUBTRACT, node, term());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node term() {
+        Node node = unary();
+        while (true) {
+            skipWhitespace();
+            if (accept('*') || acceptMultiplyLetter()) {
+                node = binary(OperationType.MULTIPLY, node, unary());
+            } else if (accept('/')) {
+                node = binary(OperationType.DIVIDE, node, unary());
+            } else if (accept('%')) {
+                node = binary(OperationType.MODULO, node, unary());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private Node unary() {
+        skipWhitespace();
+        if (accept('-')) {
+            Node operand = unary();
+            return operand instanceof Node.Constant c ? new Node.Constant(-c.value()) : new Node.Negate(operand);
+        }
+        return primary();
+    }
+
+    private Node primary() {
+        skipWhitespace();
+        if (pos >= source.length()) {
+            throw error("unexpected end of expression");
+        }
+        char c = source.charAt(pos);
+        if (accept('(')) {
+            Node node = expression();
+            skipWhitespace();
+            if (!accept(')')) {
+                throw error("expected ')'");
+            }
+            return node;
+        }
+        if (isDigit(c) || c == '.') {
+            return number();
+        }
+        if (isIdentifierStart(c)) {
+            int start = pos;
+            while (pos < source.length() && isIdentifierPart(source.charAt(pos))) {
+                pos++;
+            }
+            return new Node.Variable(source.substring(start, pos));
+        }
+        throw error("unexpected '" + c + "'");
+    }
+
+    private Node number() {
+        int start = pos;
+        while (pos < source.length() && (isDigit(source.charAt(pos)) || source.charAt(pos) == '.')) {
+            pos++;
+        }
+        // Exponent only when digits follow, so "2e" stays an error rather than swallowing a variable
+        if (pos < source.length() && (source.charAt(pos) == 'e' || source.charAt(pos) == 'E')) {
+            int exp = pos + 1;
+            if (exp < source.length() && (source.charAt(exp) == '+' || source.charAt(exp) == '-')) {
+                exp++;
+            }
+            if (exp < source.length() && isDigit(source.charAt(exp))) {
+                pos = exp;
+                while (pos < source.length() && isDigit(source.charAt(pos))) {
+                    pos++;
+                }
+            }
+        }
+        String text = source.substring(start, pos);
+        try {
+            return new Node.Constant(Double.parseDouble(text));
+        } catch (NumberFormatException e) {
+            throw error("malformed number '" + text + "'");
+        }
+    }
+
+    private static Node binary(OperationType op, Node left, Node right) {
+        if (left instanceof Node.Constant a && right instanceof Node.Constant b
+                && !(b.value() == 0 && (op == OperationType.DIVIDE || op == OperationType.MODULO))) {
+            // A zero divisor is left unfolded so the error surfaces on evaluation, not on parsing
+            return new Node.Constant(op.applyAsDouble(a.value(), b.value()));
+        }
+        return new Node.Binary(op, left, right);
+    }
+
+    private boolean acceptMultiplyLetter() {
+        if (pos < source.length() && (source.charAt(pos) == 'x' || source.charAt(pos) == 'X')
+                && (pos + 1 == source.length() || !isIdentifierPart(source.charAt(pos + 1)))) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean accept(char expected) {
+        if (pos < source.length() && source.charAt(pos) == expected) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private InvalidInputException error(String reason) {
+        return new InvalidInputException(source + " (" + reason + " at position " + pos + ")");
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
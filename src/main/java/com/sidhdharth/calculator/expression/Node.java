@@ -0,0 +1,50 @@
+package com.sidhdharth.calculator.expression;
+
+import com.sidhdharth.calculator.operation.OperationType;
+
+import java.util.Map;
+
+// Parsed form of an infix expression. Nodes are immutable and compile into an Evaluator once.
+sealed interface Node {
+
+    Evaluator compile(Map<String, Integer> slots);
+
+    record Constant(double value) implements Node {
+        @Override
+        public Evaluator compile(Map<String, Integer> slots) {
+            double v = value;
+            return vars -> v;
+        }
+    }
+
+    record Variable(String name) implements Node {
+        @Override
+        public Evaluator compile(Map<String, Integer> slots) {
+            int slot = slots.computeIfAbsent(name, k -> slots.size());
+            return vars -> vars[slot];
+        }
+    }
+
+    record Negate(Node operand) implements Node {
+        @Override
+        public Evaluator compile(Map<String, Integer> slots) {
+            Evaluator inner = operand.compile(slots);
+            return vars -> -inner.evaluate(vars);
+        }
+    }
+
+    record Binary(OperationType op, Node left, Node right) implements Node {
+        @Override
+        public Evaluator compile(Map<String, Integer> slots) {
+            Evaluator l = left.compile(slots);
+            Evaluator r = right.compile(slots);
+            OperationType type = op;
+            return switch (type) {
+                case ADD -> vars -> l.evaluate(vars) + r.evaluate(vars) + 0.0;
+                case SUBTRACT -> vars -> l.evaluate(vars) - r.evaluate(vars);
+                case MULTIPLY -> vars -> l.evaluate(vars) * r.evaluate(vars);
+                default -> vars -> type.applyAsDouble(l.evaluate(vars), r.evaluate(vars));
+            };
+        }
+    }
+}
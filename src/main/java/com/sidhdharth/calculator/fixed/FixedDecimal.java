@@ -0,0 +1,84 @@
+package com.sidhdharth.calculator.fixed;
+
+import java.math.BigDecimal;
+
+// Result of a fixed-point calculation: a scaled long, or a BigDecimal once the value outgrew the long
+public final class FixedDecimal extends Number implements Comparable<FixedDecimal> {
+    private final long unscaled;
+    private final int scale;
+    private final BigDecimal big;
+
+    private FixedDecimal(long unscaled, int scale, BigDecimal big) {
+        this.unscaled = unscaled;
+        this.scale = scale;
+        this.big = big;
+    }
+
+    static FixedDecimal of(long unscaled, int scale) {
+        return new FixedDecimal(unscaled, scale, null);
+    }
+
+    static FixedDecimal of(BigDecimal value) {
+        if (FixedPointArithmetic.fitsLong(value)) {
+            return new FixedDecimal(value.unscaledValue().longValue(), value.scale(), null);
+        }
+        return new FixedDecimal(0, value.scale(), value);
+    }
+
+    public boolean isCompact() {
+        return big == null;
+    }
+
+    // Value * 10^scale; only meaningful when isCompact()
+    long unscaled() {
+        return unscaled;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return big != null ? big : BigDecimal.valueOf(unscaled, scale);
+    }
+
+    @Override
+    public int intValue() {
+        return toBigDecimal().intValue();
+    }
+
+    @Override
+    public long longValue() {
+        return toBigDecimal().longValue();
+    }
+
+    @Override
+    public float floatValue() {
+        return toBigDecimal().floatValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return toBigDecimal().doubleValue();
+    }
+
+    @Override
+    public int compareTo(FixedDecimal other) {
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FixedDecimal other && toBigDecimal().equals(other.toBigDecimal());
+    }
+
+    @Override
+    public int hashCode() {
+        return toBigDecimal().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,200 @@
+package com.sidhdharth.calculator.fixed;
+
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.exception.ModuloByZeroException;
+import com.sidhdharth.calculator.operation.OperationType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/*
+ * Decimal arithmetic at a fixed scale. Values are longs holding value * 10^scale; every long method
+ * throws ArithmeticException when the exact result does not fit, and the caller repeats the step with
+ * the BigDecimal overloads, which give the same result at any size. Operands without a long form, such
+ * as Math.PI at scale 4, are common rather than exceptional, so the tryToScaled conversions report them
+ * with NO_LONG instead of an exception.
+ */
+public final class FixedPointArithmetic {
+    public static final int MAX_SCALE = 18;
+
+    // Returned by tryToScaled when the value has no long form. toScaled(double) never yields it, since
+    // -2^63 is neither below 2^53 nor a multiple of 10; a long operand equal to it just takes BigDecimal
+    public static final long NO_LONG = Long.MIN_VALUE;
+
+    private static final double TWO_POW_53 = 9.007199254740992E15;
+
+    private final int scale;
+    private final RoundingMode rounding;
+    private final long pow10;
+    private final double pow10Double;
+
+    public FixedPointArithmetic(int scale, RoundingMode rounding) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new InvalidInputException("scale " + scale + " (must be 0 to " + MAX_SCALE + ")");
+        }
+        if (rounding == null) {
+            throw new InvalidInputException("rounding mode null");
+        }
+        this.scale = scale;
+        this.rounding = rounding;
+        this.pow10 = BigInteger.TEN.pow(scale).longValueExact();
+        this.pow10Double = pow10;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    public RoundingMode rounding() {
+        return rounding;
+    }
+
+    public long apply(OperationType op, long a, long b) {
+        return switch (op) {
+            case ADD -> Math.addExact(a, b);
+            case SUBTRACT -> Math.subtractExact(a, b);
+            case MULTIPLY -> divide(Math.multiplyExact(a, b), pow10);
+            case DIVIDE -> {
+                if (b == 0) {
+                    throw new DivisionByZeroException();
+                }
+                yield divide(Math.multiplyExact(a, pow10), b);
+            }
+            case MODULO -> {
+                if (b == 0) {
+                    throw new ModuloByZeroException();
+                }
+                yield a % b;
+            }
+        };
+    }
+
+    public BigDecimal apply(OperationType op, BigDecimal a, BigDecimal b) {
+        return switch (op) {
+            case ADD -> a.add(b);
+            case SUBTRACT -> a.subtract(b);
+            case MULTIPLY -> a.multiply(b).setScale(scale, rounding);
+            case DIVIDE -> {
+                if (b.signum() == 0) {
+                    throw new DivisionByZeroException();
+                }
+                yield a.divide(b, scale, rounding);
+            }
+            case MODULO -> {
+                if (b.signum() == 0) {
+                    throw new ModuloByZeroException();
+                }
+                yield a.remainder(b);
+            }
+        };
+    }
+
+    // Quotient rounded with the configured mode; never overflows because |quotient| <= |dividend|
+    private long divide(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int signum = (dividend ^ divisor) < 0 ? -1 : 1;
+        boolean increment = switch (rounding) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> signum > 0;
+            case FLOOR -> signum < 0;
+            case HALF_UP, HALF_DOWN, HALF_EVEN -> {
+                long r = Math.absExact(remainder);
+                int half = Long.compare(r, Math.absExact(divisor) - r);
+                yield half > 0 || (half == 0 && (rounding == RoundingMode.HALF_UP
+                        || (rounding == RoundingMode.HALF_EVEN && (quotient & 1) != 0)));
+            }
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return increment ? quotient + signum : quotient;
+    }
+
+    /*
+     * The scaled value of a double, taken from its shortest decimal form as BigDecimal.valueOf does:
+     * 0.1 becomes 0.1, not 0.1000000000000000055511151231257827. NO_LONG when that form has more than
+     * scale digits after the point, does not fit, or has more significant digits than the 2^53 check
+     * below can confirm, leaving it to toBigDecimal.
+     */
+    public long tryToScaled(double value) {
+        checkFinite(value);
+        // Exact: ulp is a power of two and 10^scale an exact double
+        if (Math.ulp(value) * pow10Double < 1) {
+            // At most one decimal with scale digits after the point rounds to value, so it is the shortest form
+            double scaled = value * pow10Double;
+            if (!(Math.abs(scaled) < TWO_POW_53)) {
+                return NO_LONG;
+            }
+            long unscaled = (long) Math.rint(scaled);
+            // Both are exact doubles, so the division is the double nearest to unscaled / 10^scale
+            return unscaled / pow10Double == value ? unscaled : NO_LONG;
+        }
+        // Several such decimals round to value: take the one with the fewest digits after the point and scale
+        // it up exactly, so integers and short decimals such as 1.0 or 2.5 at scale 18 stay longs
+        long pow = 1;
+        for (int digits = 0; digits <= scale; digits++, pow *= 10) {
+            double shifted = value * pow;
+            if (!(Math.abs(shifted) < TWO_POW_53)) {
+                break;
+            }
+            long unscaled = (long) Math.rint(shifted);
+            if (unscaled / (double) pow == value) {
+                long factor = pow10 / pow;
+                return Math.abs(unscaled) <= Long.MAX_VALUE / factor ? unscaled * factor : NO_LONG;
+            }
+        }
+        return NO_LONG;
+    }
+
+    public long toScaled(double value) {
+        long unscaled = tryToScaled(value);
+        if (unscaled == NO_LONG) {
+            throw new ArithmeticException("No long form at scale " + scale);
+        }
+        return unscaled;
+    }
+
+    public long tryToScaled(long value) {
+        return Math.abs(value) <= Long.MAX_VALUE / pow10 ? value * pow10 : NO_LONG;
+    }
+
+    public long toScaled(long value) {
+        return Math.multiplyExact(value, pow10);
+    }
+
+    public BigDecimal toBigDecimal(double value) {
+        checkFinite(value);
+        return BigDecimal.valueOf(value).setScale(scale, rounding);
+    }
+
+    public BigDecimal toBigDecimal(BigDecimal value) {
+        return value.setScale(scale, rounding);
+    }
+
+    public BigDecimal toBigDecimal(long unscaled) {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    public double toDouble(long unscaled) {
+        if (Math.abs(unscaled) < TWO_POW_53) {
+            return unscaled / pow10Double;
+        }
+        return BigDecimal.valueOf(unscaled, scale).doubleValue();
+    }
+
+    // True when value can go back to the long representation
+    public static boolean fitsLong(BigDecimal value) {
+        return value.unscaledValue().bitLength() < 64;
+    }
+
+    private static void checkFinite(double value) {
+        if (!Double.isFinite(value)) {
+            throw new InvalidInputException(Double.toString(value));
+        }
+    }
+}
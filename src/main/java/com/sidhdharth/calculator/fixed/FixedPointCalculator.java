@@ -0,0 +1,223 @@
+package com.sidhdharth.calculator.fixed;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.api.ZeroDivisorPolicy;
+import com.sidhdharth.calculator.chain.FoldingMode;
+import com.sidhdharth.calculator.chain.LazyOperationChain;
+import com.sidhdharth.calculator.chain.OperationChainBuilder;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.exception.ModuloByZeroException;
+import com.sidhdharth.calculator.exception.NullOperandException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/*
+ * Exact decimal calculator: operands are rounded to the configured scale and every OperationType
+ * is evaluated on scaled longs, so 0.1 + 0.2 is 0.3. Steps that overflow a long are redone in
+ * BigDecimal and the value moves back to a long once it fits again. calculateAsDouble and
+ * primitive chains allocate nothing while values stay in long range. Operations other than
+ * OperationType run in double arithmetic and their result is rounded to the scale.
+ */
+public class FixedPointCalculator implements Calculator {
+    private final FixedPointArithmetic arithmetic;
+
+    public FixedPointCalculator(int scale, RoundingMode rounding) {
+        this.arithmetic = new FixedPointArithmetic(scale, rounding);
+    }
+
+    public FixedPointArithmetic arithmetic() {
+        return arithmetic;
+    }
+
+    @Override
+    public FixedDecimal calculate(Operation op, Number num1, Number num2) {
+        if (op == null || num1 == null || num2 == null) {
+            throw new NullOperandException();
+        }
+        if (!(op instanceof OperationType type)) {
+            return toFixed(op.applyAsDouble(num1.doubleValue(), num2.doubleValue()));
+        }
+        long a = toScaled(num1);
+        long b = toScaled(num2);
+        if (a != FixedPointArithmetic.NO_LONG && b != FixedPointArithmetic.NO_LONG) {
+            try {
+                return FixedDecimal.of(arithmetic.apply(type, a, b), arithmetic.scale());
+            } catch (ArithmeticException e) {
+                // The result overflowed a long: redo the step in BigDecimal
+            }
+        }
+        return FixedDecimal.of(arithmetic.apply(type, toBigDecimal(num1), toBigDecimal(num2)));
+    }
+
+    @Override
+    public double calculateAsDouble(Operation op, double num1, double num2) {
+        if (op == null) {
+            throw new NullOperandException();
+        }
+        if (!(op instanceof OperationType type)) {
+            return round(op.applyAsDouble(num1, num2));
+        }
+        long a = arithmetic.tryToScaled(num1);
+        long b = arithmetic.tryToScaled(num2);
+        if (a != FixedPointArithmetic.NO_LONG && b != FixedPointArithmetic.NO_LONG) {
+            try {
+                return arithmetic.toDouble(arithmetic.apply(type, a, b));
+            } catch (ArithmeticException e) {
+                // The result overflowed a long: redo the step in BigDecimal
+            }
+        }
+        return arithmetic.apply(type, arithmetic.toBigDecimal(num1), arithmetic.toBigDecimal(num2)).doubleValue();
+    }
+
+    @Override
+    public void calculateBatch(Operation op, double[] num1, double[] num2, double[] out, ZeroDivisorPolicy policy) {
+        if (num1 == null || num2 == null) {
+            throw new NullOperandException();
+        }
+        checkBatch(op, out, policy, num1.length, num2.length);
+        if (policy == ZeroDivisorPolicy.THROW) {
+            for (double divisor : num2) {
+                checkDivisor(op, divisor);
+            }
+        }
+        for (int i = 0; i < out.length; i++) {
+            out[i] = batchElement(op, num1[i], num2[i], policy);
+        }
+    }
+
+    @Override
+    public void calculateBatch(Operation op, double[] num1, double num2, double[] out, ZeroDivisorPolicy policy) {
+        if (num1 == null) {
+            throw new NullOperandException();
+        }
+        checkBatch(op, out, policy, num1.length, num1.length);
+        if (policy == ZeroDivisorPolicy.THROW) {
+            checkDivisor(op, num2);
+        }
+        for (int i = 0; i < out.length; i++) {
+            out[i] = batchElement(op, num1[i], num2, policy);
+        }
+    }
+
+    @Override
+    public void calculateBatch(Operation op, double num1, double[] num2, double[] out, ZeroDivisorPolicy policy) {
+        if (num2 == null) {
+            throw new NullOperandException();
+        }
+        checkBatch(op, out, policy, num2.length, num2.length);
+        if (policy == ZeroDivisorPolicy.THROW) {
+            for (double divisor : num2) {
+                checkDivisor(op, divisor);
+            }
+        }
+        for (int i = 0; i < out.length; i++) {
+            out[i] = batchElement(op, num1, num2[i], policy);
+        }
+    }
+
+    private double batchElement(Operation op, double num1, double num2, ZeroDivisorPolicy policy) {
+        if (num2 == 0 && policy != ZeroDivisorPolicy.THROW
+                && (op == OperationType.DIVIDE || op == OperationType.MODULO)) {
+            return policy == ZeroDivisorPolicy.IEEE && op == OperationType.DIVIDE ? num1 / num2 : Double.NaN;
+        }
+        return calculateAsDouble(op, num1, num2);
+    }
+
+    private static void checkDivisor(Operation op, double divisor) {
+        if (divisor == 0 && op == OperationType.DIVIDE) {
+            throw new DivisionByZeroException();
+        }
+        if (divisor == 0 && op == OperationType.MODULO) {
+            throw new ModuloByZeroException();
+        }
+    }
+
+    private static void checkBatch(Operation op, double[] out, ZeroDivisorPolicy policy, int length1, int length2) {
+        if (op == null || out == null || policy == null) {
+            throw new NullOperandException();
+        }
+        if (length1 != out.length || length2 != out.length) {
+            throw new InvalidInputException("operand arrays of length " + length1 + " and " + length2
+                    + " do not match output length " + out.length);
+        }
+    }
+
+    @Override
+    public OperationChainBuilder start(Number initialValue) {
+        if (initialValue == null) {
+            throw new NullOperandException();
+        }
+        return new FixedPointChain(toFixed(initialValue), this);
+    }
+
+    @Override
+    public OperationChainBuilder start(double initialValue) {
+        return new FixedPointChain(toFixed(initialValue), this);
+    }
+
+    // Recorded steps replay through calculateAsDouble: the template's inlined double arithmetic would not be exact
+    @Override
+    public LazyOperationChain startLazy(double initialValue, FoldingMode mode) {
+        if (mode == null) {
+            throw new NullOperandException();
+        }
+        return new LazyOperationChain(initialValue, this, mode, false);
+    }
+
+    public FixedDecimal toFixed(Number value) {
+        long unscaled = toScaled(value);
+        return unscaled != FixedPointArithmetic.NO_LONG
+                ? FixedDecimal.of(unscaled, arithmetic.scale())
+                : FixedDecimal.of(toBigDecimal(value));
+    }
+
+    private FixedDecimal toFixed(double value) {
+        long unscaled = arithmetic.tryToScaled(value);
+        return unscaled != FixedPointArithmetic.NO_LONG
+                ? FixedDecimal.of(unscaled, arithmetic.scale())
+                : FixedDecimal.of(arithmetic.toBigDecimal(value));
+    }
+
+    private double round(double value) {
+        return arithmetic.tryToScaled(value) != FixedPointArithmetic.NO_LONG
+                ? value
+                : arithmetic.toBigDecimal(value).doubleValue();
+    }
+
+    // NO_LONG when the value needs rescaling, is arbitrary precision or has no long form at the scale
+    private long toScaled(Number value) {
+        if (value instanceof FixedDecimal fixed) {
+            return fixed.isCompact() && fixed.scale() == arithmetic.scale()
+                    ? fixed.unscaled()
+                    : FixedPointArithmetic.NO_LONG;
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return arithmetic.tryToScaled(value.longValue());
+        }
+        if (value instanceof BigDecimal || value instanceof BigInteger) {
+            return FixedPointArithmetic.NO_LONG;
+        }
+        return arithmetic.tryToScaled(value.doubleValue());
+    }
+
+    private BigDecimal toBigDecimal(Number value) {
+        if (value instanceof FixedDecimal fixed) {
+            return arithmetic.toBigDecimal(fixed.toBigDecimal());
+        }
+        if (value instanceof BigDecimal decimal) {
+            return arithmetic.toBigDecimal(decimal);
+        }
+        if (value instanceof BigInteger integer) {
+            return arithmetic.toBigDecimal(new BigDecimal(integer));
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return arithmetic.toBigDecimal(BigDecimal.valueOf(value.longValue()));
+        }
+        return arithmetic.toBigDecimal(value.doubleValue());
+    }
+}
@@ -0,0 +1,71 @@
+package com.sidhdharth.calculator.fixed;
+
+import com.sidhdharth.calculator.chain.OperationChainBuilder;
+import com.sidhdharth.calculator.exception.NullOperandException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationType;
+
+import java.math.BigDecimal;
+
+// Running fixed-point value: a scaled long while it fits, a BigDecimal after an overflow
+public class FixedPointChain implements OperationChainBuilder {
+    private final FixedPointCalculator calculator;
+    private final FixedPointArithmetic arithmetic;
+    private long unscaled;
+    private BigDecimal big;
+
+    FixedPointChain(FixedDecimal initialValue, FixedPointCalculator calculator) {
+        this.calculator = calculator;
+        this.arithmetic = calculator.arithmetic();
+        this.unscaled = initialValue.unscaled();
+        this.big = initialValue.isCompact() ? null : initialValue.toBigDecimal();
+    }
+
+    @Override
+    public OperationChainBuilder chain(Operation op, Number operand) {
+        if (op == null || operand == null) {
+            throw new NullOperandException();
+        }
+        set(calculator.calculate(op, current(), operand));
+        return this;
+    }
+
+    @Override
+    public OperationChainBuilder chain(Operation op, double operand) {
+        if (op == null) {
+            throw new NullOperandException();
+        }
+        if (big == null && op instanceof OperationType type) {
+            long scaled = arithmetic.tryToScaled(operand);
+            if (scaled != FixedPointArithmetic.NO_LONG) {
+                try {
+                    unscaled = arithmetic.apply(type, unscaled, scaled);
+                    return this;
+                } catch (ArithmeticException e) {
+                    // Overflow: finish this step in BigDecimal
+                }
+            }
+        }
+        set(calculator.calculate(op, current(), operand));
+        return this;
+    }
+
+    private FixedDecimal current() {
+        return big == null ? FixedDecimal.of(unscaled, arithmetic.scale()) : FixedDecimal.of(big);
+    }
+
+    private void set(FixedDecimal value) {
+        this.unscaled = value.unscaled();
+        this.big = value.isCompact() ? null : value.toBigDecimal();
+    }
+
+    @Override
+    public Number getResult() {
+        return current();
+    }
+
+    @Override
+    public double getResultAsDouble() {
+        return big == null ? arithmetic.toDouble(unscaled) : big.doubleValue();
+    }
+}
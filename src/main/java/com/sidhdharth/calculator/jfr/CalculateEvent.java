@@ -0,0 +1,49 @@
+package com.sidhdharth.calculator.jfr;
+
+import com.sidhdharth.calculator.operation.Operation;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// One Calculator.calculate or calculateAsDouble call. Off unless a recording enables it, e.g. with jfr/calculator.jfc.
+@Name("com.sidhdharth.calculator.Calculate")
+@Label("Calculate")
+@Category({"Calculator"})
+@Description("A Calculator.calculate or calculateAsDouble call")
+@Enabled(false)
+@Threshold("0 ns")
+@StackTrace(false)
+public class CalculateEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Exception")
+    @Description("Class of the exception the call threw, if any")
+    Class<?> exception;
+
+    // Not recorded
+    private transient byte sampled;
+
+    public void set(Operation op, Throwable failure) {
+        operation = CalculatorEvents.name(op);
+        exception = failure == null ? null : failure.getClass();
+    }
+
+    @Name("sampleRate")
+    @Label("Sample Rate")
+    @SettingDefinition
+    protected boolean sampleRate(SampleRate rate) {
+        // commit() checks the settings again after shouldCommit(), so decide once per event
+        if (sampled == 0) {
+            sampled = rate.sample() ? (byte) 1 : (byte) 2;
+        }
+        return sampled == 1;
+    }
+}
@@ -0,0 +1,60 @@
+package com.sidhdharth.calculator.jfr;
+
+import com.sidhdharth.calculator.operation.Operation;
+import jdk.jfr.Configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Settings for recording the calculator events. jfr/calculator.jfc on the class path turns them on with a
+ * threshold and sample rate; settings() layers it over the JDK's "default" profile so GC and thread
+ * events are recorded alongside:
+ *
+ *   try (Recording recording = new Recording(CalculatorEvents.settings())) { ... }
+ */
+public final class CalculatorEvents {
+
+    public static final String CALCULATE = "com.sidhdharth.calculator.Calculate";
+    public static final String CHAIN_STEP = "com.sidhdharth.calculator.ChainStep";
+    static final String PROFILE = "/jfr/calculator.jfc";
+
+    private CalculatorEvents() {
+    }
+
+    public static Map<String, String> settings() {
+        try {
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+            settings.putAll(profile().getSettings());
+            return settings;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("JDK default profile", e);
+        }
+    }
+
+    public static Configuration profile() throws IOException {
+        try (InputStream in = CalculatorEvents.class.getResourceAsStream(PROFILE)) {
+            if (in == null) {
+                throw new IOException(PROFILE + " is not on the class path");
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                return Configuration.create(reader);
+            }
+        } catch (ParseException e) {
+            throw new IOException(PROFILE, e);
+        }
+    }
+
+    static String name(Operation op) {
+        return op == null ? null : op instanceof Enum<?> e ? e.name() : op.getClass().getName();
+    }
+}
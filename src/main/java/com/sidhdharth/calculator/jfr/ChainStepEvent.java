@@ -0,0 +1,54 @@
+package com.sidhdharth.calculator.jfr;
+
+import com.sidhdharth.calculator.operation.Operation;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// One OperationChain.chain step. Off unless a recording enables it, e.g. with jfr/calculator.jfc.
+@Name("com.sidhdharth.calculator.ChainStep")
+@Label("Chain Step")
+@Category({"Calculator"})
+@Description("One step of an OperationChain")
+@Enabled(false)
+@Threshold("0 ns")
+@StackTrace(false)
+public class ChainStepEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Depth")
+    @Description("Steps in the chain including this one")
+    int depth;
+
+    @Label("Exception")
+    @Description("Class of the exception the step threw, if any")
+    Class<?> exception;
+
+    // Not recorded
+    private transient byte sampled;
+
+    public void set(Operation op, int depth, Throwable failure) {
+        this.operation = CalculatorEvents.name(op);
+        this.depth = depth;
+        this.exception = failure == null ? null : failure.getClass();
+    }
+
+    @Name("sampleRate")
+    @Label("Sample Rate")
+    @SettingDefinition
+    protected boolean sampleRate(SampleRate rate) {
+        // commit() checks the settings again after shouldCommit(), so decide once per event
+        if (sampled == 0) {
+            sampled = rate.sample() ? (byte) 1 : (byte) 2;
+        }
+        return sampled == 1;
+    }
+}
@@ -0,0 +1,12 @@
+package com.sidhdharth.calculator.jfr;
+
+import java.time.Duration;
+
+// Recorded events of one type for one operation. Counts are of recorded events, so scale them by the sample rate.
+public record Hotspot(String event, String operation, long count, Duration total, Duration max, long errors,
+                      int maxDepth) {
+
+    public Duration mean() {
+        return count == 0 ? Duration.ZERO : total.dividedBy(count);
+    }
+}
@@ -0,0 +1,108 @@
+package com.sidhdharth.calculator.jfr;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Summarizes the calculator events in a .jfr file by operation, hottest first by total time, with the
+ * exception classes seen. Other events in the recording are skipped.
+ *
+ *   java -cp Calculator.jar com.sidhdharth.calculator.jfr.RecordingAnalyzer calc.jfr
+ */
+public final class RecordingAnalyzer {
+
+    private RecordingAnalyzer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: RecordingAnalyzer <recording.jfr>");
+            System.exit(2);
+        }
+        Map<String, Long> exceptions = new TreeMap<>();
+        List<Hotspot> hotspots = analyze(Path.of(args[0]), exceptions);
+        print(hotspots, exceptions, System.out);
+    }
+
+    public static List<Hotspot> analyze(Path recording) throws IOException {
+        return analyze(recording, new HashMap<>());
+    }
+
+    // Fills exceptions with a count per exception class name
+    static List<Hotspot> analyze(Path recording, Map<String, Long> exceptions) throws IOException {
+        Map<String, Accumulator> byKey = new HashMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String type = event.getEventType().getName();
+                boolean chainStep = type.equals(CalculatorEvents.CHAIN_STEP);
+                if (!chainStep && !type.equals(CalculatorEvents.CALCULATE)) {
+                    continue;
+                }
+                String operation = String.valueOf(event.getString("operation"));
+                Accumulator acc = byKey.computeIfAbsent(type + '\0' + operation,
+                        k -> new Accumulator(event.getEventType().getLabel(), operation));
+                long nanos = event.getDuration().toNanos();
+                acc.count++;
+                acc.total += nanos;
+                acc.max = Math.max(acc.max, nanos);
+                RecordedClass exception = event.getClass("exception");
+                if (exception != null) {
+                    acc.errors++;
+                    exceptions.merge(exception.getName(), 1L, Long::sum);
+                }
+                if (chainStep) {
+                    acc.maxDepth = Math.max(acc.maxDepth, event.getInt("depth"));
+                }
+            }
+        }
+        List<Hotspot> hotspots = new ArrayList<>();
+        for (Accumulator acc : byKey.values()) {
+            hotspots.add(new Hotspot(acc.event, acc.operation, acc.count, Duration.ofNanos(acc.total),
+                    Duration.ofNanos(acc.max), acc.errors, acc.maxDepth));
+        }
+        hotspots.sort(Comparator.comparing(Hotspot::total).reversed());
+        return hotspots;
+    }
+
+    static void print(List<Hotspot> hotspots, Map<String, Long> exceptions, PrintStream out) {
+        out.printf("%-12s %-12s %10s %12s %10s %10s %8s %6s%n",
+                "event", "operation", "count", "total us", "mean ns", "max ns", "errors", "depth");
+        for (Hotspot h : hotspots) {
+            out.printf("%-12s %-12s %10d %12.1f %10d %10d %8d %6s%n", h.event(), h.operation(), h.count(),
+                    h.total().toNanos() / 1e3, h.mean().toNanos(), h.max().toNanos(), h.errors(),
+                    h.maxDepth() == 0 ? "-" : Integer.toString(h.maxDepth()));
+        }
+        if (!exceptions.isEmpty()) {
+            out.println();
+            exceptions.forEach((name, count) -> out.printf("%8d  %s%n", count, name));
+        }
+    }
+
+    private static final class Accumulator {
+        final String event;
+        final String operation;
+        long count;
+        long total;
+        long max;
+        long errors;
+        int maxDepth;
+
+        Accumulator(String event, String operation) {
+            this.event = event;
+            this.operation = operation;
+        }
+    }
+}
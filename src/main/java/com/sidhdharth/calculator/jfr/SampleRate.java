@@ -0,0 +1,58 @@
+package com.sidhdharth.calculator.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.MetadataDefinition;
+import jdk.jfr.Name;
+import jdk.jfr.SettingControl;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * JFR setting "sampleRate" on the calculator events: record one event in N, chosen at random, from those
+ * that pass the threshold. When several recordings ask for different rates the most frequent one wins.
+ * The check runs only after the event has passed its enabled and threshold checks.
+ */
+@MetadataDefinition
+@Name("com.sidhdharth.calculator.SampleRate")
+@Label("Sample Rate")
+@Description("Record one event in N")
+public final class SampleRate extends SettingControl {
+
+    static final String DEFAULT = "1";
+
+    private volatile int oneIn = 1;
+
+    @Override
+    public String combine(Set<String> values) {
+        int min = Integer.MAX_VALUE;
+        for (String value : values) {
+            min = Math.min(min, parse(value));
+        }
+        return values.isEmpty() ? DEFAULT : Integer.toString(min);
+    }
+
+    @Override
+    public void setValue(String value) {
+        oneIn = parse(value);
+    }
+
+    @Override
+    public String getValue() {
+        return Integer.toString(oneIn);
+    }
+
+    boolean sample() {
+        int n = oneIn;
+        return n == 1 || ThreadLocalRandom.current().nextInt(n) == 0;
+    }
+
+    private static int parse(String value) {
+        try {
+            return Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.sidhdharth.calculator.journal;
+
+/*
+ * Immutable node in a chain's history: the value after a step and a link to the state before it.
+ * Sessions and their branches share nodes, so branching is a pointer copy and undo never recomputes.
+ * Each node also keeps a skip pointer laid out as in Myers' skew-binary lists, which makes
+ * ancestor(n) take O(log n) hops instead of n.
+ */
+final class History {
+    final History parent;
+    final History jump;
+    final long depth;
+    final double value;
+
+    private History(History parent, History jump, long depth, double value) {
+        this.parent = parent;
+        this.jump = jump;
+        this.depth = depth;
+        this.value = value;
+    }
+
+    // A state with nothing before it to undo back to, such as a recovered checkpoint
+    static History root(long depth, double value) {
+        return new History(null, null, depth, value);
+    }
+
+    History push(double result) {
+        History jump = this;
+        if (this.jump != null && this.jump.jump != null
+                && depth - this.jump.depth == this.jump.depth - this.jump.jump.depth) {
+            jump = this.jump.jump;
+        }
+        return new History(this, jump, depth + 1, result);
+    }
+
+    // The state n steps back, or null if the history does not reach that far
+    History ancestor(long n) {
+        long target = depth - n;
+        History node = this;
+        while (node != null && node.depth > target) {
+            node = node.jump != null && node.jump.depth >= target ? node.jump : node.parent;
+        }
+        return node != null && node.depth == target ? node : null;
+    }
+
+    // The oldest state this history still reaches
+    History oldest() {
+        History node = this;
+        while (node.parent != null) {
+            node = node.jump != null ? node.jump : node.parent;
+        }
+        return node;
+    }
+}
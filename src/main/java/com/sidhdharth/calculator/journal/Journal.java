@@ -0,0 +1,316 @@
+package com.sidhdharth.calculator.journal;
+
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.exception.InvalidOperationException;
+import com.sidhdharth.calculator.operation.Operation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/*
+ * Append-only journal file, written through a memory mapping that is doubled and remapped when full.
+ * All numbers are little-endian:
+ *
+ *   header, 64 bytes   magic "CALCJRN1", int version 1, int reserved,
+ *                      long offset of the latest CHECKPOINT record, rest reserved
+ *   records from 64    byte type, payload, int CRC32C of type and payload
+ *
+ *   STEP        1  short operation id, double operand, double result
+ *   UNDO        2  int count
+ *   DEFINE      3  short operation id, byte length, symbol bytes (UTF-8)
+ *   CHECKPOINT  4  long depth, double value
+ *
+ * Operations are written as ids defined by an earlier DEFINE. Replay never calls an operation, so the
+ * symbols stay opaque and need not be registered when the journal is recovered. The ids restart after
+ * every checkpoint, so replay from the checkpoint never needs anything before it. A zero type byte or a
+ * bad checksum marks the end of the journal; recovery zeroes everything after it, so neither a torn
+ * record nor older records left behind it can be read back once new records are appended.
+ *
+ * A checkpoint taken once the journal has grown past compactAt bytes is written at the start of the
+ * records instead, and everything after it is cleared, so a session that checkpoints regularly keeps
+ * its journal bounded. The records between two checkpoints must fit in 2 GiB, the limit of one mapping.
+ */
+final class Journal implements Closeable {
+
+    static final byte STEP = 1;
+    static final byte UNDO = 2;
+    static final byte DEFINE = 3;
+    static final byte CHECKPOINT = 4;
+
+    private static final byte[] MAGIC = "CALCJRN1".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int CHECKPOINT_OFFSET = 16;
+    private static final int INITIAL_MAPPING = 1 << 20;
+    private static final int CHECKPOINT_RECORD = 1 + 8 + 8 + 4;
+    static final long DEFAULT_COMPACT_AT = 1L << 28;
+
+    private final FileChannel channel;
+    private final int groupSize;
+    private final long compactAt;
+    private final CRC32C crc = new CRC32C();
+    // Keyed by symbol, the only thing a DEFINE records
+    private final Map<String, Short> ids = new HashMap<>();
+    private MappedByteBuffer map;
+    private int unsynced;
+
+    // State recovered from the file when it was opened
+    private History recovered;
+
+    private Journal(FileChannel channel, int groupSize, long compactAt) {
+        this.channel = channel;
+        this.groupSize = groupSize;
+        this.compactAt = compactAt;
+    }
+
+    static Journal open(Path file, int groupSize, double initialValue) throws IOException {
+        return open(file, groupSize, initialValue, DEFAULT_COMPACT_AT);
+    }
+
+    static Journal open(Path file, int groupSize, double initialValue, long compactAt) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        Journal journal = new Journal(channel, groupSize, compactAt);
+        try {
+            boolean fresh = channel.size() == 0;
+            journal.map(Math.max(INITIAL_MAPPING, channel.size()));
+            if (fresh) {
+                journal.map.put(0, MAGIC, 0, MAGIC.length);
+                journal.map.putInt(MAGIC.length, VERSION);
+                journal.map.position(HEADER_SIZE);
+                journal.checkpoint(History.root(0, initialValue));
+            } else {
+                journal.recover(file);
+            }
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    History recovered() {
+        return recovered;
+    }
+
+    void step(Operation op, double operand, double result) throws IOException {
+        short id = id(op);
+        ensure(1 + 2 + 8 + 8 + 4);
+        int start = map.position();
+        map.put(STEP).putShort(id).putDouble(operand).putDouble(result);
+        seal(start);
+    }
+
+    void undo(int count) throws IOException {
+        ensure(1 + 4 + 4);
+        int start = map.position();
+        map.put(UNDO).putInt(count);
+        seal(start);
+    }
+
+    // Records the state so that recovery starts here, then forces everything written so far
+    void checkpoint(History state) throws IOException {
+        int latest = (int) map.getLong(CHECKPOINT_OFFSET);
+        // The new checkpoint and the zero byte after it must end before the latest checkpoint
+        if (map.position() >= compactAt && latest > HEADER_SIZE + CHECKPOINT_RECORD) {
+            compact(state);
+            return;
+        }
+        ensure(CHECKPOINT_RECORD);
+        int start = map.position();
+        map.put(CHECKPOINT).putLong(state.depth).putDouble(state.value);
+        seal(start);
+        ids.clear();
+        map.force();
+        map.putLong(CHECKPOINT_OFFSET, start);
+        sync();
+    }
+
+    /*
+     * Writes the checkpoint at the start of the records. Until the header points at it, recovery still
+     * starts from the previous checkpoint, which is left untouched; after that, the zero byte behind it
+     * ends replay even if clearing the old records is cut short.
+     */
+    private void compact(History state) throws IOException {
+        int end = map.position();
+        map.position(HEADER_SIZE);
+        map.put(CHECKPOINT).putLong(state.depth).putDouble(state.value);
+        seal(HEADER_SIZE);
+        map.put(map.position(), (byte) 0);
+        map.force();
+        map.putLong(CHECKPOINT_OFFSET, HEADER_SIZE);
+        map.force();
+        zero(map.position(), end);
+        ids.clear();
+        sync();
+    }
+
+    long size() {
+        return map.position();
+    }
+
+    void sync() {
+        map.force();
+        unsynced = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            sync();
+            channel.close();
+        }
+    }
+
+    private short id(Operation op) throws IOException {
+        if (op.symbols().isEmpty()) {
+            throw new InvalidOperationException(op + " has no symbol to journal it by");
+        }
+        String name = op.symbols().iterator().next();
+        Short id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        byte[] symbol = name.getBytes(StandardCharsets.UTF_8);
+        if (symbol.length > 255) {
+            throw new InvalidOperationException(op + " has a symbol too long to journal");
+        }
+        short next = (short) ids.size();
+        ensure(1 + 2 + 1 + symbol.length + 4);
+        int start = map.position();
+        map.put(DEFINE).putShort(next).put((byte) symbol.length).put(symbol);
+        seal(start);
+        ids.put(name, next);
+        return next;
+    }
+
+    private void seal(int start) {
+        crc.reset();
+        crc.update(map.duplicate().position(start).limit(map.position()));
+        map.putInt((int) crc.getValue());
+        if (++unsynced >= groupSize) {
+            sync();
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (map.remaining() < bytes + 1) {
+            map.force();
+            int position = map.position();
+            map((long) map.capacity() * 2);
+            map.position(position);
+        }
+    }
+
+    private void map(long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("journal records since the last checkpoint exceed 2 GiB; checkpoint more often");
+        }
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        map.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void recover(Path file) {
+        byte[] magic = new byte[MAGIC.length];
+        map.get(0, magic);
+        long checkpoint = map.getLong(CHECKPOINT_OFFSET);
+        if (!Arrays.equals(magic, MAGIC) || map.getInt(MAGIC.length) != VERSION || checkpoint < HEADER_SIZE) {
+            throw new InvalidInputException("not a journal: " + file);
+        }
+        map.position((int) checkpoint);
+        List<String> symbols = new ArrayList<>();
+        History state = null;
+        while (true) {
+            int start = map.position();
+            if (map.remaining() < 1 + 4) {
+                break;
+            }
+            byte type = map.get();
+            if (!validRecord(type, start)) {
+                map.position(start);
+                break;
+            }
+            switch (type) {
+                case STEP -> {
+                    // The result was recorded, so replay never calls the operation; only the id is checked
+                    symbols.get(map.getShort());
+                    map.getDouble();
+                    state = state.push(map.getDouble());
+                }
+                case UNDO -> {
+                    int count = map.getInt();
+                    History target = state.ancestor(count);
+                    state = target != null ? target : state;
+                }
+                case DEFINE -> {
+                    short id = map.getShort();
+                    byte[] symbol = new byte[map.get()];
+                    map.get(symbol);
+                    String name = new String(symbol, StandardCharsets.UTF_8);
+                    symbols.add(id, name);
+                    ids.put(name, id);
+                }
+                default -> {
+                    symbols.clear();
+                    ids.clear();
+                    long depth = map.getLong();
+                    state = History.root(depth, map.getDouble());
+                }
+            }
+            map.getInt();
+        }
+        if (state == null) {
+            throw new InvalidInputException("journal has no checkpoint: " + file);
+        }
+        recovered = state;
+        // Unsynced pages may have reached the disk out of order, so valid records can sit anywhere past a
+        // torn one; clear them all so that appending can never make them reachable
+        zero(map.position(), map.capacity());
+        sync();
+    }
+
+    // Only writes where the bytes are not already zero, so clean pages stay clean
+    private void zero(int from, int to) {
+        int i = from;
+        for (; i < to && (i & 7) != 0; i++) {
+            map.put(i, (byte) 0);
+        }
+        for (; i + 8 <= to; i += 8) {
+            if (map.getLong(i) != 0) {
+                map.putLong(i, 0);
+            }
+        }
+        for (; i < to; i++) {
+            map.put(i, (byte) 0);
+        }
+    }
+
+    // Checks the record's length and checksum without moving the position past the type byte
+    private boolean validRecord(byte type, int start) {
+        int payload = switch (type) {
+            case STEP -> 2 + 8 + 8;
+            case UNDO -> 4;
+            case CHECKPOINT -> 8 + 8;
+            case DEFINE -> map.remaining() >= 3 ? 3 + (map.get(start + 3) & 0xFF) : -1;
+            default -> -1;
+        };
+        if (payload < 0 || map.remaining() < payload + 4) {
+            return false;
+        }
+        crc.reset();
+        crc.update(map.duplicate().position(start).limit(start + 1 + payload));
+        return map.getInt(start + 1 + payload) == (int) crc.getValue();
+    }
+}
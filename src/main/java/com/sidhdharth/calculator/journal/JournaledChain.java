@@ -0,0 +1,163 @@
+package com.sidhdharth.calculator.journal;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.chain.OperationChainBuilder;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.operation.Operation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/*
+ * An operation chain that survives restarts. Every step is appended to a journal with its operand and
+ * result, so opening the same file again rebuilds the session from the latest checkpoint plus the steps
+ * after it, without calling any operation. The journal is forced to disk once per groupSize records
+ * (and on sync(), checkpoint() and close()); a crash loses at most the records since the last force.
+ *
+ * undo(n) and branch() work on a shared immutable history and never recompute. History before the
+ * latest checkpoint is not replayed, so after a restart undo reaches back to that checkpoint only.
+ * Not thread-safe, like OperationChain.
+ */
+public class JournaledChain implements OperationChainBuilder, Closeable {
+
+    public static final int DEFAULT_GROUP_SIZE = 64;
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 10_000;
+
+    private final Calculator calculator;
+    private final Journal journal;
+    private final int checkpointInterval;
+    private History state;
+    // The last checkpoint is always this chain's state or one of its ancestors
+    private long checkpointDepth;
+    private int sinceCheckpoint;
+
+    private JournaledChain(Calculator calculator, Journal journal, int checkpointInterval, History state) {
+        this.calculator = calculator;
+        this.journal = journal;
+        this.checkpointInterval = checkpointInterval;
+        this.state = state;
+        this.checkpointDepth = state.oldest().depth;
+    }
+
+    // Starts a session at initialValue, or recovers the one already in the file (initialValue is then ignored)
+    public static JournaledChain open(Path file, Calculator calculator, double initialValue) throws IOException {
+        return open(file, calculator, initialValue, DEFAULT_GROUP_SIZE, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    public static JournaledChain open(Path file, Calculator calculator, double initialValue, int groupSize,
+                                      int checkpointInterval) throws IOException {
+        if (groupSize < 1 || checkpointInterval < 1) {
+            throw new InvalidInputException("group size " + groupSize + ", checkpoint interval " + checkpointInterval);
+        }
+        Journal journal = Journal.open(file, groupSize, initialValue);
+        return new JournaledChain(calculator, journal, checkpointInterval, journal.recovered() != null
+                ? journal.recovered() : History.root(0, initialValue));
+    }
+
+    @Override
+    public OperationChainBuilder chain(Operation op, Number operand) {
+        if (operand == null) {
+            // Let the calculator's error policy decide what a null operand means
+            return record(op, Double.NaN, calculator.calculate(op, state.value, null).doubleValue());
+        }
+        return chain(op, operand.doubleValue());
+    }
+
+    @Override
+    public OperationChainBuilder chain(Operation op, double operand) {
+        return record(op, operand, calculator.calculateAsDouble(op, state.value, operand));
+    }
+
+    private OperationChainBuilder record(Operation op, double operand, double result) {
+        if (journal != null) {
+            try {
+                journal.step(op, operand, result);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        state = state.push(result);
+        if (journal != null && ++sinceCheckpoint >= checkpointInterval) {
+            checkpoint();
+        }
+        return this;
+    }
+
+    public JournaledChain undo() {
+        return undo(1);
+    }
+
+    public JournaledChain undo(int steps) {
+        History target = steps < 0 ? null : state.ancestor(steps);
+        if (target == null) {
+            throw new InvalidInputException("cannot undo " + steps + " of " + undoableSteps() + " steps");
+        }
+        state = target;
+        if (journal != null && steps > 0) {
+            if (target.depth < checkpointDepth) {
+                // Replay starts at the checkpoint and could not undo past it, so record the new state instead
+                checkpoint();
+            } else {
+                try {
+                    journal.undo(steps);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return this;
+    }
+
+    // Steps that undo can still reach back through
+    public long undoableSteps() {
+        return state.depth - state.oldest().depth;
+    }
+
+    // Total steps applied since the session started, net of undos
+    public long depth() {
+        return state.depth;
+    }
+
+    // An in-memory copy of this session from its current state; it shares history and is not journaled
+    public JournaledChain branch() {
+        return new JournaledChain(calculator, null, checkpointInterval, state);
+    }
+
+    public void checkpoint() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.checkpoint(state);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        checkpointDepth = state.depth;
+        sinceCheckpoint = 0;
+    }
+
+    public void sync() {
+        if (journal != null) {
+            journal.sync();
+        }
+    }
+
+    @Override
+    public Number getResult() {
+        return state.value;
+    }
+
+    @Override
+    public double getResultAsDouble() {
+        return state.value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
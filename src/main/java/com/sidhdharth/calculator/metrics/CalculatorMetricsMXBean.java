@@ -0,0 +1,19 @@
+package com.sidhdharth.calculator.metrics;
+
+import java.util.Map;
+
+public interface CalculatorMetricsMXBean {
+    long getTotalCalls();
+
+    long getTotalErrors();
+
+    Map<String, Long> getCallCounts();
+
+    Map<String, Long> getErrorCounts();
+
+    Map<String, Double> getMeanLatencyNanos();
+
+    Map<String, Long> getP99LatencyNanos();
+
+    void reset();
+}
@@ -0,0 +1,280 @@
+package com.sidhdharth.calculator.metrics;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.api.ErrorCode;
+import com.sidhdharth.calculator.api.ResultCode;
+import com.sidhdharth.calculator.api.ZeroDivisorPolicy;
+import com.sidhdharth.calculator.chain.FoldingMode;
+import com.sidhdharth.calculator.chain.LazyOperationChain;
+import com.sidhdharth.calculator.chain.OperationChain;
+import com.sidhdharth.calculator.chain.OperationChainBuilder;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.exception.NullOperandException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationType;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Calculator decorator that counts calls, errors by exception type and latency per operation.
+ * Counts are exact; latency is timed for about one call in latencySampleRate because System.nanoTime
+ * costs more than the arithmetic it would measure. Chains started here step through this
+ * decorator, so chain steps are measured too. A batch call is recorded as one call.
+ *
+ * Operations outside OperationType are reported under their first symbol in sorted order, so the
+ * names are the ones the registry knows. Operations without symbols, and any beyond the first
+ * MAX_CUSTOM_OPERATIONS names, share the "other" entry, which keeps the metrics bounded when callers
+ * pass a new lambda on every call. The resolved entry is remembered per Operation instance in a small
+ * direct-mapped cache, so repeat calls with the same instance neither allocate nor lock; the cache has a
+ * fixed size, so a stream of new lambdas only overwrites slots.
+ */
+public class InstrumentedCalculator implements Calculator, CalculatorMetricsMXBean {
+    private static final String OTHER = "other";
+    public static final int DEFAULT_LATENCY_SAMPLE_RATE = 1024;
+    public static final int MAX_CUSTOM_OPERATIONS = 32;
+    private static final int RESOLVED_SLOTS = 64;
+
+    private final Calculator delegate;
+    private final int sampleRate;
+    private final OperationMetrics[] builtIn = new OperationMetrics[OperationType.values().length];
+    private final Map<String, OperationMetrics> custom = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    // Racy reads and writes are safe: a Resolved is immutable, and a miss only repeats the lookup
+    private final Resolved[] resolved = new Resolved[RESOLVED_SLOTS];
+
+    public InstrumentedCalculator(Calculator delegate) {
+        this(delegate, DEFAULT_LATENCY_SAMPLE_RATE);
+    }
+
+    // 1 times every call
+    public InstrumentedCalculator(Calculator delegate, int latencySampleRate) {
+        if (latencySampleRate <= 0) {
+            throw new InvalidInputException("latency sample rate " + latencySampleRate);
+        }
+        this.delegate = delegate;
+        this.sampleRate = latencySampleRate;
+        for (int i = 0; i < builtIn.length; i++) {
+            builtIn[i] = new OperationMetrics(latencySampleRate);
+        }
+    }
+
+    @Override
+    public Number calculate(Operation op, Number num1, Number num2) {
+        OperationMetrics metrics = metrics(op);
+        long start = metrics.begin();
+        try {
+            Number result = delegate.calculate(op, num1, num2);
+            double code = result != null && ResultCode.isError(result.doubleValue()) ? result.doubleValue() : 0;
+            record(metrics, start, code);
+            return result;
+        } catch (RuntimeException e) {
+            recordFailure(metrics, start, e.getClass());
+            throw e;
+        }
+    }
+
+    @Override
+    public double calculateAsDouble(Operation op, double num1, double num2) {
+        OperationMetrics metrics = metrics(op);
+        long start = metrics.begin();
+        try {
+            double result = delegate.calculateAsDouble(op, num1, num2);
+            record(metrics, start, result);
+            return result;
+        } catch (RuntimeException e) {
+            recordFailure(metrics, start, e.getClass());
+            throw e;
+        }
+    }
+
+    @Override
+    public void calculateBatch(Operation op, double[] num1, double[] num2, double[] out, ZeroDivisorPolicy policy) {
+        OperationMetrics metrics = metrics(op);
+        long start = metrics.begin();
+        try {
+            delegate.calculateBatch(op, num1, num2, out, policy);
+            record(metrics, start, 0);
+        } catch (RuntimeException e) {
+            recordFailure(metrics, start, e.getClass());
+            throw e;
+        }
+    }
+
+    @Override
+    public void calculateBatch(Operation op, double[] num1, double num2, double[] out, ZeroDivisorPolicy policy) {
+        OperationMetrics metrics = metrics(op);
+        long start = metrics.begin();
+        try {
+            delegate.calculateBatch(op, num1, num2, out, policy);
+            record(metrics, start, 0);
+        } catch (RuntimeException e) {
+            recordFailure(metrics, start, e.getClass());
+            throw e;
+        }
+    }
+
+    @Override
+    public void calculateBatch(Operation op, double num1, double[] num2, double[] out, ZeroDivisorPolicy policy) {
+        OperationMetrics metrics = metrics(op);
+        long start = metrics.begin();
+        try {
+            delegate.calculateBatch(op, num1, num2, out, policy);
+            record(metrics, start, 0);
+        } catch (RuntimeException e) {
+            recordFailure(metrics, start, e.getClass());
+            throw e;
+        }
+    }
+
+    @Override
+    public OperationChainBuilder start(Number initialValue) {
+        if (initialValue == null) {
+            // The delegate's error policy decides what a missing seed means
+            return delegate.start(initialValue);
+        }
+        return new OperationChain(initialValue, this);
+    }
+
+    @Override
+    public OperationChainBuilder start(double initialValue) {
+        return new OperationChain(initialValue, this);
+    }
+
+    // Steps are not inlined: each one goes through this decorator, so it is measured and the delegate's
+    // arithmetic applies
+    @Override
+    public LazyOperationChain startLazy(double initialValue, FoldingMode mode) {
+        if (mode == null) {
+            throw new NullOperandException();
+        }
+        return new LazyOperationChain(initialValue, this, mode, false);
+    }
+
+    // result is inspected for an error code so RESULT_CODE failures are counted like exceptions
+    private void record(OperationMetrics metrics, long start, double result) {
+        boolean failed = ResultCode.isError(result);
+        metrics.end(start, failed);
+        if (failed) {
+            ErrorCode code = ResultCode.errorCode(result);
+            countError(code == null ? OTHER : code.exceptionType().getSimpleName());
+        }
+    }
+
+    private void recordFailure(OperationMetrics metrics, long start, Class<?> type) {
+        metrics.end(start, true);
+        countError(type.getSimpleName());
+    }
+
+    private void countError(String type) {
+        errors.computeIfAbsent(type, k -> new LongAdder()).increment();
+    }
+
+    private OperationMetrics metrics(Operation op) {
+        if (op instanceof OperationType type) {
+            return builtIn[type.ordinal()];
+        }
+        int slot = System.identityHashCode(op) & (RESOLVED_SLOTS - 1);
+        Resolved hit = resolved[slot];
+        if (hit != null && hit.op == op) {
+            return hit.metrics;
+        }
+        OperationMetrics metrics = resolve(op);
+        resolved[slot] = new Resolved(op, metrics);
+        return metrics;
+    }
+
+    private OperationMetrics resolve(Operation op) {
+        String name = null;
+        if (op != null) {
+            for (String symbol : op.symbols()) {
+                if (name == null || symbol.compareTo(name) < 0) {
+                    name = symbol;
+                }
+            }
+        }
+        if (name == null) {
+            name = OTHER;
+        }
+        OperationMetrics metrics = custom.get(name);
+        if (metrics != null) {
+            return metrics;
+        }
+        synchronized (custom) {
+            if (custom.size() >= MAX_CUSTOM_OPERATIONS) {
+                name = OTHER;
+            }
+            return custom.computeIfAbsent(name, k -> new OperationMetrics(sampleRate));
+        }
+    }
+
+    private record Resolved(Operation op, OperationMetrics metrics) {
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<String, MetricsSnapshot.OperationStats> operations = new TreeMap<>();
+        for (OperationType type : OperationType.values()) {
+            operations.put(type.name(), builtIn[type.ordinal()].snapshot());
+        }
+        custom.forEach((name, metrics) -> operations.put(name, metrics.snapshot()));
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((type, count) -> errorCounts.put(type, count.sum()));
+        return new MetricsSnapshot(operations, errorCounts);
+    }
+
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("com.sidhdharth.calculator:type=CalculatorMetrics,name=" + name);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public long getTotalCalls() {
+        return snapshot().totalCalls();
+    }
+
+    @Override
+    public long getTotalErrors() {
+        return snapshot().totalErrors();
+    }
+
+    @Override
+    public Map<String, Long> getCallCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        snapshot().operations().forEach((name, stats) -> counts.put(name, stats.calls()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        return snapshot().errors();
+    }
+
+    @Override
+    public Map<String, Double> getMeanLatencyNanos() {
+        Map<String, Double> means = new TreeMap<>();
+        snapshot().operations().forEach((name, stats) -> means.put(name, stats.meanNanos()));
+        return means;
+    }
+
+    @Override
+    public Map<String, Long> getP99LatencyNanos() {
+        Map<String, Long> p99 = new TreeMap<>();
+        snapshot().operations().forEach((name, stats) -> p99.put(name, stats.percentileNanos(0.99)));
+        return p99;
+    }
+
+    @Override
+    public void reset() {
+        for (OperationMetrics metrics : builtIn) {
+            metrics.reset();
+        }
+        custom.values().forEach(OperationMetrics::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+}
@@ -0,0 +1,44 @@
+package com.sidhdharth.calculator.metrics;
+
+import java.util.Map;
+
+public record MetricsSnapshot(Map<String, OperationStats> operations, Map<String, Long> errors) {
+
+    public long totalCalls() {
+        return operations.values().stream().mapToLong(OperationStats::calls).sum();
+    }
+
+    public long totalErrors() {
+        return errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    // Latency covers the sampled calls only: histogram[i] counts those that took [2^(i-1), 2^i) nanoseconds
+    public record OperationStats(long calls, long errors, long totalNanos, long[] histogram) {
+
+        public long sampledCalls() {
+            long sampled = 0;
+            for (long count : histogram) {
+                sampled += count;
+            }
+            return sampled;
+        }
+
+        public double meanNanos() {
+            long sampled = sampledCalls();
+            return sampled == 0 ? 0 : (double) totalNanos / sampled;
+        }
+
+        // Upper bound of the histogram bucket holding the given quantile, so accurate to a factor of two
+        public long percentileNanos(double quantile) {
+            long rank = (long) Math.ceil(quantile * sampledCalls());
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank && seen > 0) {
+                    return i == 0 ? 0 : 1L << i;
+                }
+            }
+            return 0;
+        }
+    }
+}
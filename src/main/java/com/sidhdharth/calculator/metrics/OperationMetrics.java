@@ -0,0 +1,166 @@
+package com.sidhdharth.calculator.metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Counters for one operation. Every call is counted in a cell owned by the calling thread, with a plain
+ * store rather than an atomic add, so the hot path has no locked instruction; the cells of threads that
+ * have died are folded into one total. The cell also counts down to the next call whose latency is timed.
+ * Errors and sampled latencies are rarer and go to LongAdders, which keep concurrent callers off a shared
+ * cache line.
+ *
+ * A new thread appends its cell to a lock-free queue, so thread-per-task executors do not queue up behind
+ * each other. Dead cells are folded and dropped by readers, under a lock only readers take; a registering
+ * thread also prunes once the queue has doubled since the last prune, but only if no reader holds the lock,
+ * so it never waits. Cells hold their thread weakly, so finished threads can be collected before a prune.
+ */
+final class OperationMetrics {
+    // Bucket i counts calls that took [2^(i-1), 2^i) nanoseconds, bucket 0 counts 0 ns
+    static final int BUCKETS = 48;
+    static final long NOT_SAMPLED = Long.MIN_VALUE;
+    private static final int MIN_PRUNE = 64;
+    private static final VarHandle CALLS;
+
+    static {
+        try {
+            CALLS = MethodHandles.lookup().findVarHandle(Cell.class, "calls", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int sampleRate;
+    private final ThreadLocal<Cell> cells = ThreadLocal.withInitial(this::register);
+    private final ConcurrentLinkedQueue<Cell> live = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger registered = new AtomicInteger();
+    private final ReentrantLock readLock = new ReentrantLock();
+    // Written under readLock; pruneAt is also read by registering threads
+    private long retired;
+    private long resetAt;
+    private volatile int pruneAt = MIN_PRUNE;
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder[] latency = new LongAdder[BUCKETS];
+
+    OperationMetrics(int sampleRate) {
+        this.sampleRate = sampleRate;
+        for (int i = 0; i < BUCKETS; i++) {
+            latency[i] = new LongAdder();
+        }
+    }
+
+    // Counts a call and returns its start time when it is one to time, NOT_SAMPLED otherwise
+    long begin() {
+        Cell cell = cells.get();
+        // Only the owner writes its cell; the release store keeps the long whole for snapshot()
+        CALLS.setRelease(cell, cell.calls + 1);
+        if (--cell.countdown > 0) {
+            return NOT_SAMPLED;
+        }
+        cell.countdown = nextInterval();
+        return System.nanoTime();
+    }
+
+    void end(long start, boolean failed) {
+        if (failed) {
+            errors.increment();
+        }
+        if (start != NOT_SAMPLED) {
+            recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    private void recordLatency(long nanos) {
+        totalNanos.add(nanos);
+        latency[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(nanos, 0)))].increment();
+    }
+
+    // Random gaps averaging sampleRate, so a workload that repeats with the same period is not always missed
+    private int nextInterval() {
+        return sampleRate == 1 ? 1 : ThreadLocalRandom.current().nextInt(1, 2 * sampleRate);
+    }
+
+    private Cell register() {
+        Cell cell = new Cell(Thread.currentThread(), nextInterval());
+        live.add(cell);
+        if (registered.incrementAndGet() >= pruneAt && readLock.tryLock()) {
+            try {
+                calls();
+            } finally {
+                readLock.unlock();
+            }
+        }
+        return cell;
+    }
+
+    // Folds the cells of dead threads into retired, whose last stores are visible once isAlive() is false or
+    // the thread has been collected; the caller holds readLock
+    private long calls() {
+        long sum = retired;
+        int size = 0;
+        for (Iterator<Cell> it = live.iterator(); it.hasNext(); ) {
+            Cell cell = it.next();
+            Thread owner = cell.owner.get();
+            long calls = (long) CALLS.getAcquire(cell);
+            if (owner != null && owner.isAlive()) {
+                size++;
+            } else {
+                retired += calls;
+                it.remove();
+            }
+            sum += calls;
+        }
+        registered.set(0);
+        pruneAt = Math.max(MIN_PRUNE, size);
+        return sum;
+    }
+
+    MetricsSnapshot.OperationStats snapshot() {
+        long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = latency[i].sum();
+        }
+        long calls;
+        readLock.lock();
+        try {
+            calls = calls() - resetAt;
+        } finally {
+            readLock.unlock();
+        }
+        return new MetricsSnapshot.OperationStats(calls, errors.sum(), totalNanos.sum(), histogram);
+    }
+
+    // Cells belong to their threads, so calls are reset by remembering where the count stood
+    void reset() {
+        readLock.lock();
+        try {
+            resetAt = calls();
+        } finally {
+            readLock.unlock();
+        }
+        errors.reset();
+        totalNanos.reset();
+        for (LongAdder bucket : latency) {
+            bucket.reset();
+        }
+    }
+
+    private static final class Cell {
+        private final WeakReference<Thread> owner;
+        private long calls;
+        private int countdown;
+
+        Cell(Thread owner, int countdown) {
+            this.owner = new WeakReference<>(owner);
+            this.countdown = countdown;
+        }
+    }
+}
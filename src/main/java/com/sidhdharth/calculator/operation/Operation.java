@@ -1,5 +1,20 @@
 package com.sidhdharth.calculator.operation;
 
+import java.util.Set;
+
+/*
+ * A binary operation on doubles. Operations outside OperationType can be made available to the parsers by
+ * listing them in META-INF/services/com.sidhdharth.calculator.operation.Operation; they need a public
+ * no-argument constructor and at least one symbol. See OperationRegistry.
+ */
 public interface Operation {
-    Number apply(Number num1, Number num2);
+    double applyAsDouble(double num1, double num2);
+
+    default Set<String> symbols() {
+        return Set.of();
+    }
+
+    default Number apply(Number num1, Number num2) {
+        return applyAsDouble(num1.doubleValue(), num2.doubleValue());
+    }
 }
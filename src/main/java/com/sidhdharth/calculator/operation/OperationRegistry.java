@@ -0,0 +1,111 @@
+package com.sidhdharth.calculator.operation;
+
+import com.sidhdharth.calculator.exception.InvalidOperationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/*
+ * Maps symbols to operations: the OperationType constants plus any extensions. All lookup tables are
+ * built once, when the registry is created, and never change afterwards, so lookups are a single hash
+ * probe (or an array index for ASCII characters) and allocate nothing. A symbol claimed by two operations
+ * is rejected when the registry is built rather than resolved by order.
+ */
+public final class OperationRegistry {
+    private final List<Operation> operations;
+    private final Map<String, Operation> bySymbol;
+    private final Operation[] byAscii = new Operation[128];
+    private final String allSymbols;
+
+    private OperationRegistry(Collection<? extends Operation> extensions) {
+        List<Operation> ops = new ArrayList<>(List.of(OperationType.values()));
+        ops.addAll(extensions);
+        Map<String, Operation> symbols = new HashMap<>();
+        List<String> all = new ArrayList<>();
+        for (Operation op : ops) {
+            if (op.symbols().isEmpty()) {
+                throw new IllegalArgumentException(name(op) + " declares no symbols");
+            }
+            for (String symbol : op.symbols()) {
+                if (symbol.isBlank() || !symbol.equals(symbol.trim())) {
+                    throw new IllegalArgumentException(name(op) + " declares the symbol '" + symbol + "'");
+                }
+                Operation previous = symbols.putIfAbsent(symbol, op);
+                if (previous != null) {
+                    throw new IllegalArgumentException("Symbol '" + symbol + "' is claimed by both "
+                            + name(previous) + " and " + name(op));
+                }
+                all.add(symbol);
+                if (symbol.length() == 1 && symbol.charAt(0) < byAscii.length) {
+                    byAscii[symbol.charAt(0)] = op;
+                }
+            }
+        }
+        this.operations = List.copyOf(ops);
+        this.bySymbol = Map.copyOf(symbols);
+        this.allSymbols = String.join(", ", all);
+    }
+
+    // The built-in operations plus the given extensions
+    public static OperationRegistry of(Collection<? extends Operation> extensions) {
+        return new OperationRegistry(extensions);
+    }
+
+    // The built-in operations plus every Operation the class loader's ServiceLoader finds
+    public static OperationRegistry load(ClassLoader loader) {
+        List<Operation> extensions = new ArrayList<>();
+        ServiceLoader.load(Operation.class, loader).forEach(extensions::add);
+        try {
+            return new OperationRegistry(extensions);
+        } catch (IllegalArgumentException e) {
+            throw new ServiceConfigurationError(Operation.class.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Loaded on first use from the class loader of this class
+    public static OperationRegistry getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public List<Operation> operations() {
+        return operations;
+    }
+
+    public Operation fromSymbol(String input) {
+        Operation op = bySymbol.get(input.trim());
+        if (op == null) {
+            throw new InvalidOperationException(input);
+        }
+        return op;
+    }
+
+    // The operation claiming symbol, or null; for parsers that try more than one reading of a token
+    public Operation find(String symbol) {
+        return bySymbol.get(symbol);
+    }
+
+    public Operation fromSymbol(char symbol) {
+        Operation op = symbol < byAscii.length ? byAscii[symbol] : null;
+        if (op == null) {
+            throw new InvalidOperationException(String.valueOf(symbol));
+        }
+        return op;
+    }
+
+    public String allSymbols() {
+        return allSymbols;
+    }
+
+    private static String name(Operation op) {
+        return op instanceof OperationType type ? type.name() : op.getClass().getName();
+    }
+
+    private static final class DefaultHolder {
+        static final OperationRegistry INSTANCE = load(OperationRegistry.class.getClassLoader());
+    }
+}
@@ -6,67 +6,95 @@ import com.sidhdharth.calculator.exception.ModuloByZeroException;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
-import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
 
 public enum OperationType implements Operation {
     // Addition operation
 
     ADD((num1, num2) -> {
-        double result = num1.doubleValue() + num2.doubleValue();
+        double result = num1 + num2;
         return result == -0.0 ? 0.0 : result;
     }, "+"),
 
     // Subtraction operation
-    SUBTRACT((num1, num2) -> num1.doubleValue() - num2.doubleValue(), "-"),
+    SUBTRACT((num1, num2) -> num1 - num2, "-"),
 
     // Multiplication operation
-    MULTIPLY((num1, num2) -> num1.doubleValue() * num2.doubleValue(), "*", "x", "X"),
+    MULTIPLY((num1, num2) -> num1 * num2, "*", "x", "X"),
 
     // Modulo operation
     MODULO((num1, num2) -> {
-        if (num2.doubleValue() == 0) {
+        if (num2 == 0) {
             throw new ModuloByZeroException();
         }
-        double result = num1.doubleValue() % num2.doubleValue();
+        double result = num1 % num2;
         return result == -0.0 ? 0.0 : result;
     }, "%"),
 
     // Division operation
     DIVIDE((num1, num2) -> {
-        if (num2.doubleValue() == 0) {
+        if (num2 == 0) {
             throw new DivisionByZeroException();
         }
-        return num1.doubleValue() / num2.doubleValue();
+        return num1 / num2;
     }, "/");
 
-    private final BiFunction<Number, Number, Number> operation;
+    // Single-character ASCII symbols, indexed by the character, for parsers that work on raw bytes
+    private static final OperationType[] BY_ASCII = new OperationType[128];
+    private static final Map<String, OperationType> BY_SYMBOL;
+    private static final String ALL_SYMBOLS;
+
+    static {
+        Map<String, OperationType> bySymbol = new HashMap<>();
+        List<String> all = new ArrayList<>();
+        for (OperationType op : values()) {
+            for (String symbol : op.symbols) {
+                bySymbol.put(symbol, op);
+                all.add(symbol);
+                if (symbol.length() == 1 && symbol.charAt(0) < BY_ASCII.length) {
+                    BY_ASCII[symbol.charAt(0)] = op;
+                }
+            }
+        }
+        BY_SYMBOL = Map.copyOf(bySymbol);
+        ALL_SYMBOLS = String.join(", ", all);
+    }
+
+    private final DoubleBinaryOperator operation;
     private final Set<String> symbols;
 
-    OperationType(BiFunction<Number, Number, Number> operation, String... symbols) {
+    OperationType(DoubleBinaryOperator operation, String... symbols) {
         this.operation = operation;
         this.symbols = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(symbols)));
     }
 
     @Override
-    public Number apply(Number num1, Number num2) {
-        return operation.apply(num1, num2);
+    public double applyAsDouble(double num1, double num2) {
+        return operation.applyAsDouble(num1, num2);
+    }
+
+    @Override
+    public Set<String> symbols() {
+        return symbols;
     }
 
     public static OperationType fromSymbol(String input) {
-        String sym = input.trim();
-        for (OperationType op : values()) {
-            if (op.symbols.contains(sym)) {
-                return op;
-            }
+        OperationType op = BY_SYMBOL.get(input.trim());
+        if (op == null) {
+            throw new InvalidOperationException(input);
         }
-        throw new InvalidOperationException(input);
+        return op;
     }
 
-    public static @NotNull String allSymbols() {
-        List<String> all = new ArrayList<>();
-        for (OperationType op : values()) {
-            all.addAll(op.symbols);
+    public static OperationType fromSymbol(char symbol) {
+        OperationType op = symbol < BY_ASCII.length ? BY_ASCII[symbol] : null;
+        if (op == null) {
+            throw new InvalidOperationException(String.valueOf(symbol));
         }
-        return String.join(", ", all);
+        return op;
+    }
+
+    public static @NotNull String allSymbols() {
+        return ALL_SYMBOLS;
     }
 }
@@ -0,0 +1,23 @@
+package com.sidhdharth.calculator.server;
+
+import com.sidhdharth.calculator.api.Calculator;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+public interface CalculatorServer extends AutoCloseable {
+
+    static CalculatorServer start(Calculator calculator, InetSocketAddress address, ServerMode mode)
+            throws IOException {
+        return switch (mode) {
+            case NIO -> new NioCalculatorServer(calculator, address);
+            case THREAD_PER_CONNECTION -> new ThreadedCalculatorServer(calculator, address);
+        };
+    }
+
+    // Bound address, with the actual port when started on port 0
+    InetSocketAddress address();
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,154 @@
+package com.sidhdharth.calculator.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Closed-loop load generator: each connection keeps `pipeline` requests in flight, sending them in
+ * one write and timing each until its response arrives. Errors count failed answers: an ERR line, or
+ * each ERR item of a BATCH response.
+ *
+ *   LoadGenerator <host> <port> [connections=4] [pipeline=16] [seconds=10]
+ */
+public class LoadGenerator {
+
+    private static final String[] REQUESTS = {
+            "12.5 + 7.25", "100 - 33.3", "6 * 7", "1 / 3", "10 % 4",
+            "CHAIN 5 + 3 * 2 - 1 / 3", "BATCH 1 + 1; 2 * 2; 3 / 0"
+    };
+
+    public record Report(long requests, long errors, double seconds, long p50Nanos, long p99Nanos, long maxNanos) {
+        public double requestsPerSecond() {
+            return requests / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests (%d errors) in %.1f s: %.0f req/s, p50 %.1f us, p99 %.1f us, max %.1f us",
+                    requests, errors, seconds, requestsPerSecond(), p50Nanos / 1e3, p99Nanos / 1e3, maxNanos / 1e3);
+        }
+    }
+
+    public static Report run(InetSocketAddress address, int connections, int pipeline, long durationMillis)
+            throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(connections);
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+            List<Future<Sample>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < connections; i++) {
+                futures.add(executor.submit(() -> drive(address, pipeline, deadline)));
+            }
+            long[] latencies = new long[0];
+            long errors = 0;
+            for (Future<Sample> future : futures) {
+                Sample sample = future.get();
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + sample.count);
+                System.arraycopy(sample.latencies, 0, latencies, offset, sample.count);
+                errors += sample.errors;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(latencies);
+            return new Report(latencies.length, errors, seconds, percentile(latencies, 0.50),
+                    percentile(latencies, 0.99), latencies.length == 0 ? 0 : latencies[latencies.length - 1]);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Load connection failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Sample drive(InetSocketAddress address, int pipeline, long deadline) throws IOException {
+        Sample sample = new Sample();
+        long[] sentAt = new long[pipeline];
+        int next = 0;
+        try (Socket socket = new Socket(address.getAddress(), address.getPort());
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             BufferedWriter writer = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            socket.setTcpNoDelay(true);
+            while (System.nanoTime() < deadline) {
+                for (int i = 0; i < pipeline; i++) {
+                    writer.write(REQUESTS[next++ % REQUESTS.length]);
+                    writer.write('\n');
+                    sentAt[i] = System.nanoTime();
+                }
+                writer.flush();
+                for (int i = 0; i < pipeline; i++) {
+                    String response = reader.readLine();
+                    if (response == null) {
+                        throw new IOException("Server closed the connection");
+                    }
+                    sample.add(System.nanoTime() - sentAt[i], errors(response));
+                }
+            }
+        }
+        return sample;
+    }
+
+    // An ERR line is one error; an OK line may still hold ERR items when it answers a BATCH
+    static int errors(String response) {
+        if (response.startsWith("ERR")) {
+            return 1;
+        }
+        int errors = 0;
+        for (int i = response.indexOf(' ') + 1; i > 0; i = response.indexOf(';', i) + 1) {
+            if (response.startsWith("ERR", i)) {
+                errors++;
+            }
+        }
+        return errors;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static final class Sample {
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        void add(long nanos, int failed) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            errors += failed;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: LoadGenerator <host> <port> [connections] [pipeline] [seconds]");
+            System.exit(2);
+        }
+        InetSocketAddress address = new InetSocketAddress(args[0], Integer.parseInt(args[1]));
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int pipeline = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+        long seconds = args.length > 4 ? Long.parseLong(args[4]) : 10;
+        System.out.println(run(address, connections, pipeline, TimeUnit.SECONDS.toMillis(seconds)));
+    }
+}
@@ -0,0 +1,203 @@
+package com.sidhdharth.calculator.server;
+
+import com.sidhdharth.calculator.api.Calculator;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/*
+ * Single-threaded selector loop. Every complete line read in one pass is answered into the
+ * connection's output buffer, which is then written once, so pipelined requests share a write.
+ * A connection is not read while answers are still unsent, and at most MAX_PENDING bytes of
+ * answers are buffered, so a client that pipelines without reading cannot grow the heap. When the
+ * client stops sending, a last line without a newline is answered too, and the connection closes
+ * after its answers are written.
+ * A RuntimeException escaping one connection closes that connection only; the loop keeps serving the rest.
+ */
+final class NioCalculatorServer implements CalculatorServer {
+    private static final int MAX_LINE = 1 << 20;
+    private static final int MAX_PENDING = 1 << 16;
+    private static final System.Logger LOG = System.getLogger(NioCalculatorServer.class.getName());
+
+    private final RequestHandler handler;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Thread loop;
+
+    NioCalculatorServer(Calculator calculator, InetSocketAddress address) throws IOException {
+        this.handler = new RequestHandler(calculator);
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.loop = new Thread(this::run, "calculator-nio");
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    @Override
+    public InetSocketAddress address() {
+        return (InetSocketAddress) server.socket().getLocalSocketAddress();
+    }
+
+    private void run() {
+        try {
+            while (selector.isOpen()) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection connection = (Connection) key.attachment();
+                            if (key.isReadable()) {
+                                connection.read(key);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.write(key);
+                            }
+                        }
+                    } catch (IOException e) {
+                        key.cancel();
+                        key.channel().close();
+                    } catch (ClosedSelectorException e) {
+                        return; // closed by close()
+                    } catch (RuntimeException e) {
+                        // The handler answers its own failures, so this is a bug; drop the connection, keep the loop
+                        LOG.log(System.Logger.Level.ERROR, "dropping connection after unexpected failure", e);
+                        if (key.channel() != server) {
+                            key.cancel();
+                            key.channel().close();
+                        }
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            // Selector closed by close()
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(java.net.StandardSocketOptions.TCP_NODELAY, true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection());
+    }
+
+    @Override
+    public void close() throws IOException {
+        selector.close();
+        server.close();
+        try {
+            loop.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Connection {
+        private ByteBuffer in = ByteBuffer.allocate(8192);
+        private ByteBuffer out = ByteBuffer.allocate(8192);
+        private boolean closing;
+
+        void read(SelectionKey key) throws IOException {
+            SocketChannel channel = (SocketChannel) key.channel();
+            if (!in.hasRemaining()) {
+                if (in.capacity() >= MAX_LINE) {
+                    throw new IOException("Request line too long");
+                }
+                in = grow(in, in.capacity() * 2);
+            }
+            if (channel.read(in) < 0) {
+                // The client is done sending: a last line without its newline still gets an answer, and
+                // the connection closes once every answer is written
+                closing = true;
+                if (in.position() > 0 && in.get(in.position() - 1) != '\n') {
+                    if (!in.hasRemaining()) {
+                        in = grow(in, in.capacity() + 1);
+                    }
+                    in.put((byte) '\n');
+                }
+            }
+            write(key);
+        }
+
+        // Answers buffered requests and writes the answers until the socket pushes back or nothing is left
+        void write(SelectionKey key) throws IOException {
+            while (true) {
+                boolean backlog = answer();
+                out.flip();
+                ((SocketChannel) key.channel()).write(out);
+                boolean pending = out.hasRemaining();
+                out.compact();
+                if (pending) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                    return;
+                }
+                if (!backlog) {
+                    if (closing) {
+                        key.cancel();
+                        key.channel().close();
+                    } else {
+                        key.interestOps(SelectionKey.OP_READ);
+                    }
+                    return;
+                }
+            }
+        }
+
+        // Answers complete lines until MAX_PENDING bytes are buffered; true when complete lines are left over
+        private boolean answer() {
+            in.flip();
+            int start = in.position();
+            boolean backlog = false;
+            for (int i = start; i < in.limit(); i++) {
+                if (in.get(i) == '\n') {
+                    if (out.position() >= MAX_PENDING) {
+                        backlog = true;
+                        break;
+                    }
+                    String line = new String(in.array(), start, i - start, StandardCharsets.US_ASCII);
+                    respond(handler.handle(line));
+                    start = i + 1;
+                }
+            }
+            in.position(start);
+            in.compact();
+            return backlog;
+        }
+
+        private void respond(String response) {
+            int needed = response.length() + 1;
+            if (out.remaining() < needed) {
+                out = grow(out, Math.max(out.capacity() * 2, out.position() + needed));
+            }
+            for (int i = 0; i < response.length(); i++) {
+                out.put((byte) response.charAt(i));
+            }
+            out.put((byte) '\n');
+        }
+
+        private ByteBuffer grow(ByteBuffer buffer, int capacity) {
+            ByteBuffer bigger = ByteBuffer.allocate(capacity);
+            buffer.flip();
+            bigger.put(buffer);
+            return bigger;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.sidhdharth.calculator.server;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.exception.CalculatorException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationRegistry;
+
+/*
+ * Line protocol, one request per line and one response line per request, in order:
+ *
+ *   <a> <op> <b>                        single operation       -> OK <result>
+ *   CHAIN <seed> <op> <n> [<op> <n>]... chained operations     -> OK <result>
+ *   BATCH <a> <op> <b>[; <a> <op> <b>]...  independent operations -> OK <r1>;<r2>;...
+ *
+ * A failed request answers "ERR <message>". In a batch only the failing item becomes "ERR <message>".
+ * Any RuntimeException becomes an ERR line, including one thrown by an extension Operation, so a faulty
+ * operation fails its request rather than the connection or the server loop.
+ */
+final class RequestHandler {
+    private final Calculator calculator;
+
+    RequestHandler(Calculator calculator) {
+        this.calculator = calculator;
+    }
+
+    String handle(String line) {
+        try {
+            String request = line.trim();
+            if (request.regionMatches(true, 0, "CHAIN ", 0, 6)) {
+                return "OK " + chain(request.substring(6));
+            }
+            if (request.regionMatches(true, 0, "BATCH ", 0, 6)) {
+                return "OK " + batch(request.substring(6));
+            }
+            return "OK " + single(request);
+        } catch (RuntimeException e) {
+            return "ERR " + message(e);
+        }
+    }
+
+    private double single(String request) {
+        String[] parts = tokens(request);
+        if (parts.length != 3) {
+            throw new InvalidInputException(request);
+        }
+        Operation op = OperationRegistry.getDefault().fromSymbol(parts[1]);
+        return calculator.calculateAsDouble(op, number(parts[0]), number(parts[2]));
+    }
+
+    private double chain(String request) {
+        String[] parts = tokens(request);
+        if (parts.length % 2 == 0) {
+            throw new InvalidInputException(request);
+        }
+        double value = number(parts[0]);
+        for (int i = 1; i < parts.length; i += 2) {
+            Operation op = OperationRegistry.getDefault().fromSymbol(parts[i]);
+            value = calculator.calculateAsDouble(op, value, number(parts[i + 1]));
+        }
+        return value;
+    }
+
+    private String batch(String request) {
+        StringBuilder sb = new StringBuilder();
+        for (String item : request.split(";")) {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            try {
+                sb.append(single(item.trim()));
+            } catch (RuntimeException e) {
+                sb.append("ERR ").append(message(e));
+            }
+        }
+        return sb.toString();
+    }
+
+    // Calculator errors keep their plain message; anything else is named, and kept to one line
+    private static String message(RuntimeException e) {
+        String message = e.getMessage();
+        if (message == null) {
+            message = e.getClass().getSimpleName();
+        } else if (!(e instanceof CalculatorException)) {
+            message = e.getClass().getSimpleName() + ": " + message;
+        }
+        return message.replace('\r', ' ').replace('\n', ' ');
+    }
+
+    private static String[] tokens(String request) {
+        return request.isEmpty() ? new String[0] : request.split("\\s+");
+    }
+
+    private static double number(String token) {
+        try {
+            return Double.parseDouble(token);
+        } catch (NumberFormatException e) {
+            throw new InvalidInputException(token);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.sidhdharth.calculator.server;
+
+public enum ServerMode {
+    // One selector thread multiplexes every connection
+    NIO,
+
+    // One thread per connection: virtual threads when the runtime has them, platform threads otherwise
+    THREAD_PER_CONNECTION
+}
@@ -0,0 +1,106 @@
+package com.sidhdharth.calculator.server;
+
+import com.sidhdharth.calculator.api.Calculator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * Blocking socket per connection. Responses are flushed only when no further request is already
+ * buffered, so a pipelined burst is answered with one write.
+ */
+final class ThreadedCalculatorServer implements CalculatorServer {
+    private static final System.Logger LOG = System.getLogger(ThreadedCalculatorServer.class.getName());
+    private static final long ACCEPT_BACKOFF_MILLIS = 100;
+
+    private final RequestHandler handler;
+    private final ServerSocket server;
+    private final ExecutorService connections;
+    private final Thread acceptor;
+
+    ThreadedCalculatorServer(Calculator calculator, InetSocketAddress address) throws IOException {
+        this.handler = new RequestHandler(calculator);
+        this.server = new ServerSocket();
+        server.bind(address);
+        this.connections = newConnectionExecutor();
+        this.acceptor = new Thread(this::acceptLoop, "calculator-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    // Virtual threads need Java 21; looked up reflectively so the project still targets 17
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "calculator-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public InetSocketAddress address() {
+        return (InetSocketAddress) server.getLocalSocketAddress();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (server.isClosed()) {
+                    return; // closed by close()
+                }
+                // For example out of file descriptors: retrying at once would only spin
+                LOG.log(System.Logger.Level.WARNING, "accept failed, retrying", e);
+                try {
+                    Thread.sleep(ACCEPT_BACKOFF_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             BufferedWriter writer = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                writer.write(handler.handle(line));
+                writer.write('\n');
+                if (!reader.ready()) {
+                    writer.flush();
+                }
+            }
+        } catch (SocketException e) {
+            // Connection reset by the client or closed by close()
+        } catch (IOException e) {
+            // Nothing left to answer on a broken connection
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        connections.shutdownNow();
+    }
+}
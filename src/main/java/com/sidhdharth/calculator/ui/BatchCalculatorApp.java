@@ -0,0 +1,36 @@
+package com.sidhdharth.calculator.ui;
+
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.batch.BatchFileEvaluator;
+import com.sidhdharth.calculator.batch.BatchSummary;
+import com.sidhdharth.calculator.batch.ShardCoordinator;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class BatchCalculatorApp {
+    public static void main(String[] args) throws IOException {
+        int workers = 0;
+        if (args.length == 5 && args[0].equals("--workers")) {
+            workers = Integer.parseInt(args[1]);
+            args = Arrays.copyOfRange(args, 2, 5);
+        }
+        if (args.length != 3) {
+            System.err.println("Usage: BatchCalculatorApp [--workers <count>] <input> <output> <errors>");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        BatchSummary summary;
+        if (workers > 0) {
+            summary = new ShardCoordinator(workers, ErrorPolicy.THROW)
+                    .evaluate(Path.of(args[0]), Path.of(args[1]), Path.of(args[2]));
+        } else {
+            summary = new BatchFileEvaluator(CalculatorConfig.createCalculator())
+                    .evaluate(Path.of(args[0]), Path.of(args[1]), Path.of(args[2]));
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.err.println("Evaluated " + summary.lines() + " lines (" + summary.errors() + " errors) in " + millis + " ms");
+    }
+}
@@ -0,0 +1,20 @@
+package com.sidhdharth.calculator.ui;
+
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.server.CalculatorServer;
+import com.sidhdharth.calculator.server.ServerMode;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+public class CalculatorServerApp {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        ServerMode mode = args.length > 1 ? ServerMode.valueOf(args[1].toUpperCase()) : ServerMode.NIO;
+        try (CalculatorServer server = CalculatorServer.start(CalculatorConfig.createCalculator(),
+                new InetSocketAddress(port), mode)) {
+            System.out.println("Calculator server (" + mode + ") listening on " + server.address());
+            Thread.currentThread().join();
+        }
+    }
+}
@@ -2,14 +2,34 @@ package com.sidhdharth.calculator.ui;
 
 import com.sidhdharth.calculator.api.Calculator;
 import com.sidhdharth.calculator.chain.OperationChainBuilder;
+import com.sidhdharth.calculator.codec.NumberFormatter;
+import com.sidhdharth.calculator.codec.NumberParser;
 import com.sidhdharth.calculator.config.CalculatorConfig;
-import com.sidhdharth.calculator.operation.OperationType;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationRegistry;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
 public class ConsoleCalculatorApp {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Calculator calc = CalculatorConfig.createCalculator();
+        if (args.length > 0) {
+            // Headless mode: straight to buffered file descriptors, skipping System.out's per-line flushing
+            Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out),
+                    StandardCharsets.UTF_8), 1 << 16);
+            Writer err = new OutputStreamWriter(new FileOutputStream(FileDescriptor.err), StandardCharsets.UTF_8);
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16);
+            System.exit(new HeadlessCalculator(calc).run(args, in, out, err));
+        }
         Scanner sc = new Scanner(System.in);
         System.out.println("=== Calculator ===");
         while (true) {
@@ -36,17 +56,17 @@ public class ConsoleCalculatorApp {
     private static void singleOperation(Calculator calc, Scanner sc) {
         try {
             System.out.println("Please enter the first number: ");
-            double num1 = Double.parseDouble(sc.nextLine());
+            double num1 = NumberParser.parseDouble(sc.nextLine());
 
-            System.out.print("Enter operator (" + OperationType.allSymbols() + "): ");
+            System.out.print("Enter operator (" + OperationRegistry.getDefault().allSymbols() + "): ");
             String opInput = sc.nextLine().trim();
-            OperationType op = OperationType.fromSymbol(opInput);
+            Operation op = OperationRegistry.getDefault().fromSymbol(opInput);
 
             System.out.println("Please enter the second number: ");
-            double num2 = Double.parseDouble(sc.nextLine());
+            double num2 = NumberParser.parseDouble(sc.nextLine());
 
             Number result = calc.calculate(op, num1, num2);
-            System.out.println("The result is: " + result.toString());
+            System.out.println("The result is: " + NumberFormatter.toString(result.doubleValue()));
         } catch (Exception e) {
             System.out.println("Invalid input: " + e.getMessage());
         }
@@ -55,13 +75,13 @@ public class ConsoleCalculatorApp {
     private static void chainedOperations(Calculator calc, Scanner sc) {
         try {
             System.out.println("Please enter the first number: ");
-            double initialValue = Double.parseDouble(sc.nextLine());
+            double initialValue = NumberParser.parseDouble(sc.nextLine());
             OperationChainBuilder chain = calc.start(initialValue);
             double currentResult = initialValue;
-            System.out.println("Current result: " + currentResult);
+            System.out.println("Current result: " + NumberFormatter.toString(currentResult));
 
             while (true) {
-                System.out.print("Enter operation (" + OperationType.allSymbols() + ") or 'end' to finish: ");
+                System.out.print("Enter operation (" + OperationRegistry.getDefault().allSymbols() + ") or 'end' to finish: ");
                 String opInput = sc.nextLine().trim();
                 if ("end".equalsIgnoreCase(opInput))
                     break;
@@ -70,16 +90,16 @@ public class ConsoleCalculatorApp {
                     break;
                 }
 
-                OperationType op = OperationType.fromSymbol(opInput);
+                Operation op = OperationRegistry.getDefault().fromSymbol(opInput);
 
                 System.out.println("Please enter the second number: ");
-                double operand = Double.parseDouble(sc.nextLine());
+                double operand = NumberParser.parseDouble(sc.nextLine());
 
                 chain.chain(op, operand);
                 currentResult = chain.getResult().doubleValue();
-                System.out.println("Current result: " + currentResult);
+                System.out.println("Current result: " + NumberFormatter.toString(currentResult));
             }
-            System.out.println("The final result is: " + chain.getResult());
+            System.out.println("The final result is: " + NumberFormatter.toString(chain.getResultAsDouble()));
         } catch (Exception e) {
             System.out.println("Invalid input: " + e.getMessage());
         }
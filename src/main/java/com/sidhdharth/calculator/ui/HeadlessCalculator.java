@@ -0,0 +1,162 @@
+package com.sidhdharth.calculator.ui;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.codec.NumberFormatter;
+import com.sidhdharth.calculator.codec.NumberParser;
+import com.sidhdharth.calculator.exception.CalculatorException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.expression.Expression;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationRegistry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/*
+ * Non-interactive mode of ConsoleCalculatorApp, for scripts:
+ *
+ *   5 + 3 x 2          chain, applied left to right like the console's chained mode -> 16.0
+ *   -e "5 + 3 x 2"     expression with operator precedence                          -> 11.0
+ *   -                  one chain per stdin line, one result per output line
+ *   -e -               one expression per stdin line
+ *
+ * Nothing is prompted. A failed line prints "error" in its place and the message to the error writer,
+ * and the exit status is 1 if any line failed; an extension operation that throws fails only its line.
+ * Output is flushed when no more input is waiting rather than per line, and once more on the way out
+ * so results already written survive an I/O error.
+ */
+final class HeadlessCalculator {
+    private final Calculator calculator;
+    private final byte[] digits = new byte[NumberFormatter.MAX_LENGTH];
+    private final char[] chars = new char[NumberFormatter.MAX_LENGTH];
+
+    HeadlessCalculator(Calculator calculator) {
+        this.calculator = calculator;
+    }
+
+    int run(String[] args, Reader in, Writer out, Writer err) throws IOException {
+        boolean expression = args.length > 0 && args[0].equals("-e");
+        int first = expression ? 1 : 0;
+        if (first == args.length) {
+            err.write("Usage: ConsoleCalculatorApp [-e] <expression>|-\n");
+            err.flush();
+            return 2;
+        }
+        if (args.length == first + 1 && args[first].equals("-")) {
+            return stream(expression, in, out, err);
+        }
+        StringBuilder line = new StringBuilder();
+        for (int i = first; i < args.length; i++) {
+            line.append(args[i]).append(' ');
+        }
+        try {
+            write(out, evaluate(expression, line.toString()));
+            out.write('\n');
+            return 0;
+        } catch (RuntimeException e) {
+            err.write("Invalid input: " + message(e) + "\n");
+            return 1;
+        } finally {
+            out.flush();
+            err.flush();
+        }
+    }
+
+    private int stream(boolean expression, Reader in, Writer out, Writer err) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in, 1 << 16);
+        int status = 0;
+        long number = 0;
+        String line;
+        try {
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    write(out, evaluate(expression, line));
+                } catch (RuntimeException e) {
+                    out.write("error");
+                    err.write("line " + number + ": " + message(e) + "\n");
+                    status = 1;
+                }
+                out.write('\n');
+                if (!reader.ready()) {
+                    out.flush();
+                    err.flush();
+                }
+            }
+        } finally {
+            out.flush();
+            err.flush();
+        }
+        return status;
+    }
+
+    // Calculator errors keep their plain message; anything else is named, and kept to one line
+    private static String message(RuntimeException e) {
+        String message = e.getMessage();
+        if (message == null) {
+            message = e.getClass().getSimpleName();
+        } else if (!(e instanceof CalculatorException || e instanceof NumberFormatException)) {
+            message = e.getClass().getSimpleName() + ": " + message;
+        }
+        return message.replace('\r', ' ').replace('\n', ' ');
+    }
+
+    double evaluate(boolean expression, String line) {
+        return expression ? Expression.compile(line).evaluate() : chain(line);
+    }
+
+    // Walks the tokens in place, so operands are parsed straight from the line without substrings
+    private double chain(String line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i = tokenEnd(line, i)) {
+            i = tokenStart(line, i);
+            if (i < line.length()) {
+                count++;
+            }
+        }
+        if (count % 2 == 0) {
+            throw new InvalidInputException(line.trim());
+        }
+        int start = tokenStart(line, 0);
+        int end = tokenEnd(line, start);
+        double value = NumberParser.parseDouble(line, start, end);
+        for (int k = 1; k < count; k += 2) {
+            start = tokenStart(line, end);
+            end = tokenEnd(line, start);
+            Operation op = end - start == 1 && line.charAt(start) < 128
+                    ? OperationRegistry.getDefault().fromSymbol(line.charAt(start))
+                    : OperationRegistry.getDefault().fromSymbol(line.substring(start, end));
+            start = tokenStart(line, end);
+            end = tokenEnd(line, start);
+            value = calculator.calculateAsDouble(op, value, NumberParser.parseDouble(line, start, end));
+        }
+        return value;
+    }
+
+    private void write(Writer out, double value) throws IOException {
+        int length = NumberFormatter.format(value, digits, 0);
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) digits[i];
+        }
+        out.write(chars, 0, length);
+    }
+
+    private static int tokenStart(String line, int i) {
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int tokenEnd(String line, int i) {
+        while (i < line.length() && !Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
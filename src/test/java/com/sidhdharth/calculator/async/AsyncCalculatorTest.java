@@ -0,0 +1,203 @@
+package com.sidhdharth.calculator.async;
+
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.ModuloByZeroException;
+import com.sidhdharth.calculator.exception.NullOperandException;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncCalculatorTest {
+
+    private AsyncCalculator async;
+
+    @BeforeEach
+    void setUp() {
+        async = new AsyncCalculator(CalculatorConfig.createCalculator());
+    }
+
+    @Test
+    void testSingleOperations() throws Exception {
+        assertEquals(8.0, async.calculate(OperationType.ADD, 5, 3).get(5, TimeUnit.SECONDS));
+        assertEquals(2.5, async.calculateAsDouble(OperationType.DIVIDE, 5, 2).get(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Double> failed = async.calculateAsDouble(OperationType.DIVIDE, 5, 0);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DivisionByZeroException.class, e.getCause());
+    }
+
+    @Test
+    void testChains() throws Exception {
+        AsyncOperationChain chain = async.start(5)
+                .chain(OperationType.ADD, 3)
+                .chain(OperationType.MULTIPLY, 2);
+        assertEquals(16.0, chain.getResult().get(5, TimeUnit.SECONDS));
+        assertEquals(4.0, chain.chain(OperationType.MODULO, 6).getResult().get(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Number> failed = async.start(1).chain(OperationType.ADD, (Number) null).getResult();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(NullOperandException.class, e.getCause());
+    }
+
+    @Test
+    void testProcessorTurnsErrorsIntoFailedResults() throws Exception {
+        CalculationProcessor processor = async.processor(4);
+        RecordingSubscriber results = new RecordingSubscriber(Long.MAX_VALUE);
+        processor.subscribe(results);
+        try (SubmissionPublisher<CalculationEvent> source = new SubmissionPublisher<>()) {
+            source.subscribe(processor);
+            source.submit(new CalculationEvent(OperationType.ADD, 1, 2));
+            source.submit(new CalculationEvent(OperationType.DIVIDE, 1, 0));
+            source.submit(new CalculationEvent(OperationType.MODULO, 7, 0));
+            source.submit(new CalculationEvent(OperationType.MULTIPLY, 3, null));
+            source.submit(new CalculationEvent(OperationType.SUBTRACT, 10, 4));
+        }
+        assertTrue(results.completed.get(5, TimeUnit.SECONDS));
+        assertEquals(5, results.received.size());
+        assertEquals(3.0, results.received.get(0).value());
+        assertInstanceOf(DivisionByZeroException.class, results.received.get(1).error());
+        assertInstanceOf(ModuloByZeroException.class, results.received.get(2).error());
+        assertInstanceOf(NullOperandException.class, results.received.get(3).error());
+        assertEquals(6.0, results.received.get(4).value());
+    }
+
+    @Test
+    void testProcessorRequestsOnlyWhatDownstreamDemands() {
+        CalculationProcessor processor = async.processor(8);
+        CountingSource source = new CountingSource(100);
+        RecordingSubscriber results = new RecordingSubscriber(0);
+        processor.subscribe(results);
+        source.subscribe(processor);
+        assertEquals(0, source.requested);
+
+        results.subscription.request(3);
+        assertEquals(3, results.received.size());
+        assertEquals(3, source.requested);
+
+        results.subscription.request(50);
+        assertEquals(53, results.received.size());
+        assertEquals(53, source.requested);
+        assertTrue(source.largestRequest <= 8);
+
+        results.subscription.request(Long.MAX_VALUE);
+        assertEquals(100, results.received.size());
+        assertTrue(results.completed.isDone());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i * 2.0, results.received.get(i).value());
+        }
+    }
+
+    @Test
+    void testCancelStopsUpstream() {
+        CalculationProcessor processor = async.processor(4);
+        CountingSource source = new CountingSource(100);
+        RecordingSubscriber results = new RecordingSubscriber(2);
+        processor.subscribe(results);
+        source.subscribe(processor);
+        results.subscription.cancel();
+        results.subscription.request(10);
+        assertEquals(2, results.received.size());
+        assertTrue(source.cancelled);
+    }
+
+    @Test
+    void testInvalidRequestFailsThroughTheDrainLoop() {
+        CalculationProcessor processor = async.processor(4);
+        CountingSource source = new CountingSource(100);
+        RecordingSubscriber results = new RecordingSubscriber(3);
+        processor.subscribe(results);
+        source.subscribe(processor);
+        assertEquals(3, results.received.size());
+
+        results.subscription.request(0);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> results.completed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        assertTrue(source.cancelled);
+
+        results.subscription.request(10);
+        results.subscription.request(-1);
+        assertEquals(3, results.received.size(), "nothing is published after onError");
+    }
+
+    // Emits i + i synchronously as it is asked for, remembering how much was requested
+    private static class CountingSource implements Flow.Publisher<CalculationEvent> {
+        private final int count;
+        private long requested;
+        private long largestRequest;
+        private int next;
+        private boolean cancelled;
+
+        CountingSource(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super CalculationEvent> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested += n;
+                    largestRequest = Math.max(largestRequest, n);
+                    for (long i = 0; i < n && next < count && !cancelled; i++) {
+                        int value = next++;
+                        subscriber.onNext(new CalculationEvent(OperationType.ADD, value, value));
+                    }
+                    if (next == count && !cancelled) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<CalculationResult> {
+        private final long initialRequest;
+        private final List<CalculationResult> received = new ArrayList<>();
+        private final CompletableFuture<Boolean> completed = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public synchronized void onNext(CalculationResult item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.complete(true);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.sidhdharth.calculator.batch;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchFileEvaluatorTest {
+
+    @TempDir
+    Path dir;
+
+    private Calculator calc;
+
+    @BeforeEach
+    void setUp() {
+        calc = CalculatorConfig.createCalculator();
+    }
+
+    @Test
+    void testMixedLinesAndErrors() throws IOException {
+        Path input = write("5 + 3\n10/4\r\n-2 x -1.5\n\n7 % 0\n1 ^ 2\n2.5e3 - 500\n  8 *  2  \n1 / 0\nabc + 1");
+        BatchSummary summary = evaluate(input, 1, 4);
+
+        assertEquals(10, summary.lines());
+        assertEquals(4, summary.errors());
+        assertEquals(List.of("8.0", "2.5", "3.0", "", "error", "error", "2000.0", "16.0", "error", "error"),
+                Files.readAllLines(dir.resolve("out.txt")));
+        List<String> errors = Files.readAllLines(dir.resolve("errors.txt"));
+        assertEquals(4, errors.size());
+        assertEquals("5\tCannot perform modulo by zero\t7 % 0", errors.get(0));
+        assertEquals("6\tInvalid operation: ^\t1 ^ 2", errors.get(1));
+        assertEquals("9\tCannot divide by zero\t1 / 0", errors.get(2));
+        assertTrue(errors.get(3).startsWith("10\t"));
+    }
+
+    // MaxOperation is registered from the test classpath as "max"
+    @Test
+    void testMultiCharacterSymbols() throws IOException {
+        Path input = write("3 max 4\n-7max-2\n10/-4\n2 x-3\n5 +-1\n1 mx 2\n");
+        BatchSummary summary = evaluate(input, 1, 4);
+
+        assertEquals(1, summary.errors());
+        assertEquals(List.of("4.0", "-2.0", "-2.5", "-6.0", "4.0", "error"), Files.readAllLines(dir.resolve("out.txt")));
+        assertEquals(List.of("6\tInvalid operation: mx\t1 mx 2"), Files.readAllLines(dir.resolve("errors.txt")));
+    }
+
+    // FailingOperation throws IllegalStateException; only its line fails
+    @Test
+    void testFailingExtensionFailsOnlyItsLine() throws IOException {
+        Path input = write("1 + 2\n3 fail 4\n5 * 6\n");
+        BatchSummary summary = evaluate(input, 2, 4);
+
+        assertEquals(3, summary.lines());
+        assertEquals(1, summary.errors());
+        assertEquals(List.of("3.0", "error", "30.0"), Files.readAllLines(dir.resolve("out.txt")));
+        assertEquals(List.of("2\tIllegalStateException: operation failed on 3.0 and 4.0\t3 fail 4"),
+                Files.readAllLines(dir.resolve("errors.txt")));
+    }
+
+    @Test
+    void testParallelChunksMatchCalculator() throws IOException {
+        Random random = new Random(42);
+        OperationType[] ops = OperationType.values();
+        StringBuilder text = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            double a = (random.nextInt(2_000_000) - 1_000_000) / 1000.0;
+            double b = random.nextInt(999) / 10.0 + 0.1;
+            OperationType op = ops[random.nextInt(ops.length)];
+            String symbol = op == OperationType.MULTIPLY ? "*" : switch (op) {
+                case ADD -> "+";
+                case SUBTRACT -> "-";
+                case DIVIDE -> "/";
+                default -> "%";
+            };
+            text.append(a).append(' ').append(symbol).append(' ').append(b).append('\n');
+            expected.add(Double.toString(calc.calculateAsDouble(op, a, b)));
+        }
+        BatchSummary summary = evaluate(write(text.toString()), 4, 4096);
+
+        assertEquals(expected.size(), summary.lines());
+        assertEquals(0, summary.errors());
+        assertEquals(expected, Files.readAllLines(dir.resolve("out.txt")));
+    }
+
+    private Path write(String text) throws IOException {
+        return Files.writeString(dir.resolve("in.txt"), text);
+    }
+
+    private BatchSummary evaluate(Path input, int parallelism, int chunkSize) throws IOException {
+        return new BatchFileEvaluator(calc, parallelism, chunkSize)
+                .evaluate(input, dir.resolve("out.txt"), dir.resolve("errors.txt"));
+    }
+}
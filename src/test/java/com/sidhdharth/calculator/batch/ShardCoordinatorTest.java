@@ -0,0 +1,189 @@
+package com.sidhdharth.calculator.batch;
+
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardCoordinatorTest {
+
+    private static final String[] SYMBOLS = {"+", "-", "*", "/", "%", "x", "^"};
+
+    @TempDir
+    Path dir;
+
+    // Workers on threads of this JVM, talking to the coordinator over loopback exactly as a process would
+    private static final WorkerLauncher IN_PROCESS = coordinator -> {
+        Thread worker = new Thread(() -> {
+            try {
+                ShardWorker.run(coordinator);
+            } catch (IOException e) {
+                // the coordinator closed the connection
+            }
+        });
+        worker.setDaemon(true);
+        worker.start();
+        return worker::join;
+    };
+
+    @Test
+    void testMatchesSingleProcessEvaluation() throws IOException {
+        Path input = generate(5_000);
+        BatchSummary expected = new BatchFileEvaluator(CalculatorConfig.createCalculator(), 2, 4096)
+                .evaluate(input, dir.resolve("expected.txt"), dir.resolve("expected-errors.txt"));
+
+        BatchSummary summary = new ShardCoordinator(3, ErrorPolicy.THROW, 1000, IN_PROCESS)
+                .evaluate(input, dir.resolve("out.txt"), dir.resolve("errors.txt"));
+
+        assertEquals(expected, summary);
+        assertTrue(summary.errors() > 0);
+        assertSameFile("expected.txt", "out.txt");
+        assertSameFile("expected-errors.txt", "errors.txt");
+    }
+
+    @Test
+    void testErrorPolicyReachesWorkers() throws IOException {
+        Path input = dir.resolve("in.txt");
+        Files.writeString(input, "1 / 0\n4 % 0\n");
+        BatchSummary summary = new ShardCoordinator(1, ErrorPolicy.IEEE, 1000, IN_PROCESS)
+                .evaluate(input, dir.resolve("out.txt"), dir.resolve("errors.txt"));
+        assertEquals(0, summary.errors());
+        assertEquals("Infinity\nNaN\n", Files.readString(dir.resolve("out.txt")));
+    }
+
+    @Test
+    void testFailedShardsAreRetriedOnAnotherWorker() throws IOException {
+        Path input = generate(2_000);
+        new BatchFileEvaluator(CalculatorConfig.createCalculator())
+                .evaluate(input, dir.resolve("expected.txt"), dir.resolve("expected-errors.txt"));
+
+        // The first two workers take a shard and drop the connection without answering
+        AtomicInteger launched = new AtomicInteger();
+        WorkerLauncher flaky = coordinator -> launched.getAndIncrement() < 2
+                ? crashingWorker(coordinator) : IN_PROCESS.launch(coordinator);
+        BatchSummary summary = new ShardCoordinator(2, ErrorPolicy.THROW, 500, flaky)
+                .evaluate(input, dir.resolve("out.txt"), dir.resolve("errors.txt"));
+
+        assertEquals(2_000, summary.lines());
+        assertEquals(4, launched.get());
+        assertSameFile("expected.txt", "out.txt");
+        assertSameFile("expected-errors.txt", "errors.txt");
+    }
+
+    @Test
+    void testHungWorkersTimeOutAndTheirShardsAreRetried() throws IOException {
+        Path input = generate(1_000);
+        new BatchFileEvaluator(CalculatorConfig.createCalculator())
+                .evaluate(input, dir.resolve("expected.txt"), dir.resolve("expected-errors.txt"));
+
+        // The first worker takes a shard and never answers, holding the connection open
+        AtomicInteger launched = new AtomicInteger();
+        WorkerLauncher hanging = coordinator -> launched.getAndIncrement() < 1
+                ? hungWorker(coordinator) : IN_PROCESS.launch(coordinator);
+        BatchSummary summary = new ShardCoordinator(1, ErrorPolicy.THROW, 500, hanging,
+                InetAddress.getLoopbackAddress(), 200)
+                .evaluate(input, dir.resolve("out.txt"), dir.resolve("errors.txt"));
+
+        assertEquals(1_000, summary.lines());
+        assertEquals(2, launched.get());
+        assertSameFile("expected.txt", "out.txt");
+        assertSameFile("expected-errors.txt", "errors.txt");
+    }
+
+    @Test
+    void testRunFailsWhenEveryWorkerCrashes() throws IOException {
+        Path input = generate(100);
+        ShardCoordinator coordinator = new ShardCoordinator(2, ErrorPolicy.THROW, 500, this::crashingWorker);
+        IOException e = assertThrows(IOException.class,
+                () -> coordinator.evaluate(input, dir.resolve("out.txt"), dir.resolve("errors.txt")));
+        assertTrue(e.getMessage().contains("failed"), e.getMessage());
+    }
+
+    @Test
+    void testEmptyInput() throws IOException {
+        Path input = dir.resolve("empty.txt");
+        Files.writeString(input, "");
+        BatchSummary summary = new ShardCoordinator(2, ErrorPolicy.THROW, 500, IN_PROCESS)
+                .evaluate(input, dir.resolve("out.txt"), dir.resolve("errors.txt"));
+        assertEquals(new BatchSummary(0, 0, 0), summary);
+    }
+
+    @Test
+    void testWorkerJvms() throws IOException {
+        Path input = generate(3_000);
+        new BatchFileEvaluator(CalculatorConfig.createCalculator())
+                .evaluate(input, dir.resolve("expected.txt"), dir.resolve("expected-errors.txt"));
+        new ShardCoordinator(2, ErrorPolicy.THROW, 8192, WorkerLauncher.localJvm())
+                .evaluate(input, dir.resolve("out.txt"), dir.resolve("errors.txt"));
+        assertSameFile("expected.txt", "out.txt");
+        assertSameFile("expected-errors.txt", "errors.txt");
+    }
+
+    private AutoCloseable crashingWorker(InetSocketAddress coordinator) {
+        Thread worker = new Thread(() -> {
+            try (Socket socket = new Socket(coordinator.getAddress(), coordinator.getPort())) {
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                ShardProtocol.writeWorkerHello(out);
+                ShardProtocol.readCoordinatorHello(in);
+                ShardProtocol.expect(in, ShardProtocol.SHARD);
+            } catch (IOException e) {
+                // the run may already be over
+            }
+        });
+        worker.setDaemon(true);
+        worker.start();
+        return worker::join;
+    }
+
+    // Reads until the coordinator gives up on it and closes the connection
+    private AutoCloseable hungWorker(InetSocketAddress coordinator) {
+        Thread worker = new Thread(() -> {
+            try (Socket socket = new Socket(coordinator.getAddress(), coordinator.getPort())) {
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                InputStream in = socket.getInputStream();
+                ShardProtocol.writeWorkerHello(out);
+                while (in.read() >= 0) {
+                    // never answer
+                }
+            } catch (IOException e) {
+                // the connection was reset
+            }
+        });
+        worker.setDaemon(true);
+        worker.start();
+        return worker::join;
+    }
+
+    private Path generate(int lines) throws IOException {
+        Random random = new Random(lines);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            text.append(random.nextInt(2000) - 1000).append(' ')
+                    .append(SYMBOLS[random.nextInt(SYMBOLS.length)]).append(' ')
+                    .append(random.nextInt(10)).append('\n');
+        }
+        Path input = dir.resolve("in.txt");
+        Files.writeString(input, text);
+        return input;
+    }
+
+    private void assertSameFile(String expected, String actual) throws IOException {
+        assertEquals(Files.readString(dir.resolve(expected)), Files.readString(dir.resolve(actual)));
+    }
+}
@@ -0,0 +1,151 @@
+package com.sidhdharth.calculator.cell;
+
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.sidhdharth.calculator.cell.Operand.of;
+import static com.sidhdharth.calculator.cell.Operand.ref;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CellGraphTest {
+
+    private CellGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = new CellGraph(CalculatorConfig.createCalculator());
+    }
+
+    @Test
+    void testFormulasFollowInputs() {
+        graph.set("a", 2).set("b", 3)
+                .define("sum", OperationType.ADD, ref("a"), ref("b"))
+                .define("scaled", OperationType.MULTIPLY, ref("sum"), of(10));
+        assertEquals(4, graph.recompute());
+        assertEquals(5, graph.value("sum"));
+        assertEquals(50, graph.value("scaled"));
+
+        graph.set("a", 7);
+        assertEquals(50, graph.value("scaled"), "values only move on recompute");
+        graph.recompute();
+        assertEquals(100, graph.value("scaled"));
+    }
+
+    @Test
+    void testOnlyDownstreamCellsRecompute() {
+        graph.set("a", 1).set("b", 1)
+                .define("fromA", OperationType.ADD, ref("a"), of(1))
+                .define("fromB", OperationType.ADD, ref("b"), of(1))
+                .define("both", OperationType.ADD, ref("fromA"), ref("fromB"));
+        graph.recompute();
+        assertEquals(0, graph.recompute());
+
+        graph.set("b", 5);
+        assertEquals(3, graph.recompute()); // b, fromB, both
+        assertEquals(2, graph.value("fromA"));
+        assertEquals(8, graph.value("both"));
+    }
+
+    @Test
+    void testBatchedUpdatesShareOneWave() {
+        graph.set("a", 1).set("b", 1).define("sum", OperationType.ADD, ref("a"), ref("b"));
+        graph.recompute();
+        graph.set("a", 10).set("b", 20).set("a", 30);
+        assertEquals(3, graph.recompute());
+        assertEquals(50, graph.value("sum"));
+    }
+
+    @Test
+    void testSameCellReferencedTwice() {
+        graph.set("x", 4).define("square", OperationType.MULTIPLY, ref("x"), ref("x"))
+                .define("cube", OperationType.MULTIPLY, ref("square"), ref("x"));
+        graph.recompute();
+        assertEquals(64, graph.value("cube"));
+    }
+
+    @Test
+    void testCyclesAreRejected() {
+        graph.set("a", 1).define("b", OperationType.ADD, ref("a"), of(1))
+                .define("c", OperationType.ADD, ref("b"), of(1));
+        assertThrows(InvalidInputException.class, () -> graph.define("a", OperationType.ADD, ref("c"), of(1)));
+        assertThrows(InvalidInputException.class, () -> graph.define("d", OperationType.ADD, ref("d"), of(1)));
+        graph.recompute();
+        assertEquals(3, graph.value("c"), "a rejected definition leaves the graph as it was");
+
+        // Redefining to drop the old dependency makes the reversed edge legal
+        graph.define("b", OperationType.ADD, of(1), of(1)).define("a", OperationType.ADD, ref("c"), of(1));
+        graph.recompute();
+        assertEquals(4, graph.value("a"));
+    }
+
+    @Test
+    void testErrorsPropagateWithoutStoppingTheWave() {
+        graph.set("n", 1).set("d", 0)
+                .define("ratio", OperationType.DIVIDE, ref("n"), ref("d"))
+                .define("next", OperationType.ADD, ref("ratio"), of(1))
+                .define("other", OperationType.ADD, ref("n"), of(1));
+        graph.recompute();
+        assertTrue(graph.state("ratio").isError());
+        assertInstanceOf(DivisionByZeroException.class, graph.state("next").error());
+        assertTrue(Double.isNaN(graph.value("next")));
+        assertEquals(2, graph.value("other"));
+
+        graph.set("d", 4);
+        graph.recompute();
+        assertFalse(graph.state("next").isError());
+        assertEquals(1.25, graph.value("next"));
+    }
+
+    @Test
+    void testErrorPolicyApplies() {
+        CellGraph ieee = new CellGraph(CalculatorConfig.createCalculator(ErrorPolicy.IEEE));
+        ieee.set("d", 0).define("inf", OperationType.DIVIDE, of(1), ref("d"));
+        ieee.recompute();
+        assertEquals(Double.POSITIVE_INFINITY, ieee.value("inf"));
+    }
+
+    @Test
+    void testUnsetReferencesReadAsErrors() {
+        graph.define("f", OperationType.ADD, ref("missing"), of(1));
+        graph.recompute();
+        assertInstanceOf(InvalidInputException.class, graph.state("f").error());
+        graph.set("missing", 1);
+        graph.recompute();
+        assertEquals(2, graph.value("f"));
+        graph.clear("missing");
+        graph.recompute();
+        assertTrue(graph.state("f").isError());
+        assertThrows(InvalidInputException.class, () -> graph.state("nowhere"));
+    }
+
+    @Test
+    void testWideLevelsEvaluateInParallel() {
+        int width = CellGraph.PARALLEL_THRESHOLD * 4;
+        graph.set("x", 1);
+        for (int i = 0; i < width; i++) {
+            graph.define("c" + i, OperationType.MULTIPLY, ref("x"), of(i));
+            graph.define("d" + i, OperationType.ADD, ref("c" + i), of(1));
+        }
+        assertEquals(2 * width + 1, graph.recompute());
+        graph.set("x", 3);
+        graph.recompute();
+        for (int i = 0; i < width; i++) {
+            assertEquals(3.0 * i + 1, graph.value("d" + i));
+        }
+    }
+
+    @Test
+    void testLongChainDoesNotRecurse() {
+        graph.set("c0", 0);
+        for (int i = 1; i <= 100_000; i++) {
+            graph.define("c" + i, OperationType.ADD, ref("c" + (i - 1)), of(1));
+        }
+        graph.recompute();
+        assertEquals(100_000, graph.value("c100000"));
+    }
+}
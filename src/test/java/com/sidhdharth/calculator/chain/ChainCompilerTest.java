@@ -0,0 +1,177 @@
+package com.sidhdharth.calculator.chain;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.api.ErrorCode;
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.api.ResultCode;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.exception.ModuloByZeroException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChainCompilerTest {
+
+    private static final double[] SEEDS = {
+            0.0, -0.0, 1.0, -1.0, 0.1, 1e300, -1e-300, Double.MIN_VALUE, Double.MAX_VALUE,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+
+    private Calculator calc;
+
+    @BeforeEach
+    void setUp() {
+        calc = CalculatorConfig.createCalculator();
+    }
+
+    // IEEE so that zero divisors produce values; doubleToLongBits as NaN payloads are not preserved by the JVM either
+    @Test
+    void testCompiledMatchesInterpretedBitForBit() {
+        Calculator ieee = CalculatorConfig.createCalculator(ErrorPolicy.IEEE);
+        SplittableRandom random = new SplittableRandom(22);
+        OperationType[] types = OperationType.values();
+        double[] constants = {0.5, -0.0, 3.0, -7.25, 1e-3, 1e308, Double.NaN, Double.NEGATIVE_INFINITY, 0.1};
+        for (int shape = 0; shape < 200; shape++) {
+            LazyOperationChain lazy = ieee.startLazy(0, shape % 2 == 0 ? FoldingMode.STRICT : FoldingMode.REASSOCIATE);
+            int length = 1 + random.nextInt(40);
+            for (int i = 0; i < length; i++) {
+                double operand = random.nextBoolean() ? constants[random.nextInt(constants.length)] : random.nextDouble(-100, 100);
+                lazy.chain(types[random.nextInt(types.length)], operand);
+            }
+            ChainTemplate template = lazy.toTemplate();
+            if (template.steps() == 0) {
+                continue;
+            }
+            DoubleUnaryOperator compiled = template.compile();
+            for (double seed : SEEDS) {
+                assertEquals(Double.doubleToLongBits(template.interpret(seed)),
+                        Double.doubleToLongBits(compiled.applyAsDouble(seed)), "shape " + shape + ", seed " + seed);
+            }
+            for (int i = 0; i < 50; i++) {
+                double seed = random.nextDouble(-1e6, 1e6);
+                assertEquals(Double.doubleToLongBits(template.interpret(seed)),
+                        Double.doubleToLongBits(template.apply(seed)));
+            }
+        }
+    }
+
+    @Test
+    void testApplyCompilesAfterThreshold() {
+        ChainTemplate template = template(calc, OperationType.ADD, 2, OperationType.MULTIPLY, 3);
+        for (int i = 1; i < ChainTemplate.COMPILE_THRESHOLD; i++) {
+            assertEquals(3 * (i + 2), template.apply(i));
+        }
+        assertFalse(template.isCompiled());
+        assertEquals(9, template.apply(1));
+        assertTrue(template.isCompiled());
+        assertEquals(12, template.apply(2));
+    }
+
+    @Test
+    void testZeroDivisorsKeepTheErrorPolicy() {
+        DoubleUnaryOperator divide = template(calc, OperationType.ADD, 1, OperationType.DIVIDE, 0).compile();
+        assertThrows(DivisionByZeroException.class, () -> divide.applyAsDouble(5));
+        DoubleUnaryOperator modulo = template(calc, OperationType.MODULO, -0.0, OperationType.ADD, 1).compile();
+        assertThrows(ModuloByZeroException.class, () -> modulo.applyAsDouble(5));
+
+        Calculator ieee = CalculatorConfig.createCalculator(ErrorPolicy.IEEE);
+        ChainTemplate template = template(ieee, OperationType.DIVIDE, 0, OperationType.ADD, 1);
+        assertEquals(Double.NEGATIVE_INFINITY, template.compile().applyAsDouble(-3));
+        assertFalse(template.isCompiled(), "a zero divisor keeps the template interpreted");
+    }
+
+    @Test
+    void testErrorCodesAreNotCarriedThroughArithmetic() {
+        Calculator codes = CalculatorConfig.createCalculator(ErrorPolicy.RESULT_CODE);
+        double nullOperand = ResultCode.error(ErrorCode.NULL_OPERAND);
+        ChainTemplate template = template(codes, OperationType.ADD, 1, OperationType.MULTIPLY, 2);
+        assertEquals(ErrorCode.NULL_OPERAND, ResultCode.errorCode(template.interpret(nullOperand)));
+        assertEquals(ErrorCode.NULL_OPERAND, ResultCode.errorCode(template.compile().applyAsDouble(nullOperand)));
+        assertTrue(template.isCompiled());
+        assertEquals(8, template.apply(3));
+
+        // The first error wins: the later zero divisor does not replace it
+        ChainTemplate divide = template(codes, OperationType.DIVIDE, 0, OperationType.MODULO, 0);
+        assertEquals(ErrorCode.DIVISION_BY_ZERO, ResultCode.errorCode(divide.apply(1)));
+        ChainTemplate operand = template(codes, OperationType.ADD, nullOperand, OperationType.DIVIDE, 0);
+        assertEquals(ErrorCode.NULL_OPERAND, ResultCode.errorCode(operand.apply(1)));
+    }
+
+    @Test
+    void testUncompilableTemplatesStayInterpreted() {
+        Operation max = Math::max;
+        ChainTemplate custom = template(calc, max, 4, OperationType.ADD, 1);
+        assertEquals(5, custom.compile().applyAsDouble(2));
+        assertFalse(custom.isCompiled());
+
+        LazyOperationChain longest = calc.startLazy(0, FoldingMode.STRICT);
+        for (int i = 0; i < ChainCompiler.MAX_STEPS; i++) {
+            longest.chain(OperationType.ADD, i);
+        }
+        ChainTemplate compiled = longest.toTemplate();
+        assertEquals(ChainCompiler.MAX_STEPS * (ChainCompiler.MAX_STEPS - 1) / 2, compiled.compile().applyAsDouble(0));
+        assertTrue(compiled.isCompiled());
+
+        LazyOperationChain tooLong = calc.startLazy(0, FoldingMode.STRICT);
+        for (int i = 0; i <= ChainCompiler.MAX_STEPS; i++) {
+            tooLong.chain(OperationType.ADD, 1);
+        }
+        ChainTemplate template = tooLong.toTemplate();
+        for (int i = 0; i <= ChainTemplate.COMPILE_THRESHOLD; i++) {
+            template.apply(0);
+        }
+        assertFalse(template.isCompiled());
+        assertEquals(ChainCompiler.MAX_STEPS + 1, template.apply(0));
+    }
+
+    @Test
+    void testShapesAreSharedAcrossConstantsAndEvictedLeastRecentlyUsed() {
+        ChainCompiler compiler = new ChainCompiler(2);
+        Operation[] first = {OperationType.MULTIPLY, OperationType.SUBTRACT};
+        Operation[] second = {OperationType.ADD, OperationType.DIVIDE};
+        Operation[] third = {OperationType.SUBTRACT, OperationType.MODULO};
+
+        DoubleUnaryOperator a = compiler.compile(first, new double[]{2, 1});
+        DoubleUnaryOperator b = compiler.compile(first.clone(), new double[]{-3, 0.5});
+        assertSame(a.getClass(), b.getClass(), "operands do not make a new class");
+        assertTrue(a.getClass().isHidden());
+        assertEquals(7, a.applyAsDouble(4));
+        assertEquals(-12.5, b.applyAsDouble(4));
+        assertEquals(1, compiler.misses());
+        assertEquals(1, compiler.hits());
+
+        DoubleUnaryOperator c = compiler.compile(second, new double[]{1, 4});
+        assertEquals(1.25, c.applyAsDouble(4));
+        compiler.compile(first, new double[]{1, 1});
+        compiler.compile(third, new double[]{1, 2});
+        assertEquals(1, compiler.evictions(), "the least recently used shape goes");
+        assertEquals(2, compiler.size());
+
+        assertSame(a.getClass(), compiler.compile(first, new double[]{5, 5}).getClass());
+        assertEquals(3, compiler.hits());
+        DoubleUnaryOperator again = compiler.compile(second, new double[]{1, 4});
+        assertEquals(4, compiler.misses());
+        assertNotSame(c.getClass(), again.getClass());
+        assertEquals(1.25, again.applyAsDouble(4));
+        assertEquals(1.25, c.applyAsDouble(4), "an evicted shape still works for the templates holding it");
+    }
+
+    @Test
+    void testInvalidCacheSize() {
+        assertThrows(InvalidInputException.class, () -> new ChainCompiler(0));
+    }
+
+    private static ChainTemplate template(Calculator calculator, Operation first, double a, Operation second, double b) {
+        LazyOperationChain lazy = calculator.startLazy(0, FoldingMode.STRICT);
+        lazy.chain(first, a).chain(second, b);
+        return lazy.toTemplate();
+    }
+}
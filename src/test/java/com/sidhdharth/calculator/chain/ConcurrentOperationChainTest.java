@@ -0,0 +1,103 @@
+package com.sidhdharth.calculator.chain;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.InvalidOperationException;
+import com.sidhdharth.calculator.exception.NullOperandException;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentOperationChainTest {
+
+    private static final int THREADS = 8;
+    private static final int STEPS = 20_000;
+
+    private Calculator calc;
+
+    @BeforeEach
+    void setUp() {
+        calc = CalculatorConfig.createCalculator();
+    }
+
+    @Test
+    void testAtomicChainLosesNoUpdates() throws Exception {
+        AtomicOperationChain total = new AtomicOperationChain(5, calc);
+        runConcurrently(thread -> {
+            for (int i = 0; i < STEPS; i++) {
+                total.chain(OperationType.ADD, 2).chain(OperationType.SUBTRACT, 1);
+            }
+        });
+        assertEquals(5.0 + THREADS * STEPS, total.getResult());
+    }
+
+    @Test
+    void testAtomicChainFailedStepKeepsValue() {
+        AtomicOperationChain total = new AtomicOperationChain(3, calc);
+        total.chain(OperationType.MULTIPLY, 4);
+        assertThrows(DivisionByZeroException.class, () -> total.chain(OperationType.DIVIDE, 0));
+        assertThrows(NullOperandException.class, () -> total.chain(OperationType.ADD, (Number) null));
+        assertEquals(12.0, total.getResultAsDouble());
+
+        assertEquals(12.0, total.getThenReset());
+        assertEquals(3.0, total.getResultAsDouble());
+        total.reset(-1);
+        assertEquals(-2.0, total.chain(OperationType.MULTIPLY, 2).getResultAsDouble());
+        total.reset();
+        assertEquals(3.0, total.getResultAsDouble());
+    }
+
+    @Test
+    void testStripedAddAndMultiply() throws Exception {
+        StripedOperationChain sum = new StripedOperationChain(OperationType.ADD, 10);
+        StripedOperationChain product = new StripedOperationChain(OperationType.MULTIPLY, 3);
+        runConcurrently(thread -> {
+            for (int i = 0; i < STEPS; i++) {
+                sum.chain(OperationType.ADD, 1);
+                product.chain(OperationType.MULTIPLY, i % 2 == 0 ? 2 : 0.5);
+            }
+        });
+        assertEquals(10.0 + THREADS * STEPS, sum.getResult());
+        assertEquals(3.0, product.getResult());
+
+        assertEquals(10.0 + THREADS * STEPS, sum.getThenReset());
+        assertEquals(10.0, sum.getResultAsDouble());
+        sum.reset(-0.0);
+        assertEquals(0.0, sum.getResultAsDouble());
+    }
+
+    @Test
+    void testStripedRejectsOtherOperations() {
+        assertThrows(InvalidOperationException.class, () -> new StripedOperationChain(OperationType.SUBTRACT, 0));
+        StripedOperationChain sum = new StripedOperationChain(OperationType.ADD, 0);
+        assertThrows(InvalidOperationException.class, () -> sum.chain(OperationType.MULTIPLY, 2));
+        assertThrows(NullOperandException.class, () -> sum.chain(OperationType.ADD, (Number) null));
+        assertEquals(0.0, sum.getResultAsDouble());
+    }
+
+    private static void runConcurrently(IntConsumer task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> task.accept(thread)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.sidhdharth.calculator.chain;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.api.ErrorCode;
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.api.ResultCode;
+import com.sidhdharth.calculator.api.ZeroDivisorPolicy;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.NullOperandException;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyOperationChainTest {
+
+    private Calculator calc;
+
+    @BeforeEach
+    void setUp() {
+        calc = CalculatorConfig.createCalculator();
+    }
+
+    @Test
+    void testStrictModeMatchesEagerChain() {
+        double[] seeds = {0.1, -0.0, 3.0, 1e308, -7.25, Double.NaN};
+        for (double seed : seeds) {
+            Number eager = calc.start(seed)
+                    .chain(OperationType.ADD, 0.2)
+                    .chain(OperationType.ADD, 0.3)
+                    .chain(OperationType.MULTIPLY, 1.0)
+                    .chain(OperationType.SUBTRACT, 0.0)
+                    .chain(OperationType.MULTIPLY, 10)
+                    .chain(OperationType.MULTIPLY, 10)
+                    .chain(OperationType.MODULO, 7)
+                    .getResult();
+            LazyOperationChain lazy = calc.startLazy(seed, FoldingMode.STRICT);
+            lazy.chain(OperationType.ADD, 0.2)
+                    .chain(OperationType.ADD, 0.3)
+                    .chain(OperationType.MULTIPLY, 1.0)
+                    .chain(OperationType.SUBTRACT, 0.0)
+                    .chain(OperationType.MULTIPLY, 10)
+                    .chain(OperationType.MULTIPLY, 10)
+                    .chain(OperationType.MODULO, 7);
+            assertEquals(eager, lazy.getResult(), "seed " + seed);
+            assertEquals(5, lazy.toTemplate().steps());
+        }
+    }
+
+    @Test
+    void testReassociateModeFoldsConstantRuns() {
+        LazyOperationChain lazy = calc.startLazy(100, FoldingMode.REASSOCIATE);
+        lazy.chain(OperationType.ADD, 5)
+                .chain(OperationType.SUBTRACT, 3)
+                .chain(OperationType.ADD, 8)
+                .chain(OperationType.MULTIPLY, 2)
+                .chain(OperationType.MULTIPLY, 4)
+                .chain(OperationType.DIVIDE, 10);
+        assertEquals(3, lazy.toTemplate().steps());
+        assertEquals(88.0, lazy.getResultAsDouble());
+    }
+
+    @Test
+    void testErrorsSurfaceOnResult() {
+        OperationChainBuilder lazy = calc.startLazy(10, FoldingMode.STRICT).chain(OperationType.DIVIDE, 0);
+        assertThrows(DivisionByZeroException.class, lazy::getResult);
+        OperationChainBuilder nullOp = calc.startLazy(1, FoldingMode.STRICT).chain(null, 1);
+        assertThrows(NullOperandException.class, nullOp::getResult);
+        OperationChainBuilder nullOperand = calc.startLazy(1, FoldingMode.STRICT).chain(OperationType.ADD, null);
+        assertThrows(NullOperandException.class, nullOperand::getResult);
+    }
+
+    // Nulls follow the calculator's error policy, as they do in the eager chains
+    @Test
+    void testNullsFollowTheErrorPolicy() {
+        Calculator codes = CalculatorConfig.createCalculator(ErrorPolicy.RESULT_CODE);
+        LazyOperationChain lazy = codes.startLazy(4, FoldingMode.REASSOCIATE);
+        lazy.chain(OperationType.ADD, 1).chain(OperationType.MULTIPLY, null).chain(OperationType.ADD, 2);
+        assertEquals(ErrorCode.NULL_OPERAND, ResultCode.errorCode(lazy.getResultAsDouble()));
+        double[] out = new double[2];
+        lazy.toTemplate().applyAll(new double[]{1, 2}, out, ZeroDivisorPolicy.IEEE);
+        assertEquals(ErrorCode.NULL_OPERAND, ResultCode.errorCode(out[0]));
+        assertEquals(ErrorCode.NULL_OPERAND, ResultCode.errorCode(out[1]));
+
+        LazyOperationChain nullOp = codes.startLazy(4, FoldingMode.STRICT);
+        nullOp.chain(OperationType.DIVIDE, 0).chain(null, 1);
+        double eager = codes.start(4).chain(OperationType.DIVIDE, 0).chain(null, 1).getResultAsDouble();
+        assertEquals(ResultCode.errorCode(eager), ResultCode.errorCode(nullOp.getResultAsDouble()));
+
+        Calculator ieee = CalculatorConfig.createCalculator(ErrorPolicy.IEEE);
+        for (OperationChainBuilder chain : new OperationChainBuilder[]{ieee.start(4), ieee.startLazy(4, FoldingMode.STRICT)}) {
+            chain.chain(OperationType.ADD, 1).chain(null, 3);
+            assertTrue(Double.isNaN(chain.getResultAsDouble()));
+        }
+        LazyOperationChain operand = ieee.startLazy(4, FoldingMode.STRICT);
+        operand.chain(OperationType.SUBTRACT, null).chain(OperationType.ADD, 1);
+        assertTrue(Double.isNaN(operand.getResultAsDouble()));
+        assertFalse(operand.toTemplate().isCompiled());
+    }
+
+    @Test
+    void testTemplateAppliedToSeeds() {
+        LazyOperationChain lazy = calc.startLazy(0, FoldingMode.STRICT);
+        lazy.chain(OperationType.MULTIPLY, 1.2).chain(OperationType.ADD, 5).chain(OperationType.DIVIDE, 2);
+        ChainTemplate template = lazy.toTemplate();
+
+        double[] seeds = new double[100_000];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = i * 0.37;
+        }
+        double[] out = new double[seeds.length];
+        template.applyAll(seeds, out, ZeroDivisorPolicy.THROW);
+        for (int i = 0; i < seeds.length; i++) {
+            assertEquals(template.apply(seeds[i]), out[i]);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.sidhdharth.calculator.chain;
 
 import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.api.ErrorCode;
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.api.ResultCode;
 import com.sidhdharth.calculator.config.CalculatorConfig;
 import com.sidhdharth.calculator.exception.DivisionByZeroException;
 import com.sidhdharth.calculator.exception.ModuloByZeroException;
+import com.sidhdharth.calculator.exception.NullOperandException;
 import com.sidhdharth.calculator.operation.OperationType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -149,4 +153,54 @@ class OperationChainTest {
                 .getResult();
         assertEquals(0.0, result);
     }
+
+    @Test
+    void testPrimitiveChain() {
+        OperationChainBuilder chain = calc.start(5.0)
+                .chain(OperationType.ADD, 3.0)
+                .chain(OperationType.MULTIPLY, 2.0);
+        assertEquals(16.0, chain.getResultAsDouble());
+        assertEquals(16.0, chain.getResult());
+    }
+
+    @Test
+    void testChainWithNullOperand() {
+        assertThrows(NullOperandException.class, () -> calc.start(5).chain(OperationType.ADD, (Number) null));
+        assertThrows(NullOperandException.class, () -> calc.start(5).chain(null, 1));
+    }
+
+    @Test
+    void testChainWithErrorPolicies() {
+        Calculator codes = CalculatorConfig.createCalculator(ErrorPolicy.RESULT_CODE);
+        double result = codes.start(10)
+                .chain(OperationType.DIVIDE, 0)
+                .chain(OperationType.ADD, 5)
+                .chain(OperationType.MULTIPLY, (Number) null)
+                .getResultAsDouble();
+        assertEquals(ErrorCode.DIVISION_BY_ZERO, ResultCode.errorCode(result));
+
+        Calculator ieee = CalculatorConfig.createCalculator(ErrorPolicy.IEEE);
+        assertEquals(Double.POSITIVE_INFINITY, ieee.start(10).chain(OperationType.DIVIDE, 0).getResult());
+        LazyOperationChain lazy = ieee.startLazy(10, FoldingMode.STRICT);
+        lazy.chain(OperationType.DIVIDE, 0).chain(OperationType.ADD, 1);
+        assertEquals(Double.POSITIVE_INFINITY, lazy.getResultAsDouble());
+    }
+
+    @Test
+    void testFirstErrorSurvivesLaterZeroDivisor() {
+        Calculator codes = CalculatorConfig.createCalculator(ErrorPolicy.RESULT_CODE);
+        double divided = codes.start(1)
+                .chain(OperationType.DIVIDE, 0)
+                .chain(OperationType.MODULO, 0)
+                .getResultAsDouble();
+        assertEquals(ErrorCode.DIVISION_BY_ZERO, ResultCode.errorCode(divided));
+
+        Number nullFirst = codes.start(1)
+                .chain(OperationType.ADD, (Number) null)
+                .chain(OperationType.DIVIDE, 0)
+                .getResult();
+        assertEquals(ErrorCode.NULL_OPERAND, ResultCode.errorCode(nullFirst.doubleValue()));
+        assertEquals(ErrorCode.NULL_OPERAND, ResultCode.errorCode(
+                codes.calculate(OperationType.MODULO, nullFirst, 0).doubleValue()));
+    }
 }
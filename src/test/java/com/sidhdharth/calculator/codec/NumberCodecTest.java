@@ -0,0 +1,173 @@
+package com.sidhdharth.calculator.codec;
+
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumberCodecTest {
+
+    private static final String[] EDGE_CASES = {
+            "0", "-0", "0.0", "1", "-1", "0.1", "0.3", "3.14159", "1e22", "1e23", "9007199254740993",
+            "4.9e-324", "2.4703282292062327e-324", "2.4703282292062328e-324", "2.2250738585072011e-308",
+            "2.2250738585072014e-308", "1.7976931348623157e308", "1.7976931348623158e308", "1.8e308", "1e-400",
+            "123456789012345678901234567890", "0.000000000000000000000000000001", "7.038531e-26",
+            "9223372036854775807", "9223372036854775808", "18446744073709551615", "18446744073709551616",
+            "1.00000000000000011102230246251565404236316680908203125", "179769313486231580793728971405301e276",
+    };
+
+    @Test
+    void testParseMatchesJdkBitForBit() {
+        SplittableRandom random = new SplittableRandom(21);
+        List<String> inputs = new ArrayList<>(List.of(EDGE_CASES));
+        for (int i = 0; i < 100_000; i++) {
+            double d = Double.longBitsToDouble(random.nextLong() & 0x7FFFFFFFFFFFFFFFL);
+            if (Double.isFinite(d)) {
+                inputs.add(Double.toString(d));
+                inputs.add(new BigDecimal(d).toString());
+            }
+            inputs.add(random.nextInt(1_000_000) + "." + random.nextInt(1_000_000) + "e" + (random.nextInt(640) - 320));
+        }
+        for (String input : inputs) {
+            long expected = Double.doubleToRawLongBits(Double.parseDouble(input));
+            assertEquals(expected, Double.doubleToRawLongBits(NumberParser.parseDouble(input)), input);
+            byte[] ascii = input.getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer buf = ByteBuffer.wrap(ascii);
+            assertEquals(expected, Double.doubleToRawLongBits(NumberParser.parseDouble(buf, 0, ascii.length)), input);
+        }
+    }
+
+    @Test
+    void testParseRanges() {
+        String line = "  12.5 * -3e2 ";
+        assertEquals(12.5, NumberParser.parseDouble(line, 2, 6));
+        assertEquals(-300, NumberParser.parseDouble(line, 9, 13));
+        assertEquals(12.5, NumberParser.parseDouble(line, 0, 6), "surrounding whitespace is trimmed");
+        assertEquals(4, NumberParser.scan(line, 2, line.length()));
+    }
+
+    @Test
+    void testParseFallsBackToJdkForOtherForms() {
+        assertEquals(Double.NaN, NumberParser.parseDouble("NaN"));
+        assertEquals(Double.NEGATIVE_INFINITY, NumberParser.parseDouble("-Infinity"));
+        assertEquals(255.0, NumberParser.parseDouble("0x1.fep7"));
+        assertEquals(2.5, NumberParser.parseDouble("2.5d"));
+        assertThrows(NumberFormatException.class, () -> NumberParser.parseDouble("12a"));
+        assertThrows(NumberFormatException.class, () -> NumberParser.parseDouble(""));
+    }
+
+    @Test
+    void testStrictByteParsingRejectsGarbage() {
+        byte[] ascii = "1.5x".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(InvalidInputException.class,
+                () -> NumberParser.parseDouble(ByteBuffer.wrap(ascii), 0, ascii.length));
+    }
+
+    @Test
+    void testFormatRoundTripsAndIsNeverLongerThanJdk() {
+        SplittableRandom random = new SplittableRandom(22);
+        byte[] dst = new byte[NumberFormatter.MAX_LENGTH];
+        for (int i = 0; i < 200_000; i++) {
+            double d = i % 2 == 0
+                    ? Double.longBitsToDouble(random.nextLong())
+                    : random.nextInt(2_000_000) / 1000.0 - 1000;
+            String text = NumberFormatter.toString(d);
+            assertEquals(Double.doubleToLongBits(d), Double.doubleToLongBits(Double.parseDouble(text)), text);
+            assertTrue(text.length() <= Double.toString(d).length(), text + " vs " + d);
+            assertEquals(text.length(), NumberFormatter.format(d, dst, 0));
+            assertEquals(text, new String(dst, 0, text.length(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void testFormatLayout() {
+        assertEquals("0.0", NumberFormatter.toString(0.0));
+        assertEquals("-0.0", NumberFormatter.toString(-0.0));
+        assertEquals("NaN", NumberFormatter.toString(Double.NaN));
+        assertEquals("-Infinity", NumberFormatter.toString(Double.NEGATIVE_INFINITY));
+        assertEquals("42.0", NumberFormatter.toString(42));
+        assertEquals("0.001", NumberFormatter.toString(0.001));
+        assertEquals("1.0E-4", NumberFormatter.toString(0.0001));
+        assertEquals("1234567.0", NumberFormatter.toString(1234567));
+        assertEquals("1.0E7", NumberFormatter.toString(1e7));
+        assertEquals("0.30000000000000004", NumberFormatter.toString(0.1 + 0.2));
+        assertEquals("4.9E-324", NumberFormatter.toString(Double.MIN_VALUE));
+        assertEquals("1.7976931348623157E308", NumberFormatter.toString(Double.MAX_VALUE));
+    }
+
+    // The Double.toString contract of Java 19 checked with BigDecimal, so it also runs on older JDKs
+    @Test
+    void testFormatIsTheShortestClosestDecimal() {
+        SplittableRandom random = new SplittableRandom(24);
+        List<Double> values = new ArrayList<>(List.of(Double.MIN_VALUE, Double.MAX_VALUE, Double.MIN_NORMAL, 1.0, 0.1,
+                2e-323, 9.9e-324, 1e23, 2.0e-3, 5e-324 * 3, Math.nextDown(1.0), Math.nextUp(1e22)));
+        for (int i = 0; i < 20_000; i++) {
+            values.add(Double.longBitsToDouble(random.nextLong()));
+            values.add(Math.scalb(1.0, random.nextInt(2098) - 1074));
+        }
+        for (double d : values) {
+            if (!Double.isFinite(d) || d == 0) {
+                continue;
+            }
+            BigDecimal expected = shortestClosest(d);
+            String text = NumberFormatter.toString(d);
+            assertEquals(0, expected.compareTo(new BigDecimal(text)), text + " vs " + expected.toPlainString());
+        }
+    }
+
+    @Test
+    void testFormatMatchesJdkWhereJdkIsShortest() {
+        Assumptions.assumeTrue(Runtime.version().feature() >= 19,
+                "Double.toString only guarantees the shortest decimal from Java 19 on");
+        SplittableRandom random = new SplittableRandom(23);
+        for (int i = 0; i < 100_000; i++) {
+            double d = Double.longBitsToDouble(random.nextLong());
+            assertEquals(Double.toString(d), NumberFormatter.toString(d));
+        }
+    }
+
+    /*
+     * Among the decimals that round to d, those of minimal length n (or of length 2 when n is 1), the
+     * one closest to d, ties going to the even last digit.
+     */
+    private static BigDecimal shortestClosest(double d) {
+        BigDecimal exact = new BigDecimal(d);
+        for (int n = 1; ; n++) {
+            BigDecimal down = exact.round(new MathContext(Math.max(n, 2), RoundingMode.FLOOR));
+            BigDecimal up = exact.round(new MathContext(Math.max(n, 2), RoundingMode.CEILING));
+            boolean downRoundTrips = down.doubleValue() == d;
+            boolean upRoundTrips = up.doubleValue() == d;
+            if (n == 1) {
+                BigDecimal shortDown = exact.round(new MathContext(1, RoundingMode.FLOOR));
+                BigDecimal shortUp = exact.round(new MathContext(1, RoundingMode.CEILING));
+                if (shortDown.doubleValue() != d && shortUp.doubleValue() != d) {
+                    continue;
+                }
+            }
+            if (!downRoundTrips && !upRoundTrips) {
+                continue;
+            }
+            if (!upRoundTrips) {
+                return down;
+            }
+            if (!downRoundTrips) {
+                return up;
+            }
+            int order = exact.subtract(down).compareTo(up.subtract(exact));
+            if (order != 0) {
+                return order < 0 ? down : up;
+            }
+            return down.unscaledValue().testBit(0) ? up : down;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.sidhdharth.calculator.column;
+
+import com.sidhdharth.calculator.api.ZeroDivisorPolicy;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnStoreTest {
+
+    // Small chunks so that evaluations cross several mappings
+    private static final int CHUNK_ROWS = 128;
+    private static final int ROWS = 1000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testFileFormat() throws IOException {
+        Path file = dir.resolve("a.col");
+        try (Column column = Column.create(file, ColumnType.INT64, 3, CHUNK_ROWS)) {
+            column.setLong(0, 7);
+            column.setNull(1, true);
+            column.setLong(2, -1);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(Column.HEADER_SIZE + 8 + 3 * 8, bytes.capacity());
+        assertEquals("CALCCOL1", new String(bytes.array(), 0, 8, StandardCharsets.US_ASCII));
+        assertEquals(Column.VERSION, bytes.getInt(8));
+        assertEquals(ColumnType.INT64.id(), bytes.getInt(12));
+        assertEquals(3, bytes.getLong(16));
+        assertEquals(0b010, bytes.getLong(64));
+        assertEquals(7, bytes.getLong(72));
+        assertEquals(-1, bytes.getLong(88));
+
+        Column reopened = Column.open(file, false, CHUNK_ROWS);
+        assertEquals(3, reopened.rows());
+        assertEquals(7.0, reopened.get(0));
+        assertTrue(reopened.isNull(1));
+        assertEquals(-1, reopened.getLong(2));
+
+        Files.write(dir.resolve("bad.col"), new byte[Column.HEADER_SIZE]);
+        assertThrows(InvalidInputException.class, () -> Column.open(dir.resolve("bad.col"), false));
+    }
+
+    @Test
+    void testColumnAgainstColumnAndScalar() throws IOException {
+        Column a = column("a", ColumnType.FLOAT64);
+        Column b = column("b", ColumnType.INT64);
+        Column out = Column.create(dir.resolve("out.col"), ColumnType.FLOAT64, ROWS, CHUNK_ROWS);
+        for (int row = 0; row < ROWS; row++) {
+            a.set(row, row * 0.5);
+            b.setLong(row, row % 7 + 1);
+        }
+        a.setNull(5, true);
+        b.setNull(300, true);
+
+        ColumnEvaluator.evaluate(OperationType.MULTIPLY, a, b, out, ZeroDivisorPolicy.THROW);
+        for (int row = 0; row < ROWS; row++) {
+            if (row == 5 || row == 300) {
+                assertTrue(out.isNull(row));
+                assertTrue(Double.isNaN(out.get(row)));
+            } else {
+                assertFalse(out.isNull(row));
+                assertEquals(row * 0.5 * (row % 7 + 1), out.get(row));
+            }
+        }
+
+        ColumnEvaluator.evaluate(OperationType.SUBTRACT, 100, a, out, ZeroDivisorPolicy.THROW);
+        assertEquals(100 - 999 * 0.5, out.get(999));
+        assertTrue(out.isNull(5));
+        assertFalse(out.isNull(300));
+
+        ColumnEvaluator.evaluate(OperationType.MODULO, b, 3, out, ZeroDivisorPolicy.THROW);
+        assertEquals(2.0, out.get(640 + 1));
+        assertTrue(out.isNull(300));
+    }
+
+    @Test
+    void testZeroDivisorPolicies() throws IOException {
+        Column a = column("a", ColumnType.FLOAT64);
+        Column b = column("b", ColumnType.FLOAT64);
+        Column out = Column.create(dir.resolve("out.col"), ColumnType.FLOAT64, ROWS, CHUNK_ROWS);
+        for (int row = 0; row < ROWS; row++) {
+            a.set(row, 1);
+            b.set(row, row % 10);
+        }
+        out.set(0, 42);
+        assertThrows(DivisionByZeroException.class,
+                () -> ColumnEvaluator.evaluate(OperationType.DIVIDE, a, b, out, ZeroDivisorPolicy.THROW));
+        assertEquals(42.0, out.get(0));
+
+        ColumnEvaluator.evaluate(OperationType.DIVIDE, a, b, out, ZeroDivisorPolicy.IEEE);
+        assertEquals(Double.POSITIVE_INFINITY, out.get(10));
+        assertEquals(0.5, out.get(12));
+        ColumnEvaluator.evaluate(OperationType.DIVIDE, a, b, out, ZeroDivisorPolicy.NAN);
+        assertTrue(Double.isNaN(out.get(20)));
+        assertFalse(out.isNull(20));
+
+        // Null divisors are not zero divisors
+        for (int row = 0; row < ROWS; row += 10) {
+            b.setNull(row, true);
+        }
+        ColumnEvaluator.evaluate(OperationType.DIVIDE, a, b, out, ZeroDivisorPolicy.THROW);
+        assertTrue(out.isNull(990));
+        assertEquals(0.25, out.get(994));
+    }
+
+    @Test
+    void testSummaryAndStore() throws IOException {
+        try (ColumnStore store = new ColumnStore(dir.resolve("store"))) {
+            Column values = store.create("values", ColumnType.FLOAT64, 5);
+            values.set(0, 3);
+            values.set(1, -2);
+            values.setNull(2, true);
+            values.set(3, 10);
+            values.set(4, 0.5);
+            assertEquals(new ColumnSummary(4, 11.5, -2, 10), values.summarize());
+            assertEquals(2.875, values.summarize().mean());
+            assertSame(values, store.column("values"));
+            store.create("empty", ColumnType.INT64, 0);
+            assertEquals(Set.of("empty", "values"), store.names());
+            assertThrows(InvalidInputException.class, () -> store.column("missing"));
+            assertThrows(InvalidInputException.class, () -> store.create("../escape", ColumnType.INT64, 1));
+        }
+        try (ColumnStore reopened = new ColumnStore(dir.resolve("store"))) {
+            assertEquals(11.5, reopened.column("values").summarize().sum());
+            ColumnSummary empty = reopened.column("empty").summarize();
+            assertEquals(0, empty.count());
+            assertTrue(Double.isNaN(empty.max()));
+        }
+    }
+
+    @Test
+    void testMismatchedColumnsRejected() throws IOException {
+        Column a = column("a", ColumnType.FLOAT64);
+        Column shorter = Column.create(dir.resolve("short.col"), ColumnType.FLOAT64, ROWS - 1, CHUNK_ROWS);
+        Column longs = Column.create(dir.resolve("longs.col"), ColumnType.INT64, ROWS, CHUNK_ROWS);
+        assertThrows(InvalidInputException.class,
+                () -> ColumnEvaluator.evaluate(OperationType.ADD, a, 1, shorter, ZeroDivisorPolicy.THROW));
+        assertThrows(InvalidInputException.class,
+                () -> ColumnEvaluator.evaluate(OperationType.ADD, a, 1, longs, ZeroDivisorPolicy.THROW));
+    }
+
+    private Column column(String name, ColumnType type) throws IOException {
+        return Column.create(dir.resolve(name + ".col"), type, ROWS, CHUNK_ROWS);
+    }
+}
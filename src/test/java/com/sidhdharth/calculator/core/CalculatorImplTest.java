@@ -1,11 +1,17 @@
 package com.sidhdharth.calculator.core;
 
 import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.api.ErrorCode;
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.api.ResultCode;
+import com.sidhdharth.calculator.api.ZeroDivisorPolicy;
 import com.sidhdharth.calculator.config.CalculatorConfig;
 import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
 import com.sidhdharth.calculator.exception.InvalidOperationException;
 import com.sidhdharth.calculator.exception.ModuloByZeroException;
 import com.sidhdharth.calculator.exception.NullOperandException;
+import com.sidhdharth.calculator.operation.Operation;
 import com.sidhdharth.calculator.operation.OperationType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -112,4 +118,180 @@ class CalculatorImplTest {
                         Double.isInfinite(calc.calculate(OperationType.MULTIPLY, Double.MAX_VALUE, 2).doubleValue())),
                 () -> assertEquals(0.0, calc.calculate(OperationType.MULTIPLY, Double.MIN_VALUE, 0.0)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPrimitiveOperations() {
+        assertAll(
+                () -> assertEquals(5.0, calc.calculateAsDouble(OperationType.ADD, 2, 3)),
+                () -> assertEquals(4.0, calc.calculateAsDouble(OperationType.SUBTRACT, 7, 3)),
+                () -> assertEquals(12.0, calc.calculateAsDouble(OperationType.MULTIPLY, 4, 3)),
+                () -> assertEquals(2.5, calc.calculateAsDouble(OperationType.DIVIDE, 5, 2)),
+                () -> assertEquals(1.0, calc.calculateAsDouble(OperationType.MODULO, 5, 2)),
+                () -> assertEquals(0.0, calc.calculateAsDouble(OperationType.ADD, -0.0, -0.0)),
+                () -> assertEquals(0.0, calc.calculateAsDouble(OperationType.MODULO, -2, 1)),
+                () -> assertThrows(DivisionByZeroException.class,
+                        () -> calc.calculateAsDouble(OperationType.DIVIDE, 5, 0)),
+                () -> assertThrows(ModuloByZeroException.class,
+                        () -> calc.calculateAsDouble(OperationType.MODULO, 5, 0)),
+                () -> assertThrows(NullOperandException.class, () -> calc.calculateAsDouble(null, 1, 2)));
+    }
+
+    @Test
+    void testBatchOperationsMatchSingleOperations() {
+        double[] num1 = {5, -2, 0, 1.5, -0.0, 7};
+        double[] num2 = {2, 1, 5, 1.0, 4.0, -3};
+        double[] out = new double[num1.length];
+        for (OperationType op : OperationType.values()) {
+            calc.calculateBatch(op, num1, num2, out, ZeroDivisorPolicy.THROW);
+            for (int i = 0; i < num1.length; i++) {
+                assertEquals(calc.calculateAsDouble(op, num1[i], num2[i]), out[i], op + " at " + i);
+            }
+        }
+    }
+
+    @Test
+    void testBatchBroadcastAndParallel() {
+        int size = 200_000;
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+        }
+        double[] out = new double[size];
+        calc.calculateBatch(OperationType.MULTIPLY, values, 2.0, out, ZeroDivisorPolicy.THROW);
+        assertEquals(2.0 * (size - 1), out[size - 1]);
+        calc.calculateBatch(OperationType.SUBTRACT, 1.0, values, out, ZeroDivisorPolicy.THROW);
+        assertEquals(1.0 - (size - 1), out[size - 1]);
+    }
+
+    @Test
+    void testBatchZeroDivisorPolicies() {
+        double[] num1 = {1, -1, 0, 6};
+        double[] num2 = {0, 0, 0, 3};
+        double[] out = {-1, -1, -1, -1};
+        assertAll(
+                () -> assertThrows(DivisionByZeroException.class,
+                        () -> calc.calculateBatch(OperationType.DIVIDE, num1, num2, out, ZeroDivisorPolicy.THROW)),
+                () -> assertThrows(ModuloByZeroException.class,
+                        () -> calc.calculateBatch(OperationType.MODULO, num1, 0.0, out, ZeroDivisorPolicy.THROW)),
+                () -> assertArrayEquals(new double[]{-1, -1, -1, -1}, out));
+
+        calc.calculateBatch(OperationType.DIVIDE, num1, num2, out, ZeroDivisorPolicy.IEEE);
+        assertArrayEquals(new double[]{Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN, 2}, out);
+
+        calc.calculateBatch(OperationType.DIVIDE, num1, num2, out, ZeroDivisorPolicy.NAN);
+        assertArrayEquals(new double[]{Double.NaN, Double.NaN, Double.NaN, 2}, out);
+
+        calc.calculateBatch(OperationType.MODULO, num1, num2, out, ZeroDivisorPolicy.NAN);
+        assertArrayEquals(new double[]{Double.NaN, Double.NaN, Double.NaN, 0}, out);
+    }
+
+    // A custom operation that fails part way through must not leave a partly written batch behind
+    @Test
+    void testBatchFailingCustomOperationWritesNothing() {
+        Operation divide = (x, y) -> {
+            if (y == 0) {
+                throw new DivisionByZeroException();
+            }
+            return x / y;
+        };
+        double[] num1 = {4, 6, 8, 10};
+        double[] num2 = {2, 3, 0, 5};
+        double[] out = {-1, -1, -1, -1};
+        assertThrows(DivisionByZeroException.class,
+                () -> calc.calculateBatch(divide, num1, num2, out, ZeroDivisorPolicy.THROW));
+        assertArrayEquals(new double[]{-1, -1, -1, -1}, out);
+
+        calc.calculateBatch(divide, num1, num2, out, ZeroDivisorPolicy.NAN);
+        assertArrayEquals(new double[]{2, 2, Double.NaN, 2}, out);
+
+        int size = BatchKernel.PARALLEL_THRESHOLD * 4;
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+        }
+        Operation failLast = (x, y) -> {
+            if (x == size - 1) {
+                throw new IllegalStateException("failed on " + x);
+            }
+            return x + y;
+        };
+        assertThrows(IllegalStateException.class,
+                () -> calc.calculateBatch(failLast, values, 1.0, values, ZeroDivisorPolicy.THROW));
+        for (int i = 0; i < size; i++) {
+            assertEquals(i, values[i]);
+        }
+    }
+
+    @Test
+    void testBatchInvalidArguments() {
+        double[] values = new double[3];
+        assertAll(
+                () -> assertThrows(InvalidInputException.class,
+                        () -> calc.calculateBatch(OperationType.ADD, values, new double[2], values, ZeroDivisorPolicy.THROW)),
+                () -> assertThrows(NullOperandException.class,
+                        () -> calc.calculateBatch(OperationType.ADD, null, values, values, ZeroDivisorPolicy.THROW)),
+                () -> assertThrows(NullOperandException.class,
+                        () -> calc.calculateBatch(null, values, values, values, ZeroDivisorPolicy.THROW)));
+    }
+
+    @Test
+    void testIeeeErrorPolicy() {
+        Calculator ieee = CalculatorConfig.createCalculator(ErrorPolicy.IEEE);
+        assertAll(
+                () -> assertEquals(Double.POSITIVE_INFINITY, ieee.calculateAsDouble(OperationType.DIVIDE, 1, 0)),
+                () -> assertEquals(Double.NEGATIVE_INFINITY, ieee.calculateAsDouble(OperationType.DIVIDE, -1, 0)),
+                () -> assertTrue(Double.isNaN(ieee.calculateAsDouble(OperationType.DIVIDE, 0, 0))),
+                () -> assertTrue(Double.isNaN(ieee.calculateAsDouble(OperationType.MODULO, 5, 0))),
+                () -> assertTrue(Double.isNaN(ieee.calculate(OperationType.ADD, null, 2).doubleValue())),
+                () -> assertEquals(2.5, ieee.calculate(OperationType.DIVIDE, 5, 2)));
+    }
+
+    @Test
+    void testResultCodeErrorPolicy() {
+        Calculator codes = CalculatorConfig.createCalculator(ErrorPolicy.RESULT_CODE);
+        double divided = codes.calculateAsDouble(OperationType.DIVIDE, 1, 0);
+        double modulo = codes.calculateAsDouble(OperationType.MODULO, 1, 0);
+        double nullOperand = codes.calculate(null, 1, 2).doubleValue();
+        assertAll(
+                () -> assertEquals(ErrorCode.DIVISION_BY_ZERO, ResultCode.errorCode(divided)),
+                () -> assertEquals(ErrorCode.MODULO_BY_ZERO, ResultCode.errorCode(modulo)),
+                () -> assertEquals(ErrorCode.NULL_OPERAND, ResultCode.errorCode(nullOperand)),
+                () -> assertFalse(ResultCode.isError(Double.NaN)),
+                () -> assertFalse(ResultCode.isError(codes.calculateAsDouble(OperationType.DIVIDE, 6, 3))),
+                () -> assertEquals(ErrorCode.DIVISION_BY_ZERO,
+                        ResultCode.errorCode(codes.calculateAsDouble(OperationType.ADD, divided, 1))),
+                () -> assertInstanceOf(DivisionByZeroException.class, ErrorCode.DIVISION_BY_ZERO.toException()));
+    }
+
+    @Test
+    void testBatchCopiesErrorCodes() {
+        Calculator calc = CalculatorConfig.createCalculator(ErrorPolicy.RESULT_CODE);
+        double divided = ResultCode.error(ErrorCode.DIVISION_BY_ZERO);
+        double nullOperand = ResultCode.error(ErrorCode.NULL_OPERAND);
+        double[] num1 = {1, divided, 3, nullOperand};
+        double[] num2 = {2, nullOperand, divided, 4};
+        double[] out = new double[4];
+        calc.calculateBatch(OperationType.MULTIPLY, num1, num2, out, ZeroDivisorPolicy.IEEE);
+        assertEquals(2, out[0]);
+        assertEquals(ErrorCode.DIVISION_BY_ZERO, ResultCode.errorCode(out[1]));
+        assertEquals(ErrorCode.DIVISION_BY_ZERO, ResultCode.errorCode(out[2]));
+        assertEquals(ErrorCode.NULL_OPERAND, ResultCode.errorCode(out[3]));
+
+        calc.calculateBatch(OperationType.ADD, num1, nullOperand, num1, ZeroDivisorPolicy.IEEE);
+        assertEquals(ErrorCode.NULL_OPERAND, ResultCode.errorCode(num1[0]));
+        assertEquals(ErrorCode.DIVISION_BY_ZERO, ResultCode.errorCode(num1[1]));
+    }
+
+    @Test
+    void testStacklessErrorPolicy() {
+        Calculator stackless = CalculatorConfig.createCalculator(ErrorPolicy.STACKLESS);
+        DivisionByZeroException first = assertThrows(DivisionByZeroException.class,
+                () -> stackless.calculateAsDouble(OperationType.DIVIDE, 1, 0));
+        DivisionByZeroException second = assertThrows(DivisionByZeroException.class,
+                () -> stackless.calculate(OperationType.DIVIDE, 2, 0));
+        assertSame(first, second);
+        assertEquals(0, first.getStackTrace().length);
+        assertThrows(ModuloByZeroException.class, () -> stackless.calculateAsDouble(OperationType.MODULO, 1, 0));
+        assertThrows(NullOperandException.class, () -> stackless.calculate(OperationType.ADD, 1, null));
+    }
+}
@@ -0,0 +1,214 @@
+package com.sidhdharth.calculator.core;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.chain.OperationChainBuilder;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChainReducerTest {
+
+    private static final int LARGE = 200_000;
+
+    private Calculator calc;
+    private ChainReducer reducer;
+
+    @BeforeEach
+    void setUp() {
+        calc = CalculatorConfig.createCalculator();
+        reducer = new ChainReducer(calc);
+    }
+
+    @Test
+    void testCompensatedSum() {
+        assertEquals(1.0, reducer.reduce(OperationType.ADD, 0, new double[]{1e100, 1, -1e100}));
+        assertEquals(-1.0, reducer.reduce(OperationType.SUBTRACT, 0, new double[]{1e100, 1, -1e100}));
+
+        double[] values = new Random(42).doubles(LARGE, -1e6, 1e6).toArray();
+        BigDecimal exact = new BigDecimal(0.5);
+        for (double value : values) {
+            exact = exact.add(new BigDecimal(value));
+        }
+        assertEquals(exact.doubleValue(), reducer.reduce(OperationType.ADD, 0.5, values));
+        assertEquals(exact.doubleValue(), reducer.reduce(OperationType.ADD, 0.5, Arrays.stream(values).parallel()));
+        assertEquals(1.0 - exact.subtract(new BigDecimal(0.5)).doubleValue(),
+                reducer.reduce(OperationType.SUBTRACT, 1, values), 1e-6);
+    }
+
+    @Test
+    void testMatchesSequentialChain() {
+        double[] factors = new Random(7).doubles(LARGE, 0.999, 1.001).toArray();
+        assertEquals(sequential(OperationType.MULTIPLY, 3, factors),
+                reducer.reduce(OperationType.MULTIPLY, 3, factors), 1e-9);
+        assertEquals(sequential(OperationType.DIVIDE, 3, factors),
+                reducer.reduce(OperationType.DIVIDE, 3, factors), 1e-9);
+        assertEquals(sequential(OperationType.MULTIPLY, 3, factors),
+                reducer.reduce(OperationType.MULTIPLY, 3, Arrays.stream(factors).parallel()), 1e-9);
+
+        double[] moduli = {17, 5, 3.5, 2};
+        assertEquals(sequential(OperationType.MODULO, 1000, moduli),
+                reducer.reduce(OperationType.MODULO, 1000, moduli));
+        assertEquals(sequential(OperationType.MODULO, 1000, moduli),
+                reducer.reduce(OperationType.MODULO, 1000, Arrays.stream(moduli)));
+        Operation max = Math::max;
+        assertEquals(9.0, reducer.reduce(max, 1, new double[]{4, 9, 2}));
+        assertEquals(4.0, reducer.reduce(OperationType.ADD, 4, new double[0]));
+    }
+
+    @Test
+    void testDivideFallsBackToSequential() {
+        assertThrows(DivisionByZeroException.class,
+                () -> reducer.reduce(OperationType.DIVIDE, 1, new double[]{2, 0, 4}));
+        ChainReducer ieee = new ChainReducer(CalculatorConfig.createCalculator(ErrorPolicy.IEEE));
+        assertEquals(Double.POSITIVE_INFINITY, ieee.reduce(OperationType.DIVIDE, 1, new double[]{2, 0, 4}));
+        // The product of the divisors overflows although the chain itself does not
+        assertEquals(1e-100, reducer.reduce(OperationType.DIVIDE, 1e300, new double[]{1e200, 1e200}));
+        // A subnormal product has already lost precision
+        assertEquals(1.0E20, reducer.reduce(OperationType.DIVIDE, 1e-300, new double[]{1e-160, 1e-160}));
+    }
+
+    @Test
+    void testOutOfRangeFallsBackToSequential() {
+        double[][] cases = {{1e200, 1e200}, {1e-160, 1e-160}, {1e300, 1e-300, 1e300}, {1e10, 1e-10}};
+        for (double seed : new double[]{1e-300, 1e300, -1e300, 0, 1}) {
+            for (double[] operands : cases) {
+                for (OperationType op : new OperationType[]{OperationType.MULTIPLY, OperationType.DIVIDE}) {
+                    String message = op + " from " + seed + " over " + Arrays.toString(operands);
+                    assertWithinRounding(sequential(op, seed, operands), reducer.reduce(op, seed, operands), message);
+                    assertWithinRounding(sequential(op, seed, operands),
+                            reducer.reduce(op, seed, Arrays.stream(operands).parallel()), message);
+                    double[] scan = reducer.scan(op, seed, operands);
+                    double[] expected = sequentialScan(op, seed, operands);
+                    for (int i = 0; i < operands.length; i++) {
+                        assertWithinRounding(expected[i], scan[i], message + " at " + i);
+                    }
+                }
+            }
+        }
+        assertEquals(1.0E100, reducer.reduce(OperationType.MULTIPLY, 1e-300, new double[]{1e200, 1e200}));
+        assertArrayEquals(new double[]{1e-100, 1e100},
+                reducer.scan(OperationType.MULTIPLY, 1e-300, new double[]{1e200, 1e200}));
+        assertEquals(1.0000000000000001E-20,
+                reducer.reduce(OperationType.MULTIPLY, 1e300, new double[]{1e-160, 1e-160}));
+
+        // The sequential chain overflows and stays infinite, so the regrouped sum must not recover
+        assertEquals(Double.POSITIVE_INFINITY, reducer.reduce(OperationType.ADD, 1e308, new double[]{1e308, -1e308}));
+        assertEquals(Double.NEGATIVE_INFINITY,
+                reducer.reduce(OperationType.SUBTRACT, -1e308, new double[]{1e308, -1e308}));
+        assertEquals(Double.POSITIVE_INFINITY,
+                reducer.reduce(OperationType.ADD, 1e308, Arrays.stream(new double[]{1e308, -1e308})));
+        assertArrayEquals(new double[]{Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY},
+                reducer.scan(OperationType.ADD, 1e308, new double[]{1e308, -1e308}));
+
+        double[] large = new double[LARGE];
+        Arrays.fill(large, 1e-3);
+        large[LARGE / 2] = 1e308;
+        large[LARGE / 2 + 1] = 1e308;
+        large[LARGE / 2 + 2] = -1e308;
+        assertEquals(sequential(OperationType.ADD, 0, large), reducer.reduce(OperationType.ADD, 0, large));
+        Arrays.fill(large, 1e3);
+        assertEquals(sequential(OperationType.MULTIPLY, 1e-300, large),
+                reducer.reduce(OperationType.MULTIPLY, 1e-300, large));
+        assertArrayEquals(sequentialScan(OperationType.DIVIDE, 1e300, large),
+                reducer.scan(OperationType.DIVIDE, 1e300, large));
+    }
+
+    @Test
+    void testScan() {
+        double[] values = new Random(3).doubles(LARGE, -10, 10).toArray();
+        for (OperationType op : new OperationType[]{OperationType.ADD, OperationType.SUBTRACT}) {
+            double[] scan = reducer.scan(op, 2, values);
+            double value = 2;
+            for (int i = 0; i < values.length; i++) {
+                value = op.applyAsDouble(value, values[i]);
+                assertEquals(value, scan[i], 1e-9, op + " at " + i);
+            }
+        }
+        double[] factors = new Random(5).doubles(LARGE, 0.999, 1.001).toArray();
+        double[] products = reducer.scan(OperationType.MULTIPLY, 1, factors);
+        double[] quotients = reducer.scan(OperationType.DIVIDE, 1, factors);
+        double product = 1;
+        for (int i = 0; i < factors.length; i++) {
+            product *= factors[i];
+            assertEquals(product, products[i], 1e-9);
+            assertEquals(1 / product, quotients[i], 1e-9);
+        }
+        // Every prefix product is checked, not only the total: these products overflow part way, though the
+        // total and the chain itself stay in range
+        double[] extremes = {1e300, 1e300, 1e-300, 1e-300};
+        assertArrayEquals(sequentialScan(OperationType.DIVIDE, 1e300, extremes), reducer.scan(OperationType.DIVIDE, 1e300, extremes));
+        double[] lanes = {1e200, 1e200, 1, 1, 1e-200, 1e-200, 1, 1};
+        assertArrayEquals(sequentialScan(OperationType.DIVIDE, 1e300, lanes), reducer.scan(OperationType.DIVIDE, 1e300, lanes));
+        double[] repeated = new double[LARGE];
+        for (int i = 0; i < LARGE; i++) {
+            repeated[i] = lanes[i % lanes.length];
+        }
+        assertArrayEquals(sequentialScan(OperationType.DIVIDE, 1e300, repeated), reducer.scan(OperationType.DIVIDE, 1e300, repeated));
+
+        assertArrayEquals(new double[]{11, 1, 1}, reducer.scan(OperationType.MODULO, 11, new double[]{12, 5, 2}));
+        assertEquals(0, reducer.scan(OperationType.ADD, 1, new double[0]).length);
+    }
+
+    // Zero results carry the sign the sequential chain gives them, which the rewritten sum alone loses
+    @Test
+    void testSignedZeros() {
+        double[][] cases = {{0.0}, {-0.0}, {0.0, 0.0, -0.0, 0.0}, {1, -1}, {0.0, 1, -1, 0.0}, {}};
+        for (double seed : new double[]{-0.0, 0.0, 1.0}) {
+            for (double[] operands : cases) {
+                String message = seed + " - " + Arrays.toString(operands);
+                assertEquals(sequential(OperationType.SUBTRACT, seed, operands),
+                        reducer.reduce(OperationType.SUBTRACT, seed, operands), message);
+                assertArrayEquals(sequentialScan(OperationType.SUBTRACT, seed, operands),
+                        reducer.scan(OperationType.SUBTRACT, seed, operands), message);
+                assertEquals(sequential(OperationType.ADD, seed, operands),
+                        reducer.reduce(OperationType.ADD, seed, operands), message);
+            }
+        }
+        assertEquals(-0.0, reducer.reduce(OperationType.SUBTRACT, -0.0, new double[]{0.0}));
+        double[] zeros = new double[LARGE];
+        double[] scanned = reducer.scan(OperationType.SUBTRACT, -0.0, zeros);
+        assertEquals(-0.0, scanned[LARGE - 1]);
+        zeros[LARGE / 2] = -0.0;
+        scanned = reducer.scan(OperationType.SUBTRACT, -0.0, zeros);
+        assertEquals(-0.0, scanned[LARGE / 2 - 1]);
+        assertEquals(0.0, scanned[LARGE / 2]);
+        assertEquals(0.0, reducer.reduce(OperationType.SUBTRACT, -0.0, zeros));
+    }
+
+    // Exact where the chain leaves the normal range, where regrouping would show as more than rounding
+    private static void assertWithinRounding(double expected, double actual, String message) {
+        if (Double.isFinite(expected) && Math.abs(expected) >= Double.MIN_NORMAL) {
+            assertEquals(expected, actual, Math.abs(expected) * 1e-15, message);
+        } else {
+            assertEquals(expected, actual, message);
+        }
+    }
+
+    private static double[] sequentialScan(OperationType op, double seed, double[] operands) {
+        double[] out = new double[operands.length];
+        double value = seed;
+        for (int i = 0; i < operands.length; i++) {
+            value = op.applyAsDouble(value, operands[i]);
+            out[i] = value;
+        }
+        return out;
+    }
+
+    private double sequential(Operation op, double seed, double[] operands) {
+        OperationChainBuilder chain = calc.start(seed);
+        for (double operand : operands) {
+            chain.chain(op, operand);
+        }
+        return chain.getResultAsDouble();
+    }
+}
@@ -0,0 +1,71 @@
+package com.sidhdharth.calculator.expression;
+
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.exception.ModuloByZeroException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpressionTest {
+
+    @Test
+    void testPrecedenceAndParentheses() {
+        assertAll(
+                () -> assertEquals(1.0, Expression.compile("3 + 4 * 2 / (1 - 5)").evaluate()),
+                () -> assertEquals(14.0, Expression.compile("(3 + 4) * 2").evaluate()),
+                () -> assertEquals(1.0, Expression.compile("10 - 4 - 5").evaluate()),
+                () -> assertEquals(3.0, Expression.compile("17 % 5 x 3 / 2").evaluate()),
+                () -> assertEquals(-6.0, Expression.compile("-(2 X 3)").evaluate()),
+                () -> assertEquals(2500.0, Expression.compile("2.5e3").evaluate()));
+    }
+
+    @Test
+    void testVariables() {
+        Expression expression = Expression.compile("price * qty - x x discount");
+        assertEquals(List.of("price", "qty", "x", "discount"), expression.variables());
+        assertEquals(17.0, expression.evaluate(2, 10, 1.5, 2));
+        assertEquals(17.0, expression.evaluate(Map.of("price", 2, "qty", 10, "x", 1.5, "discount", 2)));
+        assertThrows(InvalidInputException.class, () -> expression.evaluate(Map.of("price", 2)));
+        assertThrows(InvalidInputException.class, () -> expression.evaluate(1, 2));
+    }
+
+    @Test
+    void testZeroDivisorIsReportedOnEvaluation() {
+        Expression divide = Expression.compile("1 / 0");
+        Expression modulo = Expression.compile("a % (b - b)");
+        assertThrows(DivisionByZeroException.class, divide::evaluate);
+        assertThrows(ModuloByZeroException.class, () -> modulo.evaluate(5, 3));
+    }
+
+    @Test
+    void testSyntaxErrors() {
+        assertAll(
+                () -> assertThrows(InvalidInputException.class, () -> Expression.compile("")),
+                () -> assertThrows(InvalidInputException.class, () -> Expression.compile("1 +")),
+                () -> assertThrows(InvalidInputException.class, () -> Expression.compile("(1 + 2")),
+                () -> assertThrows(InvalidInputException.class, () -> Expression.compile("1 2")),
+                () -> assertThrows(InvalidInputException.class, () -> Expression.compile("1 ^ 2")),
+                () -> assertThrows(InvalidInputException.class, () -> Expression.compile("1..2")));
+    }
+
+    @Test
+    void testCacheHitsMissesAndEviction() {
+        ExpressionCache cache = new ExpressionCache(2);
+        Expression first = cache.compile("a + 1");
+        assertSame(first, cache.compile("a + 1"));
+        cache.compile("a + 2");
+        cache.compile("a + 1");
+        cache.compile("a + 3");
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.hits());
+        assertEquals(3, cache.misses());
+        assertEquals(1, cache.evictions());
+        // "a + 2" was least recently used
+        assertSame(first, cache.compile("a + 1"));
+        assertEquals(6.0, cache.evaluate("a + 3", Map.of("a", 3)));
+    }
+}
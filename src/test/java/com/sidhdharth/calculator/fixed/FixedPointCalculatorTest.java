@@ -0,0 +1,140 @@
+package com.sidhdharth.calculator.fixed;
+
+import com.sidhdharth.calculator.api.ZeroDivisorPolicy;
+import com.sidhdharth.calculator.chain.FoldingMode;
+import com.sidhdharth.calculator.chain.LazyOperationChain;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.ModuloByZeroException;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointCalculatorTest {
+
+    private FixedPointCalculator calc;
+
+    @BeforeEach
+    void setUp() {
+        calc = CalculatorConfig.createFixedPointCalculator(4, RoundingMode.HALF_EVEN);
+    }
+
+    @Test
+    void testExactDecimalArithmetic() {
+        assertAll(
+                () -> assertEquals(0.3, calc.calculateAsDouble(OperationType.ADD, 0.1, 0.2)),
+                () -> assertEquals(new BigDecimal("0.3000"), calc.calculate(OperationType.ADD, 0.1, 0.2).toBigDecimal()),
+                () -> assertEquals(0.07, calc.calculateAsDouble(OperationType.SUBTRACT, 1.1, 1.03)),
+                () -> assertEquals(0.0112, calc.calculateAsDouble(OperationType.MULTIPLY, 0.14, 0.08)),
+                () -> assertEquals(0.3333, calc.calculateAsDouble(OperationType.DIVIDE, 1, 3)),
+                () -> assertEquals(0.6667, calc.calculateAsDouble(OperationType.DIVIDE, 2, 3)),
+                () -> assertEquals(0.1, calc.calculateAsDouble(OperationType.MODULO, 1.1, 0.5)),
+                () -> assertEquals("-2.5000", calc.calculate(OperationType.DIVIDE, -5, 2).toString()));
+    }
+
+    @Test
+    void testRoundingModes() {
+        FixedPointCalculator halfUp = CalculatorConfig.createFixedPointCalculator(0, RoundingMode.HALF_UP);
+        FixedPointCalculator floor = CalculatorConfig.createFixedPointCalculator(0, RoundingMode.FLOOR);
+        FixedPointCalculator halfEven = CalculatorConfig.createFixedPointCalculator(0, RoundingMode.HALF_EVEN);
+        FixedPointCalculator exact = CalculatorConfig.createFixedPointCalculator(2, RoundingMode.UNNECESSARY);
+        assertAll(
+                () -> assertEquals(3.0, halfUp.calculateAsDouble(OperationType.DIVIDE, 5, 2)),
+                () -> assertEquals(-3.0, halfUp.calculateAsDouble(OperationType.DIVIDE, -5, 2)),
+                () -> assertEquals(2.0, halfEven.calculateAsDouble(OperationType.DIVIDE, 5, 2)),
+                () -> assertEquals(-3.0, floor.calculateAsDouble(OperationType.DIVIDE, -5, 2)),
+                () -> assertEquals(2.0, halfEven.calculateAsDouble(OperationType.ADD, 2.5, 0)),
+                () -> assertThrows(ArithmeticException.class, () -> exact.calculateAsDouble(OperationType.DIVIDE, 1, 3)));
+    }
+
+    @Test
+    void testOverflowPromotesToBigDecimal() {
+        FixedDecimal big = calc.calculate(OperationType.MULTIPLY, Long.MAX_VALUE, 10);
+        assertFalse(big.isCompact());
+        assertEquals(new BigDecimal(Long.MAX_VALUE).multiply(BigDecimal.TEN).setScale(4), big.toBigDecimal());
+
+        FixedDecimal back = calc.calculate(OperationType.DIVIDE, big, 1e10);
+        assertTrue(back.isCompact());
+        assertEquals(new BigDecimal("9223372036.8548"), back.toBigDecimal());
+    }
+
+    @Test
+    void testShortDecimalsStayCompactAtHighScale() {
+        FixedPointArithmetic arithmetic = new FixedPointArithmetic(18, RoundingMode.HALF_EVEN);
+        assertAll(
+                () -> assertEquals(1_000_000_000_000_000_000L, arithmetic.toScaled(1.0)),
+                () -> assertEquals(-2_500_000_000_000_000_000L, arithmetic.toScaled(-2.5)),
+                () -> assertEquals(100_000_000_000_000_000L, arithmetic.toScaled(0.1)),
+                () -> assertEquals(1_230_000_000_000_000_000L, arithmetic.toScaled(1.23)),
+                () -> assertThrows(ArithmeticException.class, () -> arithmetic.toScaled(9.5)),
+                // 72615911711763.59 rounds to this double as well; the shortest form is the one to keep
+                () -> assertEquals(7_261_591_171_176_360L,
+                        new FixedPointArithmetic(2, RoundingMode.HALF_EVEN).toScaled(7.26159117117636E13)));
+
+        FixedPointCalculator fine = CalculatorConfig.createFixedPointCalculator(18, RoundingMode.HALF_EVEN);
+        assertEquals(FixedPointArithmetic.NO_LONG, arithmetic.tryToScaled(9.5));
+        assertEquals(FixedPointArithmetic.NO_LONG, arithmetic.tryToScaled(10L));
+        assertEquals(9_000_000_000_000_000_000L, arithmetic.tryToScaled(9L));
+        FixedDecimal sum = fine.calculate(OperationType.ADD, 1.0, 2.5);
+        assertTrue(sum.isCompact());
+        assertEquals(new BigDecimal("3.500000000000000000"), sum.toBigDecimal());
+        assertEquals(new BigDecimal("0.300000000000000040"),
+                fine.calculate(OperationType.ADD, 0.30000000000000004, 0).toBigDecimal());
+        assertEquals(new BigDecimal("19.000000000000000000"), fine.calculate(OperationType.ADD, 9.5, 9.5).toBigDecimal());
+    }
+
+    // Operands with more digits than the scale are reported without an exception and rounded in BigDecimal
+    @Test
+    void testOperandsWithoutLongForm() {
+        FixedPointArithmetic arithmetic = calc.arithmetic();
+        assertEquals(FixedPointArithmetic.NO_LONG, arithmetic.tryToScaled(Math.PI));
+        assertEquals(31_416, arithmetic.tryToScaled(3.1416));
+        assertThrows(ArithmeticException.class, () -> arithmetic.toScaled(Math.PI));
+        assertAll(
+                () -> assertEquals(4.1416, calc.calculateAsDouble(OperationType.ADD, Math.PI, 1)),
+                () -> assertEquals(new BigDecimal("4.1416"), calc.calculate(OperationType.ADD, Math.PI, 1).toBigDecimal()),
+                () -> assertEquals(new BigDecimal("3.1416"), calc.toFixed(Math.PI).toBigDecimal()),
+                () -> assertEquals(4.1416, calc.start(1).chain(OperationType.ADD, Math.PI).getResultAsDouble()),
+                () -> assertEquals(new BigDecimal("92233720368547758.0700"),
+                        calc.calculate(OperationType.ADD, Long.MAX_VALUE / 100, 0.07).toBigDecimal()));
+    }
+
+    @Test
+    void testZeroDivisors() {
+        assertAll(
+                () -> assertThrows(DivisionByZeroException.class, () -> calc.calculateAsDouble(OperationType.DIVIDE, 1, 0)),
+                () -> assertThrows(ModuloByZeroException.class, () -> calc.calculate(OperationType.MODULO, 1, 0.0)),
+                () -> assertThrows(DivisionByZeroException.class,
+                        () -> calc.calculate(OperationType.DIVIDE, new BigDecimal("1e40"), 0)));
+        double[] out = new double[2];
+        calc.calculateBatch(OperationType.DIVIDE, new double[]{1, 0.3}, new double[]{0, 0.1}, out, ZeroDivisorPolicy.NAN);
+        assertTrue(Double.isNaN(out[0]));
+        assertEquals(3.0, out[1]);
+    }
+
+    @Test
+    void testChains() {
+        Number total = calc.start(0.1)
+                .chain(OperationType.ADD, 0.2)
+                .chain(OperationType.MULTIPLY, 3)
+                .chain(OperationType.SUBTRACT, 0.9)
+                .getResult();
+        assertEquals(new BigDecimal("0.0000"), ((FixedDecimal) total).toBigDecimal());
+
+        double overflowAndBack = calc.start(1e14)
+                .chain(OperationType.MULTIPLY, 1e6)
+                .chain(OperationType.DIVIDE, 1e6)
+                .chain(OperationType.ADD, 0.0001)
+                .getResultAsDouble();
+        assertEquals(100000000000000.0001, overflowAndBack);
+
+        LazyOperationChain lazy = calc.startLazy(0.1, FoldingMode.REASSOCIATE);
+        lazy.chain(OperationType.ADD, 0.2).chain(OperationType.ADD, 0.3);
+        assertEquals(0.6, lazy.getResultAsDouble());
+    }
+}
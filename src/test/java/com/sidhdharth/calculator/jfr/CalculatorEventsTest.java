@@ -0,0 +1,137 @@
+package com.sidhdharth.calculator.jfr;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.chain.OperationChainBuilder;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.ModuloByZeroException;
+import com.sidhdharth.calculator.exception.NullOperandException;
+import com.sidhdharth.calculator.operation.OperationType;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalculatorEventsTest {
+
+    @TempDir
+    Path dir;
+
+    private final Calculator calc = CalculatorConfig.createCalculator();
+
+    @Test
+    void testRecordsCallsStepsAndExceptions() throws IOException {
+        Map<String, String> settings = CalculatorEvents.settings();
+        settings.put(CalculatorEvents.CALCULATE + "#sampleRate", "1");
+        settings.put(CalculatorEvents.CHAIN_STEP + "#sampleRate", "1");
+        
+        Path file = record(settings, () -> {
+            for (int i = 0; i < 10; i++) {
+                calc.calculate(OperationType.ADD, i, 1);
+            }
+            assertThrows(DivisionByZeroException.class, () -> calc.calculate(OperationType.DIVIDE, 1, 0));
+            calc.start(1).chain(OperationType.MULTIPLY, 2).chain(OperationType.MULTIPLY, 3)
+                    .chain(OperationType.SUBTRACT, 1);
+        });
+
+        Map<String, Long> exceptions = new HashMap<>();
+        List<Hotspot> hotspots = RecordingAnalyzer.analyze(file, exceptions);
+        assertEquals(10, find(hotspots, "Calculate", "ADD").count());
+        Hotspot divide = find(hotspots, "Calculate", "DIVIDE");
+        assertEquals(1, divide.errors());
+        assertEquals(Map.of(DivisionByZeroException.class.getName(), 1L), exceptions);
+        Hotspot multiply = find(hotspots, "Chain Step", "MULTIPLY");
+        assertEquals(2, multiply.count());
+        assertEquals(2, multiply.maxDepth());
+        assertEquals(3, find(hotspots, "Chain Step", "SUBTRACT").maxDepth());
+    }
+
+    // The primitive entry point, used by chains, headless mode, the server and batch files, is recorded too
+    @Test
+    void testRecordsPrimitiveCalls() throws IOException {
+        Map<String, String> settings = CalculatorEvents.settings();
+        settings.put(CalculatorEvents.CALCULATE + "#sampleRate", "1");
+        Path file = record(settings, () -> {
+            for (int i = 0; i < 5; i++) {
+                calc.calculateAsDouble(OperationType.SUBTRACT, i, 1);
+            }
+            assertThrows(ModuloByZeroException.class, () -> calc.calculateAsDouble(OperationType.MODULO, 1, 0));
+            calc.start(1).chain(OperationType.SUBTRACT, 1);
+        });
+        Map<String, Long> exceptions = new HashMap<>();
+        List<Hotspot> hotspots = RecordingAnalyzer.analyze(file, exceptions);
+        assertEquals(6, find(hotspots, "Calculate", "SUBTRACT").count());
+        assertEquals(1, find(hotspots, "Calculate", "MODULO").errors());
+        assertEquals(Map.of(ModuloByZeroException.class.getName(), 1L), exceptions);
+    }
+
+    // A null operand is still a step of the chain: it counts towards the depth and records its failure
+    @Test
+    void testRecordsNullOperandSteps() throws IOException {
+        Map<String, String> settings = CalculatorEvents.settings();
+        settings.put(CalculatorEvents.CHAIN_STEP + "#sampleRate", "1");
+        Path file = record(settings, () -> {
+            OperationChainBuilder chain = calc.start(1).chain(OperationType.ADD, 1);
+            assertThrows(NullOperandException.class, () -> chain.chain(OperationType.MULTIPLY, null));
+            chain.chain(OperationType.ADD, 1);
+        });
+        List<Hotspot> hotspots = RecordingAnalyzer.analyze(file);
+        Hotspot multiply = find(hotspots, "Chain Step", "MULTIPLY");
+        assertEquals(1, multiply.count());
+        assertEquals(1, multiply.errors());
+        assertEquals(2, multiply.maxDepth());
+        assertEquals(3, find(hotspots, "Chain Step", "ADD").maxDepth());
+    }
+
+    @Test
+    void testSampleRateAndThreshold() throws IOException {
+        Map<String, String> settings = CalculatorEvents.settings();
+        settings.put(CalculatorEvents.CALCULATE + "#sampleRate", "10");
+        settings.put(CalculatorEvents.CHAIN_STEP + "#threshold", "1 s");
+        Path file = record(settings, () -> {
+            for (int i = 0; i < 10_000; i++) {
+                calc.calculate(OperationType.ADD, i, 1);
+                calc.start(i).chain(OperationType.ADD, 1);
+            }
+        });
+        List<Hotspot> hotspots = RecordingAnalyzer.analyze(file);
+        // 20,000 calls: each chain step calls calculateAsDouble
+        long recorded = find(hotspots, "Calculate", "ADD").count();
+        assertTrue(recorded > 1000 && recorded < 4000, "recorded " + recorded);
+        assertTrue(hotspots.stream().noneMatch(h -> h.event().equals("Chain Step")));
+    }
+
+    @Test
+    void testDisabledWithoutTheProfile() throws IOException, ParseException {
+        Path file = record(Configuration.getConfiguration("default").getSettings(), () -> {
+            calc.calculate(OperationType.ADD, 1, 1);
+            calc.start(1).chain(OperationType.ADD, 1);
+        });
+        assertEquals(List.of(), RecordingAnalyzer.analyze(file));
+    }
+
+    private Path record(Map<String, String> settings, Runnable work) throws IOException {
+        Path file = dir.resolve("calc.jfr");
+        try (Recording recording = new Recording(settings)) {
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return file;
+    }
+
+    private static Hotspot find(List<Hotspot> hotspots, String event, String operation) {
+        return hotspots.stream().filter(h -> h.event().equals(event) && h.operation().equals(operation))
+                .findFirst().orElseThrow(() -> new AssertionError(event + " " + operation + " in " + hotspots));
+    }
+}
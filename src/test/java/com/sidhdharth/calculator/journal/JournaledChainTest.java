@@ -0,0 +1,239 @@
+package com.sidhdharth.calculator.journal;
+
+import com.sidhdharth.calculator.api.Calculator;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.InvalidInputException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationRegistry;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledChainTest {
+
+    @TempDir
+    Path dir;
+
+    private Calculator calc;
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        calc = CalculatorConfig.createCalculator();
+        file = dir.resolve("session.journal");
+    }
+
+    @Test
+    void testRecoversStepsAndUndos() throws IOException {
+        try (JournaledChain chain = JournaledChain.open(file, calc, 5)) {
+            chain.chain(OperationType.ADD, 3).chain(OperationType.MULTIPLY, 2).chain(OperationType.SUBTRACT, 1);
+            chain.chain(OperationRegistry.getDefault().fromSymbol("max"), 100);
+            chain.undo();
+            assertThrows(DivisionByZeroException.class, () -> chain.chain(OperationType.DIVIDE, 0));
+            assertEquals(15.0, chain.getResult());
+        }
+        try (JournaledChain recovered = JournaledChain.open(file, calc, 0)) {
+            assertEquals(15.0, recovered.getResultAsDouble());
+            assertEquals(3, recovered.depth());
+            assertEquals(3, recovered.undoableSteps());
+            assertEquals(8.0, recovered.undo(2).getResultAsDouble());
+            recovered.chain(OperationType.DIVIDE, 4);
+        }
+        try (JournaledChain recovered = JournaledChain.open(file, calc, 0)) {
+            assertEquals(2.0, recovered.getResultAsDouble());
+            assertEquals(5.0, recovered.undo(2).getResultAsDouble());
+            assertThrows(InvalidInputException.class, recovered::undo);
+        }
+    }
+
+    @Test
+    void testCheckpointsBoundReplay() throws IOException {
+        try (JournaledChain chain = JournaledChain.open(file, calc, 0, 16, 100)) {
+            for (int i = 0; i < 1050; i++) {
+                chain.chain(OperationType.ADD, 1);
+            }
+        }
+        try (JournaledChain recovered = JournaledChain.open(file, calc, 0)) {
+            assertEquals(1050.0, recovered.getResultAsDouble());
+            assertEquals(1050, recovered.depth());
+            // Replay started at the checkpoint taken after step 1000
+            assertEquals(50, recovered.undoableSteps());
+
+            // Undoing past the checkpoint writes a new checkpoint, so the next recovery agrees
+            recovered.undo(50);
+            recovered.undo(0);
+            assertEquals(0, recovered.undoableSteps());
+        }
+        try (JournaledChain recovered = JournaledChain.open(file, calc, 0)) {
+            assertEquals(1000.0, recovered.getResultAsDouble());
+        }
+    }
+
+    @Test
+    void testUndoPastCheckpointInLiveSession() throws IOException {
+        try (JournaledChain chain = JournaledChain.open(file, calc, 1)) {
+            chain.chain(OperationType.MULTIPLY, 2).chain(OperationType.MULTIPLY, 3);
+            chain.checkpoint();
+            chain.chain(OperationType.ADD, 4);
+            assertEquals(2.0, chain.undo(2).getResultAsDouble());
+            chain.chain(OperationType.ADD, 0.5);
+        }
+        try (JournaledChain recovered = JournaledChain.open(file, calc, 0)) {
+            assertEquals(2.5, recovered.getResultAsDouble());
+            assertEquals(2, recovered.depth());
+        }
+    }
+
+    @Test
+    void testBranchesShareHistory() throws IOException {
+        try (JournaledChain chain = JournaledChain.open(file, calc, 10)) {
+            chain.chain(OperationType.ADD, 5);
+            JournaledChain branch = chain.branch();
+            branch.chain(OperationType.MULTIPLY, 10);
+            chain.chain(OperationType.SUBTRACT, 5);
+            assertEquals(150.0, branch.getResultAsDouble());
+            assertEquals(10.0, chain.getResultAsDouble());
+            assertEquals(10.0, branch.undo(2).getResultAsDouble());
+            assertEquals(15.0, chain.undo().getResultAsDouble());
+        }
+        try (JournaledChain recovered = JournaledChain.open(file, calc, 0)) {
+            assertEquals(15.0, recovered.getResultAsDouble());
+        }
+    }
+
+    @Test
+    void testTornTailIsDropped() throws IOException {
+        try (JournaledChain chain = JournaledChain.open(file, calc, 0)) {
+            chain.chain(OperationType.ADD, 1).chain(OperationType.ADD, 2).chain(OperationType.ADD, 3);
+        }
+        long end;
+        try (JournaledChain chain = JournaledChain.open(file, calc, 0)) {
+            end = endOfRecords();
+        }
+        // Corrupt the last STEP's result, as if the process died while writing it
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(end - 6);
+            raf.write(0x7f);
+        }
+        try (JournaledChain recovered = JournaledChain.open(file, calc, 0)) {
+            assertEquals(3.0, recovered.getResultAsDouble());
+            recovered.chain(OperationType.MULTIPLY, 2);
+        }
+        try (JournaledChain recovered = JournaledChain.open(file, calc, 0)) {
+            assertEquals(6.0, recovered.getResultAsDouble());
+        }
+    }
+
+    @Test
+    void testValidRecordsBehindATornOneStayDropped() throws IOException {
+        try (JournaledChain chain = JournaledChain.open(file, calc, 0)) {
+            for (int i = 0; i < 30; i++) {
+                chain.chain(OperationType.ADD, 1);
+            }
+        }
+        // Header (64), CHECKPOINT (21), DEFINE of "+" (9), then 23-byte STEPs: break the sixth, as if the
+        // pages holding the later records had reached the disk before its own
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(64 + 21 + 9 + 5 * 23);
+            raf.write(0x7f);
+        }
+        try (JournaledChain recovered = JournaledChain.open(file, calc, 0)) {
+            assertEquals(5.0, recovered.getResultAsDouble());
+            // Same record length as before, so these end exactly where an old STEP starts, well past the torn one
+            for (int i = 0; i < 20; i++) {
+                recovered.chain(OperationType.ADD, 100);
+            }
+        }
+        try (JournaledChain recovered = JournaledChain.open(file, calc, 0)) {
+            assertEquals(2005.0, recovered.getResultAsDouble());
+            assertEquals(25, recovered.depth());
+        }
+    }
+
+    @Test
+    void testUnregisteredSymbolsStillRecover() throws IOException {
+        Operation average = new Operation() {
+            @Override
+            public double applyAsDouble(double num1, double num2) {
+                return (num1 + num2) / 2;
+            }
+
+            @Override
+            public Set<String> symbols() {
+                return Set.of("avg");
+            }
+        };
+        try (JournaledChain chain = JournaledChain.open(file, calc, 0)) {
+            chain.chain(average, 10).chain(OperationType.ADD, 1);
+        }
+        try (JournaledChain recovered = JournaledChain.open(file, calc, 0)) {
+            assertEquals(6.0, recovered.getResultAsDouble());
+            recovered.chain(average, 0);
+        }
+        try (JournaledChain recovered = JournaledChain.open(file, calc, 0)) {
+            assertEquals(3.0, recovered.getResultAsDouble());
+            assertEquals(3, recovered.depth());
+        }
+    }
+
+    @Test
+    void testCheckpointsCompactTheJournal() throws IOException {
+        History state = History.root(0, 0);
+        try (Journal journal = Journal.open(file, 16, 0, 4096)) {
+            for (int i = 0; i < 10_000; i++) {
+                state = state.push(state.value + 1);
+                journal.step(OperationType.ADD, 1, state.value);
+                if (i % 100 == 99) {
+                    journal.checkpoint(state);
+                }
+                assertTrue(journal.size() < 4096 + 100 * 23 + 64, "size " + journal.size());
+            }
+            for (int i = 0; i < 7; i++) {
+                state = state.push(state.value * 2);
+                journal.step(OperationType.MULTIPLY, 2, state.value);
+            }
+        }
+        try (Journal journal = Journal.open(file, 16, 0)) {
+            assertEquals(10_000 * 128.0, journal.recovered().value);
+            assertEquals(10_007, journal.recovered().depth);
+        }
+    }
+
+    @Test
+    void testLongHistoryUndo() throws IOException {
+        try (JournaledChain chain = JournaledChain.open(file, calc, 0, 1024, Integer.MAX_VALUE)) {
+            for (int i = 0; i < 100_000; i++) {
+                chain.chain(OperationType.ADD, 1);
+            }
+            assertEquals(100_000, chain.undoableSteps());
+            assertEquals(12_345.0, chain.undo(87_655).getResultAsDouble());
+            assertEquals(0.0, chain.undo(12_345).getResultAsDouble());
+        }
+        try (JournaledChain recovered = JournaledChain.open(file, calc, 0)) {
+            assertEquals(0.0, recovered.getResultAsDouble());
+        }
+    }
+
+    private long endOfRecords() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            long end = raf.length();
+            while (end > 0) {
+                raf.seek(end - 1);
+                if (raf.read() != 0) {
+                    return end;
+                }
+                end--;
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.sidhdharth.calculator.metrics;
+
+import com.sidhdharth.calculator.api.ErrorPolicy;
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.exception.DivisionByZeroException;
+import com.sidhdharth.calculator.exception.NullOperandException;
+import com.sidhdharth.calculator.operation.Operation;
+import com.sidhdharth.calculator.operation.OperationType;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedCalculatorTest {
+
+    @Test
+    void testCountsCallsErrorsAndChainSteps() {
+        InstrumentedCalculator calc = new InstrumentedCalculator(CalculatorConfig.createCalculator(), 1);
+        calc.calculate(OperationType.ADD, 1, 2);
+        calc.calculateAsDouble(OperationType.ADD, 1, 2);
+        calc.start(5).chain(OperationType.MULTIPLY, 2).chain(OperationType.MULTIPLY, 3).getResult();
+        assertThrows(DivisionByZeroException.class, () -> calc.calculateAsDouble(OperationType.DIVIDE, 1, 0));
+        assertThrows(NullOperandException.class, () -> calc.calculate(OperationType.SUBTRACT, null, 1));
+
+        MetricsSnapshot snapshot = calc.snapshot();
+        assertEquals(2, snapshot.operations().get("ADD").calls());
+        assertEquals(2, snapshot.operations().get("MULTIPLY").calls());
+        assertEquals(1, snapshot.operations().get("DIVIDE").errors());
+        assertEquals(Map.of("DivisionByZeroException", 1L, "NullOperandException", 1L), snapshot.errors());
+        assertEquals(6, snapshot.totalCalls());
+        assertEquals(2, snapshot.operations().get("ADD").sampledCalls());
+        assertTrue(snapshot.operations().get("ADD").percentileNanos(0.99) > 0);
+
+        calc.reset();
+        assertEquals(0, calc.snapshot().totalCalls());
+    }
+
+    @Test
+    void testCountsResultCodeErrors() {
+        InstrumentedCalculator calc = CalculatorConfig.createInstrumentedCalculator(ErrorPolicy.RESULT_CODE);
+        calc.calculateAsDouble(OperationType.MODULO, 1, 0);
+        calc.calculateAsDouble(OperationType.MODULO, 5, 3);
+        assertEquals(Map.of("ModuloByZeroException", 1L), calc.snapshot().errors());
+        assertEquals(1, calc.snapshot().operations().get("MODULO").errors());
+    }
+
+    @Test
+    void testCallsFromManyThreadsAreExact() throws InterruptedException {
+        InstrumentedCalculator calc = new InstrumentedCalculator(CalculatorConfig.createCalculator());
+        calc.calculateAsDouble(OperationType.ADD, 1, 1);
+        calc.reset();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    calc.calculateAsDouble(OperationType.ADD, i, 1);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        MetricsSnapshot.OperationStats add = calc.snapshot().operations().get("ADD");
+        assertEquals(40_000, add.calls(), "dead threads' counts are kept");
+        assertTrue(add.sampledCalls() > 0 && add.sampledCalls() < 40_000);
+        calc.calculateAsDouble(OperationType.ADD, 1, 1);
+        assertEquals(40_001, calc.snapshot().operations().get("ADD").calls());
+    }
+
+    // One cell per thread: short-lived threads register and die far faster than anything reads the counts
+    @Test
+    void testShortLivedThreadsAreCounted() throws InterruptedException {
+        InstrumentedCalculator calc = new InstrumentedCalculator(CalculatorConfig.createCalculator());
+        for (int round = 0; round < 20; round++) {
+            Thread[] threads = new Thread[100];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 10; i++) {
+                        calc.calculateAsDouble(OperationType.MULTIPLY, i, 2);
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        assertEquals(20_000, calc.snapshot().operations().get("MULTIPLY").calls());
+        calc.reset();
+        calc.calculateAsDouble(OperationType.MULTIPLY, 1, 2);
+        assertEquals(1, calc.snapshot().operations().get("MULTIPLY").calls());
+    }
+
+    @Test
+    void testResolvedOperationsAreNotConfused() {
+        InstrumentedCalculator calc = new InstrumentedCalculator(CalculatorConfig.createCalculator());
+        Named[] ops = new Named[200];
+        for (int i = 0; i < ops.length; i++) {
+            ops[i] = new Named(i % 2 == 0 ? "even" : "odd");
+        }
+        for (int round = 0; round < 3; round++) {
+            for (Named op : ops) {
+                calc.calculateAsDouble(op, 1, 2);
+            }
+        }
+        Map<String, MetricsSnapshot.OperationStats> operations = calc.snapshot().operations();
+        assertEquals(300, operations.get("even").calls());
+        assertEquals(300, operations.get("odd").calls());
+    }
+
+    @Test
+    void testCustomOperationsAreBounded() {
+        InstrumentedCalculator calc = new InstrumentedCalculator(CalculatorConfig.createCalculator());
+        Operation max = new Operation() {
+            @Override
+            public double applyAsDouble(double num1, double num2) {
+                return Math.max(num1, num2);
+            }
+
+            @Override
+            public Set<String> symbols() {
+                return Set.of("max", "\u2228");
+            }
+        };
+        calc.calculateAsDouble(max, 1, 2);
+        for (int i = 0; i < 1000; i++) {
+            int offset = i;
+            calc.calculateAsDouble((a, b) -> a + b + offset, 1, 2);
+        }
+        Map<String, MetricsSnapshot.OperationStats> operations = calc.snapshot().operations();
+        assertEquals(1, operations.get("max").calls());
+        assertEquals(1000, operations.get("other").calls(), "lambdas without symbols share one entry");
+        assertEquals(OperationType.values().length + 2, operations.size());
+
+        for (int i = 0; i < 2 * InstrumentedCalculator.MAX_CUSTOM_OPERATIONS; i++) {
+            calc.calculateAsDouble(new Named("op" + i), 1, 2);
+        }
+        // "max" and "other" already hold two of the places, so the last MAX_CUSTOM_OPERATIONS + 2 go to "other"
+        operations = calc.snapshot().operations();
+        assertEquals(OperationType.values().length + InstrumentedCalculator.MAX_CUSTOM_OPERATIONS, operations.size());
+        assertEquals(1000 + InstrumentedCalculator.MAX_CUSTOM_OPERATIONS + 2, operations.get("other").calls());
+    }
+
+    private record Named(String symbol) implements Operation {
+        @Override
+        public double applyAsDouble(double num1, double num2) {
+            return num1;
+        }
+
+        @Override
+        public Set<String> symbols() {
+            return Set.of(symbol);
+        }
+    }
+
+    @Test
+    void testLazyChainNeedsAMode() {
+        InstrumentedCalculator calc = CalculatorConfig.createInstrumentedCalculator(ErrorPolicy.THROW);
+        assertThrows(NullOperandException.class, () -> calc.startLazy(1, null));
+    }
+
+    @Test
+    void testMBeanExport() throws JMException {
+        InstrumentedCalculator calc = CalculatorConfig.createInstrumentedCalculator(ErrorPolicy.THROW);
+        ObjectName name = calc.registerMBean("test");
+        try {
+            calc.calculateAsDouble(OperationType.SUBTRACT, 3, 1);
+            assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "TotalCalls"));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.sidhdharth.calculator.operation;
+
+import java.util.Set;
+
+// Extension registered through META-INF/services that fails with an exception the calculator does not know
+public class FailingOperation implements Operation {
+
+    @Override
+    public double applyAsDouble(double num1, double num2) {
+        throw new IllegalStateException("operation failed on " + num1 + "\nand " + num2);
+    }
+
+    @Override
+    public Set<String> symbols() {
+        return Set.of("fail");
+    }
+}
@@ -0,0 +1,17 @@
+package com.sidhdharth.calculator.operation;
+
+import java.util.Set;
+
+// Extension registered through META-INF/services in the test resources
+public class MaxOperation implements Operation {
+
+    @Override
+    public double applyAsDouble(double num1, double num2) {
+        return Math.max(num1, num2);
+    }
+
+    @Override
+    public Set<String> symbols() {
+        return Set.of("max");
+    }
+}
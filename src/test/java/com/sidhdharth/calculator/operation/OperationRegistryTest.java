@@ -0,0 +1,59 @@
+package com.sidhdharth.calculator.operation;
+
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import com.sidhdharth.calculator.exception.InvalidOperationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationRegistryTest {
+
+    @Test
+    void testBuiltInSymbols() {
+        OperationRegistry registry = OperationRegistry.of(List.of());
+        assertAll(
+                () -> assertSame(OperationType.ADD, registry.fromSymbol("+")),
+                () -> assertSame(OperationType.MULTIPLY, registry.fromSymbol(" X ")),
+                () -> assertSame(OperationType.MULTIPLY, registry.fromSymbol('x')),
+                () -> assertSame(OperationType.MODULO, registry.fromSymbol('%')),
+                () -> assertThrows(InvalidOperationException.class, () -> registry.fromSymbol("^")),
+                () -> assertThrows(InvalidOperationException.class, () -> registry.fromSymbol('é')),
+                () -> assertEquals(OperationType.values().length, registry.operations().size()),
+                () -> assertEquals(OperationType.allSymbols(), registry.allSymbols()),
+                () -> assertSame(OperationType.DIVIDE, OperationType.fromSymbol("/")),
+                () -> assertThrows(InvalidOperationException.class, () -> OperationType.fromSymbol("add")));
+    }
+
+    @Test
+    void testServiceLoaderExtensions() {
+        OperationRegistry registry = OperationRegistry.getDefault();
+        Operation max = registry.fromSymbol("max");
+        assertInstanceOf(MaxOperation.class, max);
+        assertTrue(registry.allSymbols().endsWith("max"));
+        assertEquals(7.0, CalculatorConfig.createCalculator().calculateAsDouble(max, 7, -2));
+        assertEquals(7.0, CalculatorConfig.createCalculator().calculate(max, -2, 7));
+    }
+
+    @Test
+    void testConflictsAndMissingSymbolsRejected() {
+        Operation power = new Operation() {
+            @Override
+            public double applyAsDouble(double num1, double num2) {
+                return Math.pow(num1, num2);
+            }
+
+            @Override
+            public Set<String> symbols() {
+                return Set.of("^", "x");
+            }
+        };
+        IllegalArgumentException conflict = assertThrows(IllegalArgumentException.class,
+                () -> OperationRegistry.of(List.of(power)));
+        assertTrue(conflict.getMessage().contains("MULTIPLY"));
+        assertThrows(IllegalArgumentException.class, () -> OperationRegistry.of(List.of(new MaxOperation(), new MaxOperation())));
+        assertThrows(IllegalArgumentException.class, () -> OperationRegistry.of(List.of((num1, num2) -> num1)));
+    }
+}
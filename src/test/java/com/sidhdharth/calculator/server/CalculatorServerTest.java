@@ -0,0 +1,149 @@
+package com.sidhdharth.calculator.server;
+
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalculatorServerTest {
+
+    private static CalculatorServer start(ServerMode mode) throws IOException {
+        return CalculatorServer.start(CalculatorConfig.createCalculator(),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), mode);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ServerMode.class)
+    void testRequestsAndErrors(ServerMode mode) throws IOException {
+        try (CalculatorServer server = start(mode);
+             Socket socket = new Socket(server.address().getAddress(), server.address().getPort())) {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out.write(("5 + 3\n10 x 2\r\nCHAIN 100 / 2 - 10 * 3 % 7\nBATCH 1 + 1; 3 / 0; 9 % 4\n"
+                    + "7 % 0\n1 ^ 2\nCHAIN 1 +\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            assertEquals("OK 8.0", in.readLine());
+            assertEquals("OK 20.0", in.readLine());
+            assertEquals("OK 1.0", in.readLine());
+            assertEquals("OK 2.0;ERR Cannot divide by zero;1.0", in.readLine());
+            assertEquals("ERR Cannot perform modulo by zero", in.readLine());
+            assertEquals("ERR Invalid operation: ^", in.readLine());
+            assertTrue(in.readLine().startsWith("ERR Invalid input"));
+        }
+    }
+
+    // A last request without its newline is answered before the server closes the connection
+    @ParameterizedTest
+    @EnumSource(ServerMode.class)
+    void testLastLineWithoutNewline(ServerMode mode) throws IOException {
+        try (CalculatorServer server = start(mode);
+             Socket socket = new Socket(server.address().getAddress(), server.address().getPort())) {
+            socket.setSoTimeout(5000);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            socket.getOutputStream().write("5 + 3\n2 * 7".getBytes(StandardCharsets.US_ASCII));
+            socket.shutdownOutput();
+            assertEquals("OK 8.0", in.readLine());
+            assertEquals("OK 14.0", in.readLine());
+            assertNull(in.readLine());
+        }
+    }
+
+    // FailingOperation throws IllegalStateException, which must not take down the connection or the server
+    @ParameterizedTest
+    @EnumSource(ServerMode.class)
+    void testFailingExtensionAnswersError(ServerMode mode) throws IOException {
+        try (CalculatorServer server = start(mode)) {
+            for (int connection = 0; connection < 2; connection++) {
+                try (Socket socket = new Socket(server.address().getAddress(), server.address().getPort())) {
+                    socket.setSoTimeout(5000); // a dead server loop would otherwise hang the read
+                    OutputStream out = socket.getOutputStream();
+                    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                    out.write("1 fail 2\nBATCH 1 + 1; 3 fail 4\nCHAIN 1 + 2 fail 3\n5 + 3\n".getBytes(StandardCharsets.US_ASCII));
+                    out.flush();
+                    assertEquals("ERR IllegalStateException: operation failed on 1.0 and 2.0", in.readLine());
+                    assertEquals("OK 2.0;ERR IllegalStateException: operation failed on 3.0 and 4.0", in.readLine());
+                    assertEquals("ERR IllegalStateException: operation failed on 3.0 and 3.0", in.readLine());
+                    assertEquals("OK 8.0", in.readLine());
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ServerMode.class)
+    void testPipelinedRequestsAnsweredInOrder(ServerMode mode) throws IOException {
+        try (CalculatorServer server = start(mode);
+             Socket socket = new Socket(server.address().getAddress(), server.address().getPort())) {
+            StringBuilder requests = new StringBuilder();
+            for (int i = 0; i < 5000; i++) {
+                requests.append(i).append(" + 1\n");
+            }
+            OutputStream out = socket.getOutputStream();
+            out.write(requests.toString().getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            for (int i = 0; i < 5000; i++) {
+                assertEquals("OK " + (i + 1.0), in.readLine());
+            }
+        }
+    }
+
+    // The client writes far more than the socket buffers hold before reading anything; the server must push back
+    @ParameterizedTest
+    @EnumSource(ServerMode.class)
+    void testSlowReaderGetsEveryAnswer(ServerMode mode) throws Exception {
+        int count = 200_000;
+        try (CalculatorServer server = start(mode);
+             Socket socket = new Socket(server.address().getAddress(), server.address().getPort())) {
+            Thread writer = new Thread(() -> {
+                try {
+                    OutputStream out = socket.getOutputStream();
+                    for (int i = 0; i < count; i++) {
+                        out.write((i + " * 2\n").getBytes(StandardCharsets.US_ASCII));
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    // Reported by the reader running short
+                }
+            });
+            writer.start();
+            Thread.sleep(200);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            for (int i = 0; i < count; i++) {
+                assertEquals("OK " + (i * 2.0), in.readLine());
+            }
+            writer.join();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ServerMode.class)
+    void testLoadGeneratorReport(ServerMode mode) throws IOException {
+        try (CalculatorServer server = start(mode)) {
+            LoadGenerator.Report report = LoadGenerator.run(server.address(), 2, 8, 200);
+            assertTrue(report.requests() > 0);
+            assertTrue(report.p50Nanos() <= report.p99Nanos());
+            // Every BATCH in the request mix divides by zero in its last item
+            assertTrue(report.errors() > 0);
+        }
+    }
+
+    @Test
+    void testLoadGeneratorCountsBatchItemErrors() {
+        assertEquals(1, LoadGenerator.errors("ERR Cannot divide by zero"));
+        assertEquals(0, LoadGenerator.errors("OK 2.0;4.0;1.5"));
+        assertEquals(1, LoadGenerator.errors("OK 2.0;4.0;ERR Cannot divide by zero"));
+        assertEquals(2, LoadGenerator.errors("OK ERR Invalid operation: ^;2.0;ERR Cannot divide by zero"));
+    }
+}
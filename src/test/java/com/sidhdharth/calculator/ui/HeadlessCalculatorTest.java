@@ -0,0 +1,75 @@
+package com.sidhdharth.calculator.ui;
+
+import com.sidhdharth.calculator.config.CalculatorConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadlessCalculatorTest {
+
+    private HeadlessCalculator headless;
+    private StringWriter out;
+    private StringWriter err;
+
+    @BeforeEach
+    void setUp() {
+        headless = new HeadlessCalculator(CalculatorConfig.createCalculator());
+        out = new StringWriter();
+        err = new StringWriter();
+    }
+
+    @Test
+    void testArgumentsAsChainOrExpression() throws IOException {
+        assertEquals(0, run("", "5", "+", "3", "x", "2"));
+        assertEquals(0, run("", "5 + 3 x 2"));
+        assertEquals(0, run("", "-e", "5 + 3 x 2"));
+        assertEquals(0, run("", "-1.5"));
+        assertEquals("16.0\n16.0\n11.0\n-1.5\n", out.toString());
+        assertEquals("", err.toString());
+    }
+
+    @Test
+    void testArgumentErrors() throws IOException {
+        assertEquals(1, run("", "7", "%", "0"));
+        assertEquals(1, run("", "7", "^", "2"));
+        assertEquals(1, run("", "7", "+"));
+        assertEquals(1, run("", "seven"));
+        assertEquals(2, run("", "-e"));
+        assertEquals("", out.toString());
+        assertEquals(5, err.toString().lines().count());
+        assertTrue(err.toString().startsWith("Invalid input: "));
+    }
+
+    @Test
+    void testStdinStream() throws IOException {
+        assertEquals(1, run("1 + 2\n\n10 / 0\n2 x 3 - 1\n", "-"));
+        assertEquals("3.0\nerror\n5.0\n", out.toString());
+        assertTrue(err.toString().startsWith("line 3: "));
+
+        out.getBuffer().setLength(0);
+        assertEquals(0, run("1 + 2 x 3\n(1 + 2) x 3\n", "-e", "-"));
+        assertEquals("7.0\n9.0\n", out.toString());
+    }
+
+    // FailingOperation is registered from the test classpath and throws IllegalStateException
+    @Test
+    void testFailingExtensionFailsOnlyItsLine() throws IOException {
+        assertEquals(1, run("1 + 2\n3 fail 4\n5 * 6\n", "-"));
+        assertEquals("3.0\nerror\n30.0\n", out.toString());
+        assertEquals(1, err.toString().lines().count());
+        assertTrue(err.toString().startsWith("line 2: IllegalStateException: operation failed on 3.0 and 4.0"));
+
+        out.getBuffer().setLength(0);
+        assertEquals(1, run("", "3", "fail", "4"));
+        assertEquals("", out.toString());
+    }
+
+    private int run(String stdin, String... args) throws IOException {
+        return headless.run(args, new StringReader(stdin), out, err);
+    }
+}